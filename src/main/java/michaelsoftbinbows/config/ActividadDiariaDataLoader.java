@@ -0,0 +1,25 @@
+package michaelsoftbinbows.config;
+
+import michaelsoftbinbows.services.ActividadDiariaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Esta clase se ejecuta una vez al iniciar la aplicación. La primera vez recalcula la actividad
+ * diaria de todos los usuarios desde sus tareas completadas; en los siguientes arranques no hace
+ * nada.
+ */
+@Component
+public class ActividadDiariaDataLoader implements CommandLineRunner {
+
+  @Autowired private ActividadDiariaService actividadDiariaService;
+
+  @Override
+  public void run(String... args) throws Exception {
+    System.out.println("LOG: Verificando relleno inicial de actividad diaria...");
+    int dias = actividadDiariaService.rellenarFaltantes();
+    System.out.println(
+        "LOG: Relleno de actividad diaria completado. " + dias + " días recalculados.");
+  }
+}
@@ -1,7 +1,20 @@
 package michaelsoftbinbows.config;
 
+import java.util.List;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -9,14 +22,63 @@ import org.springframework.web.client.RestTemplate;
  * inyección de dependencias.
  */
 @Configuration
+@EnableAsync // Permite ejecutar métodos @Async (ej. el recálculo de ligas) en segundo plano.
+@EnableScheduling // Activa las tareas @Scheduled (reseteo de temporada, precarga del clima).
 public class AppConfig {
 
   /**
-   * Esto crea una instancia ÚNICA de RestTemplate (un "Bean") que Spring usará para inyectar en
-   * todos los servicios que lo pidan.
+   * Cliente HTTP compartido para las APIs externas (OpenWeatherMap). Usa un pool de conexiones
+   * reutilizables con límite por host, timeouts de conexión y de lectura, reintentos con espera
+   * exponencial para GET y un circuit breaker por host, para que una API lenta o caída no deje
+   * hilos del servidor esperando indefinidamente.
    */
   @Bean
-  public RestTemplate restTemplate() {
-    return new RestTemplate();
+  public RestTemplate restTemplate(
+      @Value("${http.cliente.conexiones-max:50}") int conexionesMax,
+      @Value("${http.cliente.conexiones-por-host:20}") int conexionesPorHost,
+      @Value("${http.cliente.timeout-conexion-ms:2000}") long timeoutConexionMs,
+      @Value("${http.cliente.timeout-lectura-ms:3000}") long timeoutLecturaMs,
+      @Value("${http.cliente.timeout-pool-ms:1000}") long timeoutPoolMs,
+      @Value("${http.cliente.timeout-total-ms:8000}") long timeoutTotalMs,
+      @Value("${http.cliente.reintentos:2}") int reintentos,
+      @Value("${http.cliente.espera-reintento-ms:200}") long esperaReintentoMs,
+      @Value("${http.cliente.circuito.fallos:5}") int fallosParaAbrir,
+      @Value("${http.cliente.circuito.espera-ms:30000}") long esperaCircuitoMs) {
+    PoolingHttpClientConnectionManager conexiones =
+        PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(conexionesMax)
+            .setMaxConnPerRoute(conexionesPorHost)
+            .setDefaultConnectionConfig(
+                ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.ofMilliseconds(timeoutConexionMs))
+                    .setSocketTimeout(Timeout.ofMilliseconds(timeoutLecturaMs))
+                    .setTimeToLive(TimeValue.ofMinutes(5))
+                    .build())
+            .build();
+
+    CloseableHttpClient httpClient =
+        HttpClients.custom()
+            .setConnectionManager(conexiones)
+            .setDefaultRequestConfig(
+                RequestConfig.custom()
+                    .setConnectionRequestTimeout(Timeout.ofMilliseconds(timeoutPoolMs))
+                    .setResponseTimeout(Timeout.ofMilliseconds(timeoutLecturaMs))
+                    .build())
+            .evictIdleConnections(TimeValue.ofSeconds(30))
+            .disableAutomaticRetries() // Los reintentos los maneja ReintentosHttpInterceptor
+            .build();
+
+    RestTemplate restTemplate =
+        new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    // El circuito va primero: una petición con todos sus reintentos fallidos cuenta como un fallo.
+    restTemplate.setInterceptors(
+        List.of(
+            new CircuitoHttpInterceptor(fallosParaAbrir, esperaCircuitoMs),
+            new ReintentosHttpInterceptor(
+                reintentos,
+                esperaReintentoMs,
+                timeoutTotalMs,
+                timeoutPoolMs + timeoutConexionMs + timeoutLecturaMs)));
+    return restTemplate;
   }
 }
@@ -0,0 +1,93 @@
+package michaelsoftbinbows.config;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Circuit breaker por host. Tras varios fallos seguidos (error de red o respuesta 5xx) el circuito
+ * se abre y las peticiones a ese host fallan de inmediato, sin ocupar conexiones ni hilos. Pasado
+ * el tiempo de espera se deja pasar una petición de prueba: si funciona el circuito se cierra, si
+ * no vuelve a abrirse.
+ */
+public class CircuitoHttpInterceptor implements ClientHttpRequestInterceptor {
+
+  private final int fallosParaAbrir;
+  private final long esperaAbiertoMs;
+  private final Map<String, Circuito> circuitos = new ConcurrentHashMap<>();
+
+  /** Estado del circuito de un host. Todos sus métodos se sincronizan sobre el propio objeto. */
+  private static final class Circuito {
+    private int fallosSeguidos = 0;
+    private long abiertoHasta = 0;
+    private boolean pruebaEnCurso = false;
+
+    synchronized boolean permitir(long ahora) {
+      if (abiertoHasta == 0) {
+        return true;
+      }
+      if (ahora < abiertoHasta || pruebaEnCurso) {
+        return false;
+      }
+      pruebaEnCurso = true;
+      return true;
+    }
+
+    synchronized void exito() {
+      fallosSeguidos = 0;
+      abiertoHasta = 0;
+      pruebaEnCurso = false;
+    }
+
+    synchronized void fallo(long ahora, int fallosParaAbrir, long esperaAbiertoMs) {
+      fallosSeguidos++;
+      if (pruebaEnCurso || fallosSeguidos >= fallosParaAbrir) {
+        abiertoHasta = ahora + esperaAbiertoMs;
+      }
+      pruebaEnCurso = false;
+    }
+  }
+
+  /**
+   * Crea el interceptor.
+   *
+   * @param fallosParaAbrir Fallos seguidos que abren el circuito.
+   * @param esperaAbiertoMs Tiempo que el circuito queda abierto antes de probar de nuevo.
+   */
+  public CircuitoHttpInterceptor(int fallosParaAbrir, long esperaAbiertoMs) {
+    this.fallosParaAbrir = fallosParaAbrir;
+    this.esperaAbiertoMs = esperaAbiertoMs;
+  }
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    String host = request.getURI().getHost();
+    Circuito circuito = circuitos.computeIfAbsent(host, h -> new Circuito());
+    if (!circuito.permitir(System.currentTimeMillis())) {
+      throw new IOException("Circuito abierto para " + host + ": se omite la petición.");
+    }
+    try {
+      ClientHttpResponse response = execution.execute(request, body);
+      if (response.getStatusCode().is5xxServerError()) {
+        registrarFallo(circuito, host);
+      } else {
+        circuito.exito();
+      }
+      return response;
+    } catch (IOException | RuntimeException e) {
+      // Cualquier error cuenta como fallo; si era la petición de prueba, así se libera
+      registrarFallo(circuito, host);
+      throw e;
+    }
+  }
+
+  private void registrarFallo(Circuito circuito, String host) {
+    circuito.fallo(System.currentTimeMillis(), fallosParaAbrir, esperaAbiertoMs);
+    System.err.println("LOG: Falló una petición a " + host + ".");
+  }
+}
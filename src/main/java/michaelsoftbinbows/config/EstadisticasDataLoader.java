@@ -0,0 +1,25 @@
+package michaelsoftbinbows.config;
+
+import michaelsoftbinbows.services.UsuarioEstadisticasService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Esta clase se ejecuta una vez al iniciar la aplicación. Calcula las estadísticas agregadas de los
+ * usuarios que todavía no las tienen (por ejemplo, cuentas creadas antes de que existiera la
+ * tabla).
+ */
+@Component
+public class EstadisticasDataLoader implements CommandLineRunner {
+
+  @Autowired private UsuarioEstadisticasService usuarioEstadisticasService;
+
+  @Override
+  public void run(String... args) throws Exception {
+    System.out.println("LOG: Reconstruyendo estadísticas de usuarios faltantes...");
+    int procesados = usuarioEstadisticasService.reconstruirFaltantes();
+    System.out.println(
+        "LOG: Reconstrucción de estadísticas completada. " + procesados + " usuarios procesados.");
+  }
+}
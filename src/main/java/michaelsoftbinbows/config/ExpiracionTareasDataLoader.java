@@ -0,0 +1,21 @@
+package michaelsoftbinbows.config;
+
+import michaelsoftbinbows.services.ExpiracionTareasService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Al iniciar la aplicación, carga la fecha de expiración de todas las tareas pendientes en la
+ * agenda de expiración y arranca el hilo que las hace expirar a la hora exacta.
+ */
+@Component
+public class ExpiracionTareasDataLoader implements CommandLineRunner {
+
+  @Autowired private ExpiracionTareasService expiracionTareasService;
+
+  @Override
+  public void run(String... args) {
+    expiracionTareasService.iniciarAgenda();
+  }
+}
@@ -0,0 +1,54 @@
+package michaelsoftbinbows.config;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import michaelsoftbinbows.services.GeocodingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Esta clase se ejecuta una vez al iniciar la aplicación. Precarga en la caché de Geocoding las
+ * ciudades más comunes (listadas en geocoding/ciudades-comunes.txt) en un hilo aparte, para no
+ * retrasar el arranque.
+ */
+@Component
+public class GeocodingDataLoader implements CommandLineRunner {
+
+  @Autowired private GeocodingService geocodingService;
+
+  @Value("${geocoding.precalentar:true}")
+  private boolean precalentar;
+
+  @Override
+  public void run(String... args) throws Exception {
+    if (!precalentar) {
+      return;
+    }
+    List<String> ciudades;
+    try (InputStream entrada =
+            new ClassPathResource("geocoding/ciudades-comunes.txt").getInputStream();
+        BufferedReader lector =
+            new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+      ciudades =
+          lector.lines().map(String::trim).filter(l -> !l.isEmpty() && !l.startsWith("#")).toList();
+    }
+    Thread.ofVirtual()
+        .name("precarga-geocoding")
+        .start(
+            () -> {
+              int guardadas = geocodingService.precalentar(ciudades);
+              System.out.println(
+                  "LOG: Caché de Geocoding precargada con "
+                      + guardadas
+                      + " de "
+                      + ciudades.size()
+                      + " ciudades.");
+            });
+  }
+}
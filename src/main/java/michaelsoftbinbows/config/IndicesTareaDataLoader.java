@@ -0,0 +1,47 @@
+package michaelsoftbinbows.config;
+
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Crea al iniciar los índices parciales de la tabla tarea, que JPA no permite declarar en la
+ * entidad. Todos cubren solo las tareas pendientes (fecha_completada IS NULL), que son las que
+ * consultan las comprobaciones de duplicados al crear o editar y el barrido de expiración; así son
+ * mucho más chicos que un índice sobre toda la tabla, que crece con el historial.
+ *
+ * <p>Usan "IF NOT EXISTS", por lo que ejecutarlos en cada inicio no tiene costo.
+ */
+@Component
+public class IndicesTareaDataLoader implements CommandLineRunner {
+
+  private static final List<String> INDICES =
+      List.of(
+          // existsByNombreAndUsuarioIdAndFechaCompletadaIsNull
+          "CREATE INDEX IF NOT EXISTS idx_tarea_pendiente_usuario_nombre "
+              + "ON tarea (usuario_id, nombre) WHERE fecha_completada IS NULL",
+          // existsByDescripcionAndUsuarioIdAndFechaCompletadaIsNull
+          "CREATE INDEX IF NOT EXISTS idx_tarea_pendiente_usuario_descripcion "
+              + "ON tarea (usuario_id, descripcion) WHERE fecha_completada IS NULL",
+          // Barrido de expiración y próxima expiración por usuario
+          "CREATE INDEX IF NOT EXISTS idx_tarea_pendiente_expiracion "
+              + "ON tarea (fecha_expiracion) WHERE fecha_completada IS NULL");
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Override
+  public void run(String... args) {
+    for (String sql : INDICES) {
+      try {
+        jdbcTemplate.execute(sql);
+      } catch (DataAccessException e) {
+        // Sin el índice las consultas siguen funcionando, solo más lentas
+        System.err.println("WARN: No se pudo crear un índice de tarea: " + e.getMessage());
+      }
+    }
+    System.out.println("LOG: Índices parciales de tareas verificados.");
+  }
+}
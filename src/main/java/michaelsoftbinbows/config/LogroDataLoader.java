@@ -1,10 +1,15 @@
 package michaelsoftbinbows.config;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import michaelsoftbinbows.data.ConfiguracionRepository;
+import michaelsoftbinbows.entities.Configuracion;
 import michaelsoftbinbows.entities.Logro;
+import michaelsoftbinbows.model.TipoEventoLogro;
 import michaelsoftbinbows.services.GestorLogrosService; // Importado
 import michaelsoftbinbows.services.LogroService;
+import michaelsoftbinbows.services.ReevaluacionLogrosService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -12,6 +17,9 @@ import org.springframework.stereotype.Component;
 /**
  * Esta clase se ejecuta una vez al iniciar la aplicación. Su misión es sincronizar la lista
  * estática de logros de GestorLogros con la base de datos.
+ *
+ * <p>Además, la primera vez (y cada vez que se agregan logros nuevos) evalúa todos los logros de
+ * todos los usuarios en un hilo aparte, para otorgar los que ya cumplían antes del despliegue.
  */
 @Component
 public class LogroDataLoader implements CommandLineRunner {
@@ -21,6 +29,13 @@ public class LogroDataLoader implements CommandLineRunner {
   // ¡Inyectamos el Gestor de Logros!
   @Autowired private GestorLogrosService gestorLogrosService;
 
+  @Autowired private ReevaluacionLogrosService reevaluacionLogrosService;
+
+  @Autowired private ConfiguracionRepository configuracionRepository;
+
+  // Marca en la configuración de que ya se evaluaron todos los logros de todos los usuarios.
+  private static final String CLAVE_LOGROS_REEVALUADOS = "logros_reevaluados";
+
   @Override
   public void run(String... args) throws Exception {
     System.out.println("LOG: Sincronizando logros de GestorLogros con la BD...");
@@ -65,5 +80,20 @@ public class LogroDataLoader implements CommandLineRunner {
         "LOG: Sincronización de logros completada. "
             + logrosNuevos
             + " nuevos logros añadidos a la BD.");
+
+    if (logrosNuevos > 0 || !configuracionRepository.existsById(CLAVE_LOGROS_REEVALUADOS)) {
+      Thread.ofVirtual().name("reevaluacion-logros").start(this::reevaluarTodos);
+    }
+  }
+
+  /** Evalúa todos los logros de todos los usuarios y deja la marca al terminar. */
+  private void reevaluarTodos() {
+    try {
+      int total = reevaluacionLogrosService.reevaluarTodos(EnumSet.allOf(TipoEventoLogro.class));
+      configuracionRepository.save(new Configuracion(CLAVE_LOGROS_REEVALUADOS, "true"));
+      System.out.println("LOG: Logros reevaluados para " + total + " usuarios.");
+    } catch (RuntimeException e) {
+      System.out.println("ERROR: Falló la reevaluación inicial de logros: " + e.getMessage());
+    }
   }
 }
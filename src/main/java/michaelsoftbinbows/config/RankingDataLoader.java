@@ -0,0 +1,18 @@
+package michaelsoftbinbows.config;
+
+import michaelsoftbinbows.services.LeaderboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/** Esta clase se ejecuta una vez al iniciar la aplicación. Carga el ranking en memoria. */
+@Component
+public class RankingDataLoader implements CommandLineRunner {
+
+  @Autowired private LeaderboardService leaderboardService;
+
+  @Override
+  public void run(String... args) throws Exception {
+    leaderboardService.reconstruir();
+  }
+}
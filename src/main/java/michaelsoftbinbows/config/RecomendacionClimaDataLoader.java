@@ -0,0 +1,22 @@
+package michaelsoftbinbows.config;
+
+import michaelsoftbinbows.services.RecomendacionClimaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Al iniciar la aplicación, crea el catálogo inicial de recomendaciones por clima si la tabla está
+ * vacía y arma el índice en memoria que usa el home.
+ */
+@Component
+public class RecomendacionClimaDataLoader implements CommandLineRunner {
+
+  @Autowired private RecomendacionClimaService recomendacionClimaService;
+
+  @Override
+  public void run(String... args) {
+    recomendacionClimaService.crearCatalogoInicialSiFalta();
+    recomendacionClimaService.recargar();
+  }
+}
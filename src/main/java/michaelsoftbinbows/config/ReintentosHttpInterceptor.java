@@ -0,0 +1,86 @@
+package michaelsoftbinbows.config;
+
+import java.io.IOException;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Reintenta las peticiones GET/HEAD que fallan por error de red o por una respuesta 429/5xx, con
+ * espera exponencial entre intentos. Solo se reintenta si la espera más un intento completo (con
+ * sus timeouts de pool, conexión y lectura) caben en lo que queda del tiempo total de la petición;
+ * así un reintento no puede empezar cuando ya no alcanzaría a terminar. El timeout de lectura
+ * limita cada espera de datos, no la respuesta completa, así que una respuesta que llega muy
+ * lentamente puede pasarse de ese tiempo total.
+ */
+public class ReintentosHttpInterceptor implements ClientHttpRequestInterceptor {
+
+  private final int reintentosMax;
+  private final long esperaInicialMs;
+  private final long tiempoTotalMs;
+  private final long duracionIntentoMs;
+
+  /**
+   * Crea el interceptor.
+   *
+   * @param reintentosMax Número máximo de reintentos (sin contar el primer intento).
+   * @param esperaInicialMs Espera antes del primer reintento; se duplica en cada uno.
+   * @param tiempoTotalMs Tiempo máximo que puede tomar la petición contando todos los intentos.
+   * @param duracionIntentoMs Lo más que puede tardar un intento según los timeouts del cliente
+   *     (pool + conexión + lectura).
+   */
+  public ReintentosHttpInterceptor(
+      int reintentosMax, long esperaInicialMs, long tiempoTotalMs, long duracionIntentoMs) {
+    this.reintentosMax = reintentosMax;
+    this.esperaInicialMs = esperaInicialMs;
+    this.tiempoTotalMs = tiempoTotalMs;
+    this.duracionIntentoMs = duracionIntentoMs;
+  }
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    if (!HttpMethod.GET.equals(request.getMethod())
+        && !HttpMethod.HEAD.equals(request.getMethod())) {
+      return execution.execute(request, body);
+    }
+    long inicio = System.currentTimeMillis();
+    long espera = esperaInicialMs;
+    for (int intento = 0; ; intento++) {
+      boolean quedanReintentos = intento < reintentosMax;
+      try {
+        ClientHttpResponse response = execution.execute(request, body);
+        int estado = response.getStatusCode().value();
+        boolean reintentable = estado == 429 || estado >= 500;
+        if (!reintentable || !quedanReintentos || !hayTiempo(inicio, espera)) {
+          return response;
+        }
+        response.close();
+      } catch (IOException e) {
+        if (!quedanReintentos || !hayTiempo(inicio, espera)) {
+          throw e;
+        }
+      }
+      System.out.println(
+          "LOG: Reintentando " + request.getURI().getHost() + " en " + espera + " ms.");
+      dormir(espera);
+      espera *= 2;
+    }
+  }
+
+  /** Si la espera y el siguiente intento completo caben en el tiempo que queda. */
+  private boolean hayTiempo(long inicio, long espera) {
+    return System.currentTimeMillis() - inicio + espera + duracionIntentoMs <= tiempoTotalMs;
+  }
+
+  private static void dormir(long ms) throws IOException {
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Reintento interrumpido", e);
+    }
+  }
+}
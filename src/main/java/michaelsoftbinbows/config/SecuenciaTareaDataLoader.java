@@ -0,0 +1,44 @@
+package michaelsoftbinbows.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Alinea al iniciar la secuencia tarea_seq con los IDs que ya existen en la tabla tarea.
+ *
+ * <p>Las tareas antiguas se crearon con una columna IDENTITY; al pasar a una secuencia, Hibernate
+ * la crea empezando en 1, lo que chocaría con esos IDs. Si la secuencia va por detrás del ID más
+ * alto, se adelanta (nunca se retrocede).
+ *
+ * <p>No es un CommandLineRunner: esos corren con el servidor ya aceptando peticiones, y una tarea
+ * creada antes del ajuste tomaría un bloque de IDs repetidos que Hibernate seguiría usando desde
+ * memoria. Aquí se ajusta al terminar de crear los beans (con el esquema ya actualizado por el
+ * EntityManagerFactory), antes de que arranque el servidor web.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SecuenciaTareaDataLoader implements SmartInitializingSingleton {
+
+  // Hibernate reserva los IDs (valor - 49 .. valor) por cada nextval, así que el próximo valor
+  // debe ser al menos el ID más alto + 50 (el tamaño de asignación de la entidad)
+  private static final String SINCRONIZAR =
+      "WITH maximo AS (SELECT COALESCE(MAX(id), 0) + 50 AS valor FROM tarea) "
+          + "SELECT setval('tarea_seq', maximo.valor, false) FROM maximo "
+          + "WHERE maximo.valor > (SELECT last_value FROM tarea_seq)";
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    try {
+      jdbcTemplate.queryForList(SINCRONIZAR);
+      System.out.println("LOG: Secuencia de IDs de tareas verificada.");
+    } catch (DataAccessException e) {
+      System.err.println("WARN: No se pudo sincronizar la secuencia de tareas: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package michaelsoftbinbows.config;
+
+import michaelsoftbinbows.services.TemporadaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Esta clase se ejecuta una vez al iniciar la aplicación. Si un reseteo de temporada quedó a medias
+ * (por ejemplo, porque el servidor se detuvo), lo termina.
+ */
+@Component
+public class TemporadaDataLoader implements CommandLineRunner {
+
+  @Autowired private TemporadaService temporadaService;
+
+  @Override
+  public void run(String... args) throws Exception {
+    temporadaService.reanudarReseteoPendiente();
+  }
+}
@@ -1,21 +1,26 @@
 package michaelsoftbinbows.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import michaelsoftbinbows.dto.TareaDto;
+import michaelsoftbinbows.dto.UsuarioAdminDto;
 import michaelsoftbinbows.dto.UsuarioDto;
 import michaelsoftbinbows.entities.Tarea;
 import michaelsoftbinbows.entities.Usuario;
 import michaelsoftbinbows.exceptions.EdicionTareaException;
 import michaelsoftbinbows.exceptions.RegistroInvalidoException;
+import michaelsoftbinbows.services.ImportacionTareasService;
 import michaelsoftbinbows.services.TareaService;
 import michaelsoftbinbows.services.UsuarioService;
 import michaelsoftbinbows.services.UsuarioTareaService;
 import michaelsoftbinbows.util.Dificultad;
 import michaelsoftbinbows.util.UsuarioValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -37,6 +42,7 @@ public class ApiController {
   private final UsuarioService usuarioService;
   private final TareaService tareaService;
   private final UsuarioTareaService usuarioTareaService;
+  private final ImportacionTareasService importacionTareasService;
   private final UsuarioValidator usuarioValidator = new UsuarioValidator();
 
   /**
@@ -46,14 +52,17 @@ public class ApiController {
    *
    * @param usuarioService para manejar acciones de Usuario
    * @param tareaService para manejar acciones de Tarea
+   * @param importacionTareasService para importar muchas tareas de una vez
    */
   public ApiController(
       UsuarioService usuarioService,
       TareaService tareaService,
-      UsuarioTareaService usuarioTareaService) {
+      UsuarioTareaService usuarioTareaService,
+      ImportacionTareasService importacionTareasService) {
     this.usuarioService = usuarioService;
     this.tareaService = tareaService;
     this.usuarioTareaService = usuarioTareaService;
+    this.importacionTareasService = importacionTareasService;
   }
 
   /**
@@ -72,6 +81,7 @@ public class ApiController {
             "GET/POST /api/usuarios )",
             "GET/PUT/DELETE /api/usuarios/{idUsuario}",
             "GET/POST /api/usuarios/{idUsuario}/tareas",
+            "POST /api/usuarios/{idUsuario}/tareas/importar (JSON o NDJSON)",
             "DELETE /api/usuarios/{idUsuario}/tareas/{idTarea}",
             "PUT /api/usuarios/{idUsuario}/tareas/{idTarea}/completar",
             "PUT /api/usuarios/{idUsuario}/tareas/{idTarea}/actualizar",
@@ -83,10 +93,10 @@ public class ApiController {
   /**
    * Permite ver a todos los usuarios registrados.
    *
-   * @return lista de usuarios
+   * @return lista de usuarios (solo sus datos principales, sin tareas ni logros)
    */
   @GetMapping("/usuarios")
-  public List<Usuario> getUsuarios() {
+  public List<UsuarioAdminDto> getUsuarios() {
     return usuarioService.obtenerTodos();
   }
 
@@ -195,8 +205,7 @@ public class ApiController {
   @PostMapping("/usuarios/{idUsuario}/tareas")
   public ResponseEntity<Object> crearTarea(
       @PathVariable("idUsuario") long idUsuario, @RequestBody TareaDto tareaDto) {
-    Optional<Usuario> usuarioOpt = usuarioService.obtenerPorId(idUsuario);
-    if (usuarioOpt.isEmpty()) {
+    if (!usuarioService.existePorId(idUsuario)) {
       return ResponseEntity.status(404).body("Usuario no encontrado");
     }
     try {
@@ -207,6 +216,55 @@ public class ApiController {
     }
   }
 
+  /**
+   * Importa muchas tareas para un usuario desde un arreglo JSON. Cada fila se crea o se rechaza por
+   * separado.
+   *
+   * @param idUsuario usuario que recibirá las tareas
+   * @param tareas lista de tareas a crear
+   * @return resultado de cada fila (ok) o error general
+   */
+  @PostMapping(
+      value = "/usuarios/{idUsuario}/tareas/importar",
+      consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Object> importarTareas(
+      @PathVariable("idUsuario") long idUsuario, @RequestBody List<TareaDto> tareas) {
+    if (!usuarioService.existePorId(idUsuario)) {
+      return ResponseEntity.status(404).body("Usuario no encontrado");
+    }
+    try {
+      return ResponseEntity.ok(importacionTareasService.importar(idUsuario, tareas));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(400).body(e.getMessage());
+    }
+  }
+
+  /**
+   * Importa muchas tareas para un usuario desde NDJSON (una tarea JSON por línea), sin tener que
+   * armar un arreglo con todo el archivo.
+   *
+   * @param idUsuario usuario que recibirá las tareas
+   * @param request petición con el cuerpo NDJSON
+   * @return resultado de cada fila (ok) o error general
+   */
+  @PostMapping(
+      value = "/usuarios/{idUsuario}/tareas/importar",
+      consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<Object> importarTareasNdjson(
+      @PathVariable("idUsuario") long idUsuario, HttpServletRequest request) {
+    if (!usuarioService.existePorId(idUsuario)) {
+      return ResponseEntity.status(404).body("Usuario no encontrado");
+    }
+    try {
+      List<TareaDto> tareas = importacionTareasService.leerNdjson(request.getReader());
+      return ResponseEntity.ok(importacionTareasService.importar(idUsuario, tareas));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(400).body(e.getMessage());
+    } catch (IOException e) {
+      return ResponseEntity.status(400).body("No se pudo leer el archivo: " + e.getMessage());
+    }
+  }
+
   /**
    * Permite ver las tareas completadas de un usuario.
    *
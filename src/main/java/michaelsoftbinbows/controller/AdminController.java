@@ -2,13 +2,20 @@ package michaelsoftbinbows.controller;
 
 import java.io.IOException;
 import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import michaelsoftbinbows.dto.EstadoRecalculoLigasDto;
+import michaelsoftbinbows.dto.PaginaUsuariosAdminDto;
 import michaelsoftbinbows.dto.TareaDto;
+import michaelsoftbinbows.dto.UsuarioAdminDto;
 import michaelsoftbinbows.entities.Logro;
+import michaelsoftbinbows.entities.RecomendacionClima;
 import michaelsoftbinbows.entities.Tarea;
 import michaelsoftbinbows.entities.Usuario;
 import michaelsoftbinbows.exceptions.AdminCrearTareaException;
@@ -19,10 +26,17 @@ import michaelsoftbinbows.exceptions.EdicionUsuarioException;
 import michaelsoftbinbows.exceptions.RegistroInvalidoException;
 import michaelsoftbinbows.exceptions.TareaInvalidaException;
 import michaelsoftbinbows.exceptions.TareaPertenenciaException;
+import michaelsoftbinbows.model.CategoriaClima;
+import michaelsoftbinbows.model.OrdenUsuariosAdmin;
 import michaelsoftbinbows.model.Rol;
+import michaelsoftbinbows.model.TipoEventoLogro;
 import michaelsoftbinbows.security.CustomUserDetails;
 import michaelsoftbinbows.services.ConfiguracionService;
+import michaelsoftbinbows.services.ListadoUsuariosAdminService;
 import michaelsoftbinbows.services.LogroService;
+import michaelsoftbinbows.services.RecalculoLigasService;
+import michaelsoftbinbows.services.RecomendacionClimaService;
+import michaelsoftbinbows.services.ReevaluacionLogrosService;
 import michaelsoftbinbows.services.SeguridadService;
 import michaelsoftbinbows.services.TareaService;
 import michaelsoftbinbows.services.TemporadaService;
@@ -37,6 +51,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
@@ -58,6 +73,17 @@ public class AdminController {
   @Autowired private TareaService tareaService; // Lógica de negocio para tareas.
   @Autowired private michaelsoftbinbows.services.AuthService authservice;
   @Autowired private LogroService logroService;
+  @Autowired private ReevaluacionLogrosService reevaluacionLogrosService;
+  @Autowired private ListadoUsuariosAdminService listadoUsuariosAdminService;
+
+  @Autowired
+  private RecalculoLigasService recalculoLigasService; // Recálculo de ligas en 2do plano.
+
+  @Autowired private RecomendacionClimaService recomendacionClimaService;
+
+  // Dificultades que se pueden elegir para una recomendación por clima.
+  private static final List<String> DIFICULTADES =
+      List.of("Muy fácil", "Fácil", "Medio", "Difícil", "Muy difícil");
 
   // Definimos una subcarpeta específica para mantener orden
   private static final String UPLOAD_DIR_LOGROS = "uploads/logros/";
@@ -107,6 +133,15 @@ public class AdminController {
    * @param preselectedUserEmail El correo del usuario seleccionado al estar en la seccion de
    *     agregar tarea.
    * @param errorConfig Mensaje de error para la configuración de ligas.
+   * @param recomendacionIdParaEditar ID de la recomendación por clima a editar.
+   * @param crearRecomendacion Activa el modal para crear una recomendación por clima si es 'true'.
+   * @param errorRecomendacion Mensaje de error del modal de recomendaciones por clima.
+   * @param busqueda Texto a buscar en el nombre o correo del listado de usuarios.
+   * @param rolFiltro Rol por el que filtrar el listado de usuarios.
+   * @param ordenCodigo Columna de orden del listado de usuarios ('nombre', 'correo', 'nivel',
+   *     'puntos').
+   * @param despues Cursor del listado: valor de orden del último usuario de la página anterior.
+   * @param despuesId Cursor del listado: ID del último usuario de la página anterior.
    * @param model Objeto Model de Spring para pasar atributos a la vista.
    * @return El nombre de la plantilla a renderizar ("admin").
    */
@@ -127,13 +162,22 @@ public class AdminController {
       @RequestParam(name = "errorConfig", required = false) String errorConfig,
       @RequestParam(name = "editarLogroId", required = false) String logroIdParaEditar,
       @RequestParam(name = "errorLogro", required = false) String errorLogro,
+      @RequestParam(name = "editarRecomendacionId", required = false)
+          Long recomendacionIdParaEditar,
+      @RequestParam(name = "crearRecomendacion", required = false) boolean crearRecomendacion,
+      @RequestParam(name = "errorRecomendacion", required = false) String errorRecomendacion,
+      @RequestParam(name = "buscar", required = false) String busqueda,
+      @RequestParam(name = "rol", required = false) String rolFiltro,
+      @RequestParam(name = "orden", required = false) String ordenCodigo,
+      @RequestParam(name = "despues", required = false) String despues,
+      @RequestParam(name = "despuesId", required = false) Long despuesId,
       Model model) {
 
     // Obtenemos el usuario gestionado desde el AuthService (asegura entidad gestionada)
     Usuario usuarioActual = authservice.getCurrentUser();
 
     // Logros revisar
-    usuarioService.manejarLogicaDeLogin(usuarioActual.getCorreoElectronico());
+    usuarioService.manejarLogicaDeLogin(usuarioActual);
 
     // Primera barrera de seguridad: si el usuario no tiene el rol adecuado, se le redirige.
     if (usuarioActual.getRol() != Rol.ADMIN && usuarioActual.getRol() != Rol.MODERADOR) {
@@ -147,7 +191,6 @@ public class AdminController {
     model.addAttribute("vistaActual", vistaActual);
     model.addAttribute("usuarioActual", usuarioActual);
     model.addAttribute("seguridadService", seguridadService);
-    model.addAttribute("listaDeUsuarios", usuarioService.obtenerTodos());
     model.addAttribute(
         "rolesDisponibles",
         (usuarioActual.getRol() == Rol.ADMIN)
@@ -236,6 +279,20 @@ public class AdminController {
       }
     }
 
+    if (recomendacionIdParaEditar != null || crearRecomendacion) {
+      RecomendacionClima recomendacion =
+          recomendacionIdParaEditar == null
+              ? new RecomendacionClima()
+              : recomendacionClimaService.obtenerPorId(recomendacionIdParaEditar).orElse(null);
+      if (recomendacion != null) {
+        model.addAttribute("recomendacionParaEditar", recomendacion);
+        model.addAttribute("dificultades", DIFICULTADES);
+        if (errorRecomendacion != null) {
+          model.addAttribute("errorRecomendacion", errorRecomendacion);
+        }
+      }
+    }
+
     // --- Carga de datos específicos para cada vista ---
     switch (vistaActual) {
       case "tareas":
@@ -245,6 +302,20 @@ public class AdminController {
               "usuarioSeleccionado",
               usuarioService.buscarPorCorreoConTareas(correoUsuarioSeleccionado));
         }
+        PaginaUsuariosAdminDto paginaTareas =
+            cargarListadoUsuarios(model, busqueda, rolFiltro, ordenCodigo, despues, despuesId);
+        // El usuario preseleccionado para la nueva tarea debe estar en el selector del modal
+        // aunque no aparezca en la página actual.
+        if (crearTarea
+            && preselectedUserEmail != null
+            && paginaTareas.getUsuarios().stream()
+                .noneMatch(u -> u.getCorreoElectronico().equals(preselectedUserEmail))) {
+          List<UsuarioAdminDto> conPreseleccionado = new ArrayList<>(paginaTareas.getUsuarios());
+          listadoUsuariosAdminService
+              .buscarPorCorreo(preselectedUserEmail)
+              .ifPresent(u -> conPreseleccionado.add(0, u));
+          model.addAttribute("listaDeUsuarios", conPreseleccionado);
+        }
         break;
       case "top":
         int limiteActual = (limite == null) ? configuracionService.getLimiteTop() : limite;
@@ -263,8 +334,14 @@ public class AdminController {
         model.addAttribute("topLogrosStats", logroService.getTop5LogrosMasCompletados());
         break;
 
+      case "clima":
+        System.out.println("DEBUG: Cargando datos para la vista 'clima'.");
+        model.addAttribute("listaRecomendaciones", recomendacionClimaService.obtenerTodas());
+        break;
+
       case "usuarios":
-        // No hay carga extra para la vista de usuarios.
+        System.out.println("DEBUG: Cargando datos para la vista 'usuarios'.");
+        cargarListadoUsuarios(model, busqueda, rolFiltro, ordenCodigo, despues, despuesId);
         break;
       default:
         // Cae en "usuarios" (vista por defecto) o cualquier otro caso.
@@ -275,6 +352,55 @@ public class AdminController {
     return "admin";
   }
 
+  /**
+   * Carga en el modelo una página del listado de usuarios (vistas 'usuarios' y 'tareas'), junto con
+   * los filtros aplicados para armar los enlaces de orden y de página siguiente. Un rol u orden
+   * desconocido se ignora; un cursor inválido vuelve a la primera página.
+   *
+   * @return La página cargada.
+   */
+  private PaginaUsuariosAdminDto cargarListadoUsuarios(
+      Model model,
+      String busqueda,
+      String rolFiltro,
+      String ordenCodigo,
+      String despues,
+      Long despuesId) {
+    Rol rol = null;
+    if (StringUtils.hasText(rolFiltro)) {
+      try {
+        rol = Rol.valueOf(rolFiltro.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        System.err.println("WARN: Rol de filtro desconocido en /admin: " + rolFiltro);
+      }
+    }
+    OrdenUsuariosAdmin orden =
+        OrdenUsuariosAdmin.desdeCodigo(ordenCodigo).orElse(OrdenUsuariosAdmin.NOMBRE);
+
+    boolean primeraPagina = despues == null || despuesId == null;
+    PaginaUsuariosAdminDto pagina;
+    try {
+      pagina =
+          listadoUsuariosAdminService.obtenerPagina(
+              busqueda, rol, orden, despues, despuesId, ListadoUsuariosAdminService.TAMANO_PAGINA);
+    } catch (IllegalArgumentException e) {
+      System.err.println("WARN: Cursor inválido en el listado de usuarios: " + despues);
+      primeraPagina = true;
+      pagina =
+          listadoUsuariosAdminService.obtenerPagina(
+              busqueda, rol, orden, null, null, ListadoUsuariosAdminService.TAMANO_PAGINA);
+    }
+
+    model.addAttribute("listaDeUsuarios", pagina.getUsuarios());
+    model.addAttribute("paginaUsuarios", pagina);
+    model.addAttribute("filtroBusqueda", StringUtils.hasText(busqueda) ? busqueda.trim() : null);
+    model.addAttribute("filtroRol", rol);
+    model.addAttribute("rolesFiltro", Rol.values());
+    model.addAttribute("ordenUsuarios", orden.getCodigo());
+    model.addAttribute("esPrimeraPaginaUsuarios", primeraPagina);
+    return pagina;
+  }
+
   /**
    * Procesa el formulario para guardar los cambios de un usuario editado.
    *
@@ -660,7 +786,8 @@ public class AdminController {
       configuracionService.setLimiteLiga("LIGA_ORO", oro);
       configuracionService.setLimiteLiga("LIGA_PLATINO", platino);
       configuracionService.setLimiteLiga("LIGA_DIAMANTE", diamante);
-      usuarioService.recalcularLigasGlobal();
+      // El recálculo corre en segundo plano; su avance se consulta en /admin/ligas/estado
+      recalculoLigasService.recalcularEnSegundoPlano();
 
     } catch (Exception e) {
       redirectAttributes.addFlashAttribute("errorConfig", "Error al guardar: " + e.getMessage());
@@ -668,10 +795,21 @@ public class AdminController {
     }
 
     redirectAttributes.addFlashAttribute(
-        "success", "Límites de liga actualizados. Todas las ligas han sido recalculadas.");
+        "success", "Límites de liga actualizados. Las ligas se están recalculando.");
     return "redirect:/admin?vista=top&limite=" + limiteActual;
   }
 
+  /**
+   * Devuelve en JSON el estado del último recálculo global de ligas.
+   *
+   * @return estado del recálculo (con los usuarios movidos a cada liga si ya terminó)
+   */
+  @GetMapping("/admin/ligas/estado")
+  @ResponseBody
+  public EstadoRecalculoLigasDto estadoRecalculoLigas() {
+    return recalculoLigasService.getEstado();
+  }
+
   /**
    * Maneja la petición para cambiar el estado (activo/inactivo) de un logro.
    *
@@ -695,6 +833,12 @@ public class AdminController {
       // 3. Guardamos los cambios
       logroService.guardar(logro);
 
+      // 4. Si se activó, se otorga en segundo plano a quienes ya cumplen su condición
+      if (logro.isActivo()) {
+        reevaluacionLogrosService.reevaluarTodosEnSegundoPlano(
+            EnumSet.allOf(TipoEventoLogro.class));
+      }
+
       String estado = logro.isActivo() ? "activado" : "desactivado";
       redirectAttributes.addFlashAttribute(
           "success", "Logro '" + logro.getNombre() + "' ha sido " + estado + ".");
@@ -702,7 +846,7 @@ public class AdminController {
       redirectAttributes.addFlashAttribute("error", "No se encontró el logro con ID: " + id);
     }
 
-    // 4. Redirigimos de vuelta a la pestaña de logros
+    // 5. Redirigimos de vuelta a la pestaña de logros
     return "redirect:/admin?vista=logros";
   }
 
@@ -796,6 +940,113 @@ public class AdminController {
     return "redirect:/admin?vista=logros";
   }
 
+  /**
+   * Procesa el formulario para crear o editar una recomendación del catálogo por clima. Al
+   * guardarla, el índice que usa el home se recarga de inmediato.
+   *
+   * @param id El ID de la recomendación a editar, o null para crear una nueva.
+   * @param nombre Nombre de la tarea recomendada.
+   * @param descripcion Descripción de la tarea.
+   * @param dificultad Dificultad de la tarea (ej. "Fácil").
+   * @param categoria Categoría de clima en la que se recomienda.
+   * @param temperaturaMinima Temperatura mínima (°C) en la que aplica, opcional.
+   * @param temperaturaMaxima Temperatura máxima (°C) en la que aplica, opcional.
+   * @param prioridad Orden entre recomendaciones del mismo clima (menor primero).
+   * @param redirectAttributes Para enviar mensajes de feedback.
+   * @return Redirección a la vista de clima.
+   */
+  @PostMapping("/admin/recomendaciones/guardar")
+  public String guardarRecomendacionClima(
+      @RequestParam(name = "id", required = false) Long id,
+      @RequestParam("nombre") String nombre,
+      @RequestParam("descripcion") String descripcion,
+      @RequestParam("dificultad") String dificultad,
+      @RequestParam("categoria") CategoriaClima categoria,
+      @RequestParam(name = "temperaturaMinima", required = false) Integer temperaturaMinima,
+      @RequestParam(name = "temperaturaMaxima", required = false) Integer temperaturaMaxima,
+      @RequestParam(name = "prioridad", defaultValue = "0") int prioridad,
+      RedirectAttributes redirectAttributes) {
+
+    RecomendacionClima recomendacion =
+        id == null
+            ? new RecomendacionClima()
+            : recomendacionClimaService.obtenerPorId(id).orElse(null);
+    if (recomendacion == null) {
+      redirectAttributes.addFlashAttribute("error", "Error: No se encontró la recomendación.");
+      return "redirect:/admin?vista=clima";
+    }
+    recomendacion.setNombre(nombre.trim());
+    recomendacion.setDescripcion(descripcion.trim());
+    recomendacion.setDificultad(dificultad);
+    recomendacion.setCategoria(categoria);
+    recomendacion.setTemperaturaMinima(temperaturaMinima);
+    recomendacion.setTemperaturaMaxima(temperaturaMaxima);
+    recomendacion.setPrioridad(prioridad);
+
+    try {
+      recomendacionClimaService.guardar(recomendacion);
+    } catch (TareaInvalidaException e) {
+      redirectAttributes.addFlashAttribute("errorRecomendacion", e.getMessage());
+      return id == null
+          ? "redirect:/admin?vista=clima&crearRecomendacion=true"
+          : "redirect:/admin?vista=clima&editarRecomendacionId=" + id;
+    }
+    redirectAttributes.addFlashAttribute(
+        "success", "Recomendación '" + recomendacion.getNombre() + "' guardada.");
+    return "redirect:/admin?vista=clima";
+  }
+
+  /**
+   * Activa o desactiva una recomendación del catálogo por clima.
+   *
+   * @param id El ID de la recomendación.
+   * @param redirectAttributes Para enviar mensajes de feedback.
+   * @return Redirección a la vista de clima.
+   */
+  @GetMapping("/admin/recomendaciones/toggle")
+  public String toggleRecomendacionClima(
+      @RequestParam("id") Long id, RedirectAttributes redirectAttributes) {
+    Optional<RecomendacionClima> recomendacion = recomendacionClimaService.alternarActiva(id);
+    if (recomendacion.isPresent()) {
+      String estado = recomendacion.get().isActiva() ? "activada" : "desactivada";
+      redirectAttributes.addFlashAttribute(
+          "success", "Recomendación '" + recomendacion.get().getNombre() + "' " + estado + ".");
+    } else {
+      redirectAttributes.addFlashAttribute(
+          "error", "No se encontró la recomendación con ID: " + id);
+    }
+    return "redirect:/admin?vista=clima";
+  }
+
+  /**
+   * Elimina una recomendación del catálogo por clima.
+   *
+   * @param id El ID de la recomendación.
+   * @param redirectAttributes Para enviar mensajes de feedback.
+   * @return Redirección a la vista de clima.
+   */
+  @GetMapping("/admin/recomendaciones/eliminar")
+  public String eliminarRecomendacionClima(
+      @RequestParam("id") Long id, RedirectAttributes redirectAttributes) {
+    recomendacionClimaService.eliminar(id);
+    redirectAttributes.addFlashAttribute("success", "Recomendación eliminada.");
+    return "redirect:/admin?vista=clima";
+  }
+
+  /**
+   * Vuelve a leer el catálogo de recomendaciones desde la BD (por ejemplo, después de editar la
+   * tabla directamente).
+   *
+   * @param redirectAttributes Para enviar mensajes de feedback.
+   * @return Redirección a la vista de clima.
+   */
+  @GetMapping("/admin/recomendaciones/recargar")
+  public String recargarRecomendacionesClima(RedirectAttributes redirectAttributes) {
+    recomendacionClimaService.recargar();
+    redirectAttributes.addFlashAttribute("success", "Catálogo de recomendaciones recargado.");
+    return "redirect:/admin?vista=clima";
+  }
+
   // --- HELPER PARA BORRAR IMAGEN FÍSICA ---
   private void borrarImagenLogro(String urlImagen) {
     if (urlImagen != null && urlImagen.startsWith("/uploads/")) {
@@ -1,21 +1,28 @@
 package michaelsoftbinbows.controller;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import michaelsoftbinbows.entities.Tarea;
+import java.util.Optional;
+import michaelsoftbinbows.dto.PaginaHistorialDto;
+import michaelsoftbinbows.dto.PuntoSerieDto;
+import michaelsoftbinbows.dto.SerieHistorialDto;
 import michaelsoftbinbows.entities.Usuario;
+import michaelsoftbinbows.model.GranularidadSerie;
 import michaelsoftbinbows.services.AuthService;
-import michaelsoftbinbows.services.UsuarioService;
+import michaelsoftbinbows.services.HistorialService;
+import michaelsoftbinbows.services.TareaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 /** Controlador para gestionar la vista del historial de tareas completadas del usuario. */
 @Controller
@@ -23,11 +30,17 @@ import org.springframework.web.bind.annotation.RequestMapping;
 public class HistorialController {
 
   @Autowired private AuthService authservice;
-  @Autowired private UsuarioService usuarioService;
+  @Autowired private TareaService tareaService;
+  @Autowired private HistorialService historialService;
+
+  // Tareas por página del historial (la primera se muestra al cargar, el resto con scroll)
+  private static final int TAMANO_PAGINA = 20;
+  private static final int TAMANO_PAGINA_MAX = 100;
 
   /**
-   * Muestra la página de historial de tareas del usuario actualmente logueado. Obtiene las tareas
-   * completadas y las pasa a la vista.
+   * Muestra la página de historial de tareas del usuario actualmente logueado. Solo se pasa a la
+   * vista la primera página de tareas completadas; las siguientes se piden a /historial/api/tareas
+   * al llegar al final de la lista.
    *
    * @param model El modelo de Spring para pasar datos a la plantilla.
    * @return El nombre de la plantilla "historial_tareas".
@@ -38,21 +51,21 @@ public class HistorialController {
         "LOG: El método 'mostrarHistorial' ha sido llamado desde HistorialController.");
 
     // 1. Obtener el usuario actual de forma segura (con tareas cargadas)
-    Usuario usuarioActual =
-        usuarioService.buscarPorCorreoConTareas(
-            authservice.getCurrentUser().getCorreoElectronico());
+    Usuario usuarioActual = authservice.getCurrentUser();
 
     // 2. Manejar el caso en que el usuario no se encuentre
     if (usuarioActual == null) {
       return "redirect:/login";
     }
 
-    // 3. Obtener la lista de tareas completadas
-    List<Tarea> historial = usuarioActual.getTareasCompletadas();
+    // 3. Obtener la primera página de tareas completadas
+    PaginaHistorialDto historial =
+        tareaService.obtenerHistorial(usuarioActual.getId(), null, null, TAMANO_PAGINA);
 
     // 4. Añadir todos los datos necesarios al modelo
     model.addAttribute("usuario", usuarioActual);
-    model.addAttribute("historialTareas", historial);
+    model.addAttribute("historialTareas", historial.getTareas());
+    model.addAttribute("historialHayMas", historial.isHayMas());
     model.addAttribute("activePage", "historial"); // Para que la navbar se ilumine
 
     // 5. Devolver el nombre de la plantilla HTML
@@ -60,8 +73,59 @@ public class HistorialController {
   }
 
   /**
-   * Obtiene los datos de tareas completadas de la última semana (últimos 7 días). Retorna un JSON
-   * con datos desglosados por día.
+   * Obtiene una página del historial del usuario logueado, para el scroll infinito. El cursor es la
+   * fecha de completado y el ID de la última tarea ya mostrada; sin cursor, devuelve la primera.
+   *
+   * @param antesDe Fecha de completado de la última tarea mostrada (ISO, opcional).
+   * @param antesDeId ID de la última tarea mostrada (opcional).
+   * @param tamano Número de tareas a devolver (máximo 100).
+   * @return La página de tareas y si quedan más.
+   */
+  @GetMapping("/api/tareas")
+  public ResponseEntity<PaginaHistorialDto> obtenerPaginaHistorial(
+      @RequestParam(name = "antesDe", required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime antesDe,
+      @RequestParam(name = "antesDeId", required = false) Long antesDeId,
+      @RequestParam(name = "tamano", defaultValue = "20") int tamano) {
+    int tamanoValido = Math.max(1, Math.min(tamano, TAMANO_PAGINA_MAX));
+    return ResponseEntity.ok(
+        tareaService.obtenerHistorial(usuarioActualId(), antesDe, antesDeId, tamanoValido));
+  }
+
+  /**
+   * Obtiene la serie de tareas completadas y XP ganada del usuario logueado, agrupada por día,
+   * semana o mes en la BD. Por defecto, los últimos 30 días por día.
+   *
+   * @param desde Primer día del rango (ISO, opcional).
+   * @param hasta Último día del rango (ISO, opcional; por defecto hoy).
+   * @param granularidad "day", "week" o "month".
+   * @return La serie con un punto por periodo (ok) o el motivo del error (400).
+   */
+  @GetMapping("/api/serie")
+  public ResponseEntity<Object> obtenerSerie(
+      @RequestParam(name = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate desde,
+      @RequestParam(name = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate hasta,
+      @RequestParam(name = "granularidad", defaultValue = "day") String granularidad) {
+    Optional<GranularidadSerie> granularidadValida = GranularidadSerie.desdeCodigo(granularidad);
+    if (granularidadValida.isEmpty()) {
+      return ResponseEntity.badRequest().body("Granularidad inválida: " + granularidad);
+    }
+    LocalDate fin = hasta != null ? hasta : LocalDate.now(ZoneId.systemDefault());
+    LocalDate inicio = desde != null ? desde : fin.minusDays(29);
+    try {
+      return ResponseEntity.ok(
+          historialService.obtenerSerie(usuarioActualId(), inicio, fin, granularidadValida.get()));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  /**
+   * Obtiene los datos de tareas completadas de la última semana (hoy y los 6 días anteriores).
+   * Retorna un JSON con datos desglosados por día de la semana.
    *
    * @return ResponseEntity con un mapa que contiene arrays de días y cantidad de tareas completadas
    *     por día.
@@ -69,40 +133,25 @@ public class HistorialController {
   @GetMapping("/api/semanal")
   public ResponseEntity<Map<String, Object>> obtenerResumenSemanal() {
     try {
-      Usuario usuarioActual =
-          usuarioService.buscarPorCorreoConTareas(
-              authservice.getCurrentUser().getCorreoElectronico());
-
-      if (usuarioActual == null) {
-        return ResponseEntity.status(401).body(new HashMap<>());
-      }
-
-      // Obtener la fecha de hace 7 días
-      LocalDateTime hace7Dias = LocalDateTime.now().minusDays(7);
-
-      // Obtener las tareas completadas en los últimos 7 días
-      List<Tarea> tareasUltima7Dias = new ArrayList<>();
-      for (Tarea tarea : usuarioActual.getTareasCompletadas()) {
-        if (tarea.getFechaCompletada() != null && tarea.getFechaCompletada().isAfter(hace7Dias)) {
-          tareasUltima7Dias.add(tarea);
-        }
-      }
+      LocalDate hoy = LocalDate.now(ZoneId.systemDefault());
+      SerieHistorialDto serie =
+          historialService.obtenerSerie(
+              usuarioActualId(), hoy.minusDays(6), hoy, GranularidadSerie.DIA);
 
       // Crear estructura de datos para los últimos 7 días
       String[] dias = {"Lun", "Mar", "Mié", "Jue", "Vie", "Sáb", "Dom"};
-      int[] tareasPorDia = new int[7];
+      long[] tareasPorDia = new long[7];
 
-      // Contar tareas por día
-      for (Tarea tarea : tareasUltima7Dias) {
-        LocalDateTime fechaCompletada = tarea.getFechaCompletada();
-        int diaDelaSemana = fechaCompletada.getDayOfWeek().getValue() - 1; // 0 = Lunes, 6 = Domingo
-        tareasPorDia[diaDelaSemana]++;
+      // Ubicar cada día en su posición de la semana
+      for (PuntoSerieDto punto : serie.getPuntos()) {
+        int diaDelaSemana = punto.getPeriodo().getDayOfWeek().getValue() - 1; // 0 = Lunes
+        tareasPorDia[diaDelaSemana] = punto.getTareas();
       }
 
       Map<String, Object> resultado = new HashMap<>();
       resultado.put("dias", dias);
       resultado.put("tareas", tareasPorDia);
-      resultado.put("total", tareasUltima7Dias.size());
+      resultado.put("total", serie.getTotalTareas());
 
       return ResponseEntity.ok(resultado);
     } catch (Exception e) {
@@ -112,8 +161,8 @@ public class HistorialController {
   }
 
   /**
-   * Obtiene los datos de tareas completadas del último mes (últimos 30 días). Retorna un JSON con
-   * datos desglosados por día del mes.
+   * Obtiene los datos de tareas completadas del último mes (hoy y los 29 días anteriores). Retorna
+   * un JSON con datos desglosados por día del mes.
    *
    * @return ResponseEntity con un mapa que contiene arrays de días y cantidad de tareas completadas
    *     por día.
@@ -121,48 +170,25 @@ public class HistorialController {
   @GetMapping("/api/mensual")
   public ResponseEntity<Map<String, Object>> obtenerResumenMensual() {
     try {
-      Usuario usuarioActual =
-          usuarioService.buscarPorCorreoConTareas(
-              authservice.getCurrentUser().getCorreoElectronico());
-
-      if (usuarioActual == null) {
-        return ResponseEntity.status(401).body(new HashMap<>());
-      }
-
-      // Obtener la fecha de hace 30 días
-      LocalDateTime hace30Dias = LocalDateTime.now().minusDays(30);
-
-      // Obtener las tareas completadas en los últimos 30 días
-      List<Tarea> tareasUltimo30Dias = new ArrayList<>();
-      for (Tarea tarea : usuarioActual.getTareasCompletadas()) {
-        if (tarea.getFechaCompletada() != null && tarea.getFechaCompletada().isAfter(hace30Dias)) {
-          tareasUltimo30Dias.add(tarea);
-        }
-      }
-
-      // Crear estructura de datos para 30 días
-      int[] tareasPorDia = new int[30];
-      String[] etiquetas = new String[30];
-
-      // Crear etiquetas para cada día
-      for (int i = 0; i < 30; i++) {
-        LocalDateTime fecha = LocalDateTime.now().minusDays(29 - i);
+      LocalDate hoy = LocalDate.now(ZoneId.systemDefault());
+      SerieHistorialDto serie =
+          historialService.obtenerSerie(
+              usuarioActualId(), hoy.minusDays(29), hoy, GranularidadSerie.DIA);
+
+      // Una etiqueta y un conteo por cada día
+      List<PuntoSerieDto> puntos = serie.getPuntos();
+      long[] tareasPorDia = new long[puntos.size()];
+      String[] etiquetas = new String[puntos.size()];
+      for (int i = 0; i < puntos.size(); i++) {
+        LocalDate fecha = puntos.get(i).getPeriodo();
         etiquetas[i] = String.format("%d/%d", fecha.getDayOfMonth(), fecha.getMonthValue());
-      }
-
-      // Contar tareas por día
-      for (Tarea tarea : tareasUltimo30Dias) {
-        LocalDateTime fechaCompletada = tarea.getFechaCompletada();
-        long diasDiferencia = ChronoUnit.DAYS.between(hace30Dias, fechaCompletada);
-        if (diasDiferencia >= 0 && diasDiferencia < 30) {
-          tareasPorDia[(int) diasDiferencia]++;
-        }
+        tareasPorDia[i] = puntos.get(i).getTareas();
       }
 
       Map<String, Object> resultado = new HashMap<>();
       resultado.put("etiquetas", etiquetas);
       resultado.put("tareas", tareasPorDia);
-      resultado.put("total", tareasUltimo30Dias.size());
+      resultado.put("total", serie.getTotalTareas());
 
       return ResponseEntity.ok(resultado);
     } catch (Exception e) {
@@ -170,4 +196,9 @@ public class HistorialController {
       return ResponseEntity.status(500).body(new HashMap<>());
     }
   }
+
+  /** ID del usuario logueado, tomado de la sesión sin consultar la BD. */
+  private Long usuarioActualId() {
+    return authservice.getUserDetails().getUsuario().getId();
+  }
 }
@@ -1,30 +1,35 @@
 package michaelsoftbinbows.controller;
 
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import michaelsoftbinbows.data.SalonFamaRepository;
+import michaelsoftbinbows.dto.ClimaActual;
+import michaelsoftbinbows.dto.PaginaHistorialDto;
 import michaelsoftbinbows.dto.TareaDto;
 import michaelsoftbinbows.entities.SalonFama;
 import michaelsoftbinbows.entities.Tarea;
 import michaelsoftbinbows.entities.Usuario;
+import michaelsoftbinbows.model.CategoriaClima;
 import michaelsoftbinbows.services.AuthService;
 import michaelsoftbinbows.services.ConfiguracionService;
+import michaelsoftbinbows.services.ExpiracionTareasService;
 import michaelsoftbinbows.services.GestorLogrosService;
+import michaelsoftbinbows.services.LeaderboardService;
+import michaelsoftbinbows.services.RecomendacionClimaService;
 import michaelsoftbinbows.services.TareaService;
 import michaelsoftbinbows.services.UsuarioService;
 import michaelsoftbinbows.services.UsuarioTareaService;
 import michaelsoftbinbows.services.WeatherService;
 import michaelsoftbinbows.util.Dificultad;
 import michaelsoftbinbows.util.SistemaNiveles;
-import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -42,6 +47,13 @@ public class HomeController {
   @Autowired private SalonFamaRepository salonFamaRepository;
   @Autowired private AuthService authservice;
   @Autowired private GestorLogrosService gestorLogrosService;
+  @Autowired private LeaderboardService leaderboardService;
+  @Autowired private RecomendacionClimaService recomendacionClimaService;
+  @Autowired private ExpiracionTareasService expiracionTareasService;
+
+  // Milisegundos que /home espera al clima antes de mostrar el placeholder.
+  @Value("${weather.home.presupuesto-ms:300}")
+  private long presupuestoClimaMs;
 
   /**
    * Redirige al login si se entra a la dirección.
@@ -62,10 +74,8 @@ public class HomeController {
   @GetMapping("/home")
   public String mostrarHome(Model model) {
     System.out.println("LOG: El método 'mostrarMain' ha sido llamado por una petición a /home.");
-    // Obtener usuario con colecciones cargadas dentro de contexto transaccional
-    Usuario usuarioActual =
-        usuarioService.buscarPorCorreoConTareas(
-            authservice.getCurrentUser().getCorreoElectronico());
+    // Usuario de la petición con sus tareas (se carga una sola vez y lo comparten los servicios)
+    Usuario usuarioActual = authservice.getCurrentUser();
 
     if (usuarioActual == null) {
       return "redirect:/login?error=userNotFound";
@@ -77,13 +87,14 @@ public class HomeController {
 
     model.addAttribute("usuario", usuarioActual);
     model.addAttribute("tareas", usuarioActual.getTareasPendientes());
-    model.addAttribute("historialTareas", usuarioActual.getTareasCompletadas());
-
-    List<Tarea> historialCompleto = usuarioActual.getTareasCompletadas();
-    List<Tarea> historialReciente = historialCompleto.stream().limit(3).toList();
+    model.addAttribute(
+        "tareasPorExpirar", expiracionTareasService.getTareasPorExpirar(usuarioActual.getId()));
 
-    model.addAttribute("historialReciente", historialReciente); // La lista corta
-    model.addAttribute("totalHistorial", historialCompleto.size()); // El número total
+    // Solo las 3 últimas completadas, con una consulta limitada (sin recorrer todo el historial)
+    PaginaHistorialDto historialReciente =
+        tareaService.obtenerHistorial(usuarioActual.getId(), null, null, 3);
+    model.addAttribute("historialReciente", historialReciente.getTareas()); // La lista corta
+    model.addAttribute("historialHayMas", historialReciente.isHayMas()); // Si hay más de 3
 
     int expSiguienteNivel =
         SistemaNiveles.experienciaParaNivel(usuarioActual.getNivelExperiencia() + 1);
@@ -91,39 +102,25 @@ public class HomeController {
 
     String ciudad = usuarioActual.getCiudad();
     String climaActual = null;
+    Double temperaturaActual = null;
     if (ciudad != null && !ciudad.trim().isEmpty()) {
+      // El clima se pide en otro hilo y solo se espera hasta el presupuesto de tiempo. Si no llega
+      // a tiempo, la página muestra un placeholder y lo pide después a /api/weather/resumen.
+      CompletableFuture<ClimaActual> consultaClima = weatherService.getClimaActualAsync(ciudad);
       try {
-        String weatherJsonString = weatherService.getWeatherByCity(ciudad);
-        JSONObject weatherJson = new JSONObject(weatherJsonString);
-
-        Map<String, Object> climaData = new HashMap<>();
-        climaData.put("temperatura", weatherJson.getJSONObject("main").getInt("temp"));
-        climaData.put(
-            "descripcion",
-            weatherJson.getJSONArray("weather").getJSONObject(0).getString("description"));
-        climaData.put("humedad", weatherJson.getJSONObject("main").getInt("humidity"));
-        climaData.put(
-            "icono", weatherJson.getJSONArray("weather").getJSONObject(0).getString("icon"));
-
-        long timestamp = weatherJson.getLong("dt");
-        // Seccion zona horaria
-        int timezoneOffset = weatherJson.getInt("timezone");
-        // Convertimos el timestamp UTC a un objeto Instant y le aplicamos el desfase horario
-        Instant instant = Instant.ofEpochSecond(timestamp);
-        ZoneId zoneId = ZoneId.ofOffset("UTC", java.time.ZoneOffset.ofTotalSeconds(timezoneOffset));
-        // Formateamos la hora al formato "HH:mm"
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm").withZone(zoneId);
-        String horaLocal = formatter.format(instant);
-
-        climaData.put("hora", horaLocal);
-        model.addAttribute("clima", climaData);
+        ClimaActual clima = consultaClima.get(presupuestoClimaMs, TimeUnit.MILLISECONDS);
+        model.addAttribute("clima", weatherService.resumirClima(clima));
 
         // Obtener el clima principal
-        climaActual =
-            weatherJson
-                .getJSONArray("weather")
-                .getJSONObject(0)
-                .getString("main"); // Ejemplo: "Clear", "Clouds", "Rain"
+        climaActual = clima.principal(); // Ejemplo: "Clear", "Clouds", "Rain"
+        temperaturaActual = clima.temperatura();
+      } catch (TimeoutException e) {
+        System.out.println(
+            "LOG: El clima de '" + ciudad + "' no llegó a tiempo, se cargará luego.");
+        model.addAttribute("climaPendiente", true);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        model.addAttribute("climaPendiente", true);
       } catch (Exception e) {
         System.err.println(
             "Error al obtener datos del clima para la ciudad '" + ciudad + "': " + e.getMessage());
@@ -136,15 +133,9 @@ public class HomeController {
     // Recomendar tarea según clima
     Tarea tareaRecomendada = null;
     if (climaActual != null) {
-      String categoriaClima =
-          switch (climaActual) {
-            case "Clear" -> "Soleado";
-            case "Clouds" -> "Nublado";
-            case "Rain", "Drizzle", "Thunderstorm" -> "Lluvia";
-            case "Snow" -> "Nieve";
-            default -> "Soleado";
-          };
-      List<Tarea> recomendadas = tareaService.obtenerTareasRecomendadasPorClima(categoriaClima);
+      List<Tarea> recomendadas =
+          recomendacionClimaService.getRecomendaciones(
+              CategoriaClima.desdeClimaApi(climaActual), temperaturaActual);
       if (!recomendadas.isEmpty()) {
         tareaRecomendada = recomendadas.get(0);
       }
@@ -158,9 +149,9 @@ public class HomeController {
         tareaDto.nombre = tareaRecomendada.getNombre();
         tareaDto.descripcion = tareaRecomendada.getDescripcion();
         tareaDto.dificultad = Dificultad.obtenerDificultadPorExp(tareaRecomendada.getExp());
-        tareaService.crear(tareaDto, usuarioActual.getId());
-        // IMPORTANTE: Recargar el usuario desde la BD para obtener la tarea recién creada
-        usuarioActual = usuarioService.buscarPorCorreo(usuarioActual.getCorreoElectronico());
+        Tarea creada = tareaService.crear(tareaDto, usuarioActual.getId());
+        // Se agrega a la lista ya cargada en vez de volver a leer el usuario desde la BD
+        usuarioActual.getTareas().add(creada);
       } catch (Exception e) {
         System.err.println("Error al agregar tarea recomendada por clima: " + e.getMessage());
       }
@@ -176,8 +167,8 @@ public class HomeController {
     model.addAttribute("tareaRecomendada", tareaRecomendadaUsuario);
     model.addAttribute("tareaRecomendadaCompletada", tareaRecomendadaCompletada);
 
-    // 1. Pedimos el Top 3 (usando el método de UsuarioService)
-    List<Usuario> top3 = usuarioService.getTopUsuarios(3);
+    // 1. Pedimos el Top 3 al ranking en memoria
+    List<Usuario> top3 = leaderboardService.getTop(3);
 
     // 2. Lo anadimos al modelo para que el HTML lo pueda usar
     model.addAttribute("top3Usuarios", top3);
@@ -191,7 +182,7 @@ public class HomeController {
     model.addAttribute("desafioCompletado", desafioCompletado);
 
     // Logros revisar
-    usuarioService.manejarLogicaDeLogin(usuarioActual.getCorreoElectronico());
+    usuarioService.manejarLogicaDeLogin(usuarioActual);
 
     return "home";
   }
@@ -214,9 +205,10 @@ public class HomeController {
       // 2. Obtener el límite del Top (10, 20, etc.) desde la BD
       int limite = configuracionService.getLimiteTop();
 
-      // 3. Obtener la lista del ranking (ordenada por puntosLiga)
-      List<Usuario> listaRanking = usuarioService.getTopUsuarios(limite);
+      // 3. Obtener la lista del ranking (ordenada por puntosLiga) y la posición del usuario
+      List<Usuario> listaRanking = leaderboardService.getTop(limite);
       model.addAttribute("listaRanking", listaRanking);
+      model.addAttribute("posicionUsuario", leaderboardService.getPosicion(usuarioActual.getId()));
 
       // 4. Generar los textos de los meses (para los títulos)
       LocalDate hoy = LocalDate.now(ZoneId.systemDefault());
@@ -1,9 +1,12 @@
 package michaelsoftbinbows.controller;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import michaelsoftbinbows.entities.Logro;
+import michaelsoftbinbows.model.TipoEventoLogro;
 import michaelsoftbinbows.services.LogroService;
+import michaelsoftbinbows.services.ReevaluacionLogrosService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,6 +22,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class LogroController {
 
   @Autowired private LogroService logroService;
+  @Autowired private ReevaluacionLogrosService reevaluacionLogrosService;
 
   /**
    * Permite ver todos los logros disponibles.
@@ -49,7 +53,12 @@ public class LogroController {
    */
   @PostMapping
   public Logro crear(@RequestBody Logro logro) {
-    return logroService.guardar(logro);
+    Logro guardado = logroService.guardar(logro);
+    // Un logro nuevo y activo se otorga en segundo plano a quienes ya cumplen su condición
+    if (guardado.isActivo()) {
+      reevaluacionLogrosService.reevaluarTodosEnSegundoPlano(EnumSet.allOf(TipoEventoLogro.class));
+    }
+    return guardado;
   }
 
   /**
@@ -64,13 +64,11 @@ public class PerfilController {
   @GetMapping("/perfil")
   public String mostrarPerfil(Model model) {
 
-    String correo = authService.getCurrentUser().getCorreoElectronico();
+    // Usuario de la petición, con sus tareas ya cargadas
+    Usuario usuario = authService.getCurrentUser();
 
-    // 1. Ejecuta la lógica de login (previene LazyInitializationException)
-    usuarioService.manejarLogicaDeLogin(correo);
-
-    // 2. Volvemos a cargar el usuario con todos sus datos actualizados (incluye tareas)
-    Usuario usuario = usuarioService.buscarPorCorreoConTareas(correo);
+    // 1. Ejecuta la lógica de login sobre esa misma instancia
+    usuarioService.manejarLogicaDeLogin(usuario);
 
     // --- PREPARAR DATOS PARA LA VISTA ---
 
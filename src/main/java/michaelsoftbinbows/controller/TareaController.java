@@ -3,12 +3,12 @@ package michaelsoftbinbows.controller;
 import java.util.Optional;
 import michaelsoftbinbows.dto.TareaDto;
 import michaelsoftbinbows.entities.Tarea;
+import michaelsoftbinbows.entities.Usuario;
 import michaelsoftbinbows.exceptions.EdicionTareaException;
 import michaelsoftbinbows.exceptions.TareaInvalidaException;
 import michaelsoftbinbows.exceptions.TareaPertenenciaException;
 import michaelsoftbinbows.services.AuthService;
 import michaelsoftbinbows.services.TareaService;
-import michaelsoftbinbows.services.UsuarioService;
 import michaelsoftbinbows.services.UsuarioTareaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -21,7 +21,6 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 @Controller
 public class TareaController {
 
-  @Autowired private UsuarioService usuarioService;
   @Autowired private TareaService tareaService;
   @Autowired private AuthService authservice;
   @Autowired private UsuarioTareaService usuarioTareaService;
@@ -105,10 +104,10 @@ public class TareaController {
       @RequestParam("dificultad") String dificultad,
       RedirectAttributes redirectAttributes)
       throws TareaInvalidaException {
-    Long id = authservice.getCurrentUser().getId();
-    String correo = authservice.getCurrentUser().getCorreoElectronico();
+    Usuario usuarioActual = authservice.getCurrentUser();
+    Long id = usuarioActual.getId();
 
-    int tareasPendientes = usuarioService.obtenerTareasPendientes(correo).size();
+    int tareasPendientes = usuarioActual.getTareasPendientes().size();
     if (tareasPendientes >= 4) {
       throw new TareaInvalidaException(
           "No puedes agregar más de 4 tareas pendientes.", nombre, descripcion);
@@ -1,5 +1,6 @@
 package michaelsoftbinbows.controller;
 
+import java.util.Map;
 import michaelsoftbinbows.services.WeatherService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,4 +25,16 @@ public class WeatherController {
   public String getWeather(@RequestParam String city) {
     return weatherService.getWeatherByCity(city);
   }
+
+  /**
+   * Devuelve solo los datos que muestra la tarjeta de clima del home. Lo usa la página de inicio
+   * para completar la tarjeta cuando el clima no alcanzó a llegar durante el render.
+   *
+   * @param city ciudad para revisar
+   * @return temperatura, descripción, humedad, ícono y hora local de la ciudad
+   */
+  @GetMapping("/resumen")
+  public Map<String, Object> getResumen(@RequestParam String city) {
+    return weatherService.resumirClima(weatherService.getClimaActual(city));
+  }
 }
@@ -0,0 +1,105 @@
+package michaelsoftbinbows.data;
+
+import java.time.LocalDate;
+import java.util.List;
+import michaelsoftbinbows.entities.ActividadDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/** Repositorio de Spring Data JPA para el resumen de actividad diaria de cada usuario. */
+public interface ActividadDiariaRepository extends JpaRepository<ActividadDiaria, Long> {
+
+  /**
+   * Suma actividad al día del usuario, creando la fila si no existe. Es un solo INSERT ... ON
+   * CONFLICT, así dos tareas completadas a la vez no pueden pisarse.
+   *
+   * @param usuarioId ID del usuario.
+   * @param fecha Día de la actividad.
+   * @param tareas Tareas completadas a sumar.
+   * @param exp Experiencia a sumar.
+   * @param puntos Puntos de liga a sumar.
+   * @return Número de filas afectadas (1).
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO actividad_diaria "
+              + "(usuario_id, fecha, tareas_completadas, exp_ganada, puntos_liga) "
+              + "VALUES (:usuarioId, :fecha, :tareas, :exp, :puntos) "
+              + "ON CONFLICT (usuario_id, fecha) DO UPDATE SET "
+              + "tareas_completadas = actividad_diaria.tareas_completadas + :tareas, "
+              + "exp_ganada = actividad_diaria.exp_ganada + :exp, "
+              + "puntos_liga = actividad_diaria.puntos_liga + :puntos",
+      nativeQuery = true)
+  int sumarActividad(
+      @Param("usuarioId") Long usuarioId,
+      @Param("fecha") LocalDate fecha,
+      @Param("tareas") int tareas,
+      @Param("exp") int exp,
+      @Param("puntos") int puntos);
+
+  /**
+   * Suma la actividad del usuario por periodo con date_trunc, sobre el rango [desde, hasta]. Lee a
+   * lo más una fila por día; los periodos sin actividad no aparecen.
+   *
+   * @param usuarioId ID del usuario.
+   * @param granularidad Unidad de date_trunc: "day", "week" o "month".
+   * @param desde Primer día del rango.
+   * @param hasta Último día del rango.
+   * @return Filas [inicio del periodo (date), tareas, exp], en orden.
+   */
+  @Query(
+      value =
+          "SELECT CAST(date_trunc(:granularidad, a.fecha) AS date) AS periodo, "
+              + "SUM(a.tareas_completadas) AS tareas, SUM(a.exp_ganada) AS exp "
+              + "FROM actividad_diaria a WHERE a.usuario_id = :usuarioId "
+              + "AND a.fecha BETWEEN :desde AND :hasta "
+              + "GROUP BY 1 ORDER BY 1",
+      nativeQuery = true)
+  List<Object[]> sumarPorPeriodo(
+      @Param("usuarioId") Long usuarioId,
+      @Param("granularidad") String granularidad,
+      @Param("desde") LocalDate desde,
+      @Param("hasta") LocalDate hasta);
+
+  /**
+   * Bloquea la tabla contra escrituras hasta el fin de la transacción. Las lecturas siguen
+   * permitidas; las tareas completadas mientras tanto esperan a que termine.
+   */
+  @Modifying
+  @Query(value = "LOCK TABLE actividad_diaria IN EXCLUSIVE MODE", nativeQuery = true)
+  void bloquearTabla();
+
+  /**
+   * Recalcula desde las tareas completadas la actividad diaria de todos los usuarios, por usuario y
+   * día. Los días que ya existan se reemplazan con el valor calculado.
+   *
+   * @return Número de días insertados o actualizados.
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO actividad_diaria "
+              + "(usuario_id, fecha, tareas_completadas, exp_ganada, puntos_liga) "
+              + "SELECT t.usuario_id, CAST(t.fecha_completada AS date), COUNT(*), "
+              + "COALESCE(SUM(t.exp), 0), COALESCE(SUM(t.exp), 0) "
+              + "FROM tarea t WHERE t.fecha_completada IS NOT NULL AND t.usuario_id IS NOT NULL "
+              + "GROUP BY t.usuario_id, CAST(t.fecha_completada AS date) "
+              + "ON CONFLICT (usuario_id, fecha) DO UPDATE SET "
+              + "tareas_completadas = EXCLUDED.tareas_completadas, "
+              + "exp_ganada = EXCLUDED.exp_ganada, "
+              + "puntos_liga = EXCLUDED.puntos_liga",
+      nativeQuery = true)
+  int recalcularDesdeTareas();
+
+  /**
+   * Elimina toda la actividad de un usuario (al borrar su cuenta).
+   *
+   * @param usuarioId ID del usuario.
+   */
+  @Modifying
+  @Query("DELETE FROM ActividadDiaria a WHERE a.usuarioId = :usuarioId")
+  void eliminarPorUsuario(@Param("usuarioId") Long usuarioId);
+}
@@ -1,7 +1,33 @@
 package michaelsoftbinbows.data;
 
+import jakarta.transaction.Transactional;
+import java.util.Optional;
 import michaelsoftbinbows.entities.Configuracion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /** Repositorio para configuración del top de usuarios. */
-public interface ConfiguracionRepository extends JpaRepository<Configuracion, String> {}
+public interface ConfiguracionRepository extends JpaRepository<Configuracion, String> {
+
+  /**
+   * Lee solo el contador de versión de una fila, sin cargar la entidad.
+   *
+   * @param clave La clave de la fila.
+   * @return La versión, o vacío si la fila no existe.
+   */
+  @Query("SELECT c.version FROM Configuracion c WHERE c.clave = :clave")
+  Optional<Long> findVersionByClave(@Param("clave") String clave);
+
+  /**
+   * Incrementa de forma atómica el contador de versión de una fila.
+   *
+   * @param clave La clave de la fila.
+   * @return El número de filas actualizadas (0 si la fila no existe).
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE Configuracion c SET c.version = c.version + 1 WHERE c.clave = :clave")
+  int incrementarVersion(@Param("clave") String clave);
+}
@@ -0,0 +1,17 @@
+package michaelsoftbinbows.data;
+
+import java.util.List;
+import michaelsoftbinbows.entities.RecomendacionClima;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/** Repositorio para el catálogo de recomendaciones por clima. */
+@Repository
+public interface RecomendacionClimaRepository extends JpaRepository<RecomendacionClima, Long> {
+
+  /** Recomendaciones activas, en el orden en que se deben sugerir. */
+  List<RecomendacionClima> findByActivaTrueOrderByPrioridadAscIdAsc();
+
+  /** Todo el catálogo, agrupado por categoría para mostrarlo en el panel de administración. */
+  List<RecomendacionClima> findAllByOrderByCategoriaAscPrioridadAscIdAsc();
+}
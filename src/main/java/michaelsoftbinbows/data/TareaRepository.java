@@ -1,9 +1,19 @@
 package michaelsoftbinbows.data;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import michaelsoftbinbows.dto.ConflictosTareaDto;
+import michaelsoftbinbows.dto.TareaExpiradaDto;
+import michaelsoftbinbows.dto.TareaHistorialDto;
+import michaelsoftbinbows.dto.VencimientoTareaDto;
 import michaelsoftbinbows.entities.Tarea;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /** Repositorio para tareas. */
 public interface TareaRepository extends JpaRepository<Tarea, Long> {
@@ -102,4 +112,132 @@ public interface TareaRepository extends JpaRepository<Tarea, Long> {
    */
   boolean existsByDescripcionAndUsuarioIdAndFechaCompletadaIsNull(
       String descripcion, Long usuarioId);
+
+  /**
+   * Primera página del historial de un usuario: sus tareas completadas, de la más reciente a la más
+   * antigua (usa el índice idx_tarea_usuario_completada).
+   *
+   * @param usuarioId ID del usuario.
+   * @param pageable Solo se usa el tamaño (siempre es la primera página).
+   * @return Proyección de las tareas completadas.
+   */
+  @Query(
+      "SELECT new michaelsoftbinbows.dto.TareaHistorialDto("
+          + "t.id, t.nombre, t.exp, t.fechaCompletada) "
+          + "FROM Tarea t WHERE t.usuario.id = :usuarioId AND t.fechaCompletada IS NOT NULL "
+          + "ORDER BY t.fechaCompletada DESC, t.id DESC")
+  List<TareaHistorialDto> findHistorial(@Param("usuarioId") Long usuarioId, Pageable pageable);
+
+  /**
+   * Siguiente página del historial (paginación por cursor): las tareas completadas justo antes de
+   * la última ya mostrada. A diferencia de OFFSET, el costo no crece con el número de páginas.
+   *
+   * @param usuarioId ID del usuario.
+   * @param fecha Fecha de completado de la última tarea mostrada.
+   * @param id ID de la última tarea mostrada (desempata tareas con la misma fecha).
+   * @param pageable Solo se usa el tamaño.
+   * @return Proyección de las tareas completadas siguientes.
+   */
+  @Query(
+      "SELECT new michaelsoftbinbows.dto.TareaHistorialDto("
+          + "t.id, t.nombre, t.exp, t.fechaCompletada) "
+          + "FROM Tarea t WHERE t.usuario.id = :usuarioId AND t.fechaCompletada IS NOT NULL "
+          + "AND (t.fechaCompletada < :fecha OR (t.fechaCompletada = :fecha AND t.id < :id)) "
+          + "ORDER BY t.fechaCompletada DESC, t.id DESC")
+  List<TareaHistorialDto> findHistorialAntesDe(
+      @Param("usuarioId") Long usuarioId,
+      @Param("fecha") LocalDateTime fecha,
+      @Param("id") Long id,
+      Pageable pageable);
+
+  /**
+   * Obtiene los nombres de las tareas pendientes de un usuario (para revisar duplicados de una
+   * importación sin una consulta por fila).
+   *
+   * @param usuarioId ID del usuario.
+   * @return Los nombres de sus tareas pendientes.
+   */
+  @Query(
+      "SELECT t.nombre FROM Tarea t WHERE t.usuario.id = :usuarioId AND t.fechaCompletada IS NULL")
+  List<String> findNombresPendientes(@Param("usuarioId") Long usuarioId);
+
+  /**
+   * Obtiene las descripciones de las tareas pendientes de un usuario.
+   *
+   * @param usuarioId ID del usuario.
+   * @return Las descripciones de sus tareas pendientes.
+   */
+  @Query(
+      "SELECT t.descripcion FROM Tarea t WHERE t.usuario.id = :usuarioId "
+          + "AND t.fechaCompletada IS NULL")
+  List<String> findDescripcionesPendientes(@Param("usuarioId") Long usuarioId);
+
+  /**
+   * Revisa en una sola consulta si el usuario ya tiene una tarea PENDIENTE con ese nombre o con esa
+   * descripción (usa los índices parciales de tareas pendientes).
+   *
+   * @param usuarioId ID del usuario.
+   * @param nombre Nombre de la tarea nueva.
+   * @param descripcion Descripción de la tarea nueva.
+   * @return Qué campos están repetidos.
+   */
+  @Query(
+      "SELECT new michaelsoftbinbows.dto.ConflictosTareaDto("
+          + "SUM(CASE WHEN t.nombre = :nombre THEN 1 ELSE 0 END), "
+          + "SUM(CASE WHEN t.descripcion = :descripcion THEN 1 ELSE 0 END)) "
+          + "FROM Tarea t WHERE t.usuario.id = :usuarioId AND t.fechaCompletada IS NULL "
+          + "AND (t.nombre = :nombre OR t.descripcion = :descripcion)")
+  ConflictosTareaDto buscarConflictosPendientes(
+      @Param("usuarioId") Long usuarioId,
+      @Param("nombre") String nombre,
+      @Param("descripcion") String descripcion);
+
+  /**
+   * Busca un lote de tareas PENDIENTES cuya fecha de expiración ya pasó, en orden de ID.
+   *
+   * @param ahora Momento de referencia.
+   * @param pageable Tamaño del lote.
+   * @return IDs de las tareas expiradas y de sus dueños.
+   */
+  @Query(
+      "SELECT new michaelsoftbinbows.dto.TareaExpiradaDto(t.id, t.usuario.id) FROM Tarea t "
+          + "WHERE t.fechaCompletada IS NULL AND t.fechaExpiracion < :ahora ORDER BY t.id")
+  List<TareaExpiradaDto> findExpiradasPendientes(
+      @Param("ahora") LocalDateTime ahora, Pageable pageable);
+
+  /**
+   * Elimina en una sola sentencia las tareas indicadas que sigan pendientes y expiradas. Se vuelve
+   * a comprobar el estado por si alguna se completó después de buscarla.
+   *
+   * @param ids IDs de las tareas a eliminar.
+   * @param ahora Momento de referencia.
+   * @return Número de tareas eliminadas.
+   */
+  @Modifying(clearAutomatically = true)
+  @Query(
+      "DELETE FROM Tarea t WHERE t.id IN :ids "
+          + "AND t.fechaCompletada IS NULL AND t.fechaExpiracion < :ahora")
+  int eliminarExpiradasPorIds(
+      @Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora);
+
+  /**
+   * Obtiene la fecha de expiración más próxima entre las tareas PENDIENTES de un usuario.
+   *
+   * @param usuarioId ID del usuario.
+   * @return La fecha, o vacío si no tiene tareas pendientes con fecha de expiración.
+   */
+  @Query(
+      "SELECT MIN(t.fechaExpiracion) FROM Tarea t "
+          + "WHERE t.usuario.id = :usuarioId AND t.fechaCompletada IS NULL")
+  Optional<LocalDateTime> findProximaExpiracionPendiente(@Param("usuarioId") Long usuarioId);
+
+  /**
+   * Obtiene la fecha de expiración de todas las tareas PENDIENTES que tienen una.
+   *
+   * @return ID, dueño y fecha de expiración de cada tarea pendiente.
+   */
+  @Query(
+      "SELECT new michaelsoftbinbows.dto.VencimientoTareaDto(t.id, t.usuario.id, t.fechaExpiracion)"
+          + " FROM Tarea t WHERE t.fechaCompletada IS NULL AND t.fechaExpiracion IS NOT NULL")
+  List<VencimientoTareaDto> findVencimientosPendientes();
 }
@@ -0,0 +1,61 @@
+package michaelsoftbinbows.data;
+
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import michaelsoftbinbows.entities.UbicacionCacheada;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/** Repositorio para las respuestas de Geocoding guardadas en la BD. */
+public interface UbicacionCacheadaRepository extends JpaRepository<UbicacionCacheada, String> {
+
+  /**
+   * Guarda una respuesta, o la reemplaza si la clave ya existe. Es un solo INSERT ... ON CONFLICT,
+   * así dos peticiones que no la encontraron a la vez no chocan por la clave repetida.
+   *
+   * @param clave La clave normalizada de la consulta.
+   * @param respuesta El JSON devuelto por la API.
+   * @param obtenidaEn Cuándo se obtuvo la respuesta.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO ubicacion_cacheada (clave, respuesta, obtenida_en) "
+              + "VALUES (:clave, :respuesta, :obtenidaEn) "
+              + "ON CONFLICT (clave) DO UPDATE SET "
+              + "respuesta = EXCLUDED.respuesta, obtenida_en = EXCLUDED.obtenida_en",
+      nativeQuery = true)
+  void guardar(
+      @Param("clave") String clave,
+      @Param("respuesta") String respuesta,
+      @Param("obtenidaEn") LocalDateTime obtenidaEn);
+
+  /**
+   * Elimina las respuestas obtenidas antes de una fecha.
+   *
+   * @param limite Las respuestas más antiguas que esta fecha se eliminan.
+   * @return El número de filas eliminadas.
+   */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM UbicacionCacheada u WHERE u.obtenidaEn < :limite")
+  int eliminarAnterioresA(@Param("limite") LocalDateTime limite);
+
+  /**
+   * Deja solo las respuestas más recientes, eliminando las que sobran.
+   *
+   * @param maxFilas Cuántas respuestas se conservan.
+   * @return El número de filas eliminadas.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM ubicacion_cacheada WHERE clave IN (SELECT clave FROM ubicacion_cacheada "
+              + "ORDER BY obtenida_en DESC OFFSET :maxFilas)",
+      nativeQuery = true)
+  int eliminarExcedentes(@Param("maxFilas") int maxFilas);
+}
@@ -0,0 +1,88 @@
+package michaelsoftbinbows.data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import michaelsoftbinbows.entities.UsuarioEstadisticas;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/** Repositorio de Spring Data JPA para las estadísticas agregadas de cada usuario. */
+public interface UsuarioEstadisticasRepository extends JpaRepository<UsuarioEstadisticas, Long> {
+
+  /**
+   * Busca los IDs de los usuarios que todavía no tienen su fila de estadísticas (por ejemplo, los
+   * creados antes de que existiera esta tabla).
+   *
+   * @return Lista de IDs de usuario sin estadísticas.
+   */
+  @Query(
+      "SELECT u.id FROM Usuario u "
+          + "WHERE NOT EXISTS (SELECT e FROM UsuarioEstadisticas e WHERE e.usuarioId = u.id)")
+  List<Long> findIdsUsuariosSinEstadisticas();
+
+  /**
+   * Suma tareas pendientes a las estadísticas del usuario con un solo UPDATE atómico, para que dos
+   * peticiones simultáneas no se pisen el incremento.
+   *
+   * @param usuarioId El ID del usuario.
+   * @param cantidad El número de tareas creadas.
+   * @return 1 si el usuario tenía estadísticas, 0 si no.
+   */
+  @Modifying
+  @Query(
+      "UPDATE UsuarioEstadisticas e SET e.tareasPendientes = e.tareasPendientes + :cantidad "
+          + "WHERE e.usuarioId = :usuarioId")
+  int sumarPendientes(@Param("usuarioId") Long usuarioId, @Param("cantidad") int cantidad);
+
+  /**
+   * Descuenta tareas pendientes (sin bajar de cero) con un solo UPDATE atómico.
+   *
+   * @param usuarioId El ID del usuario.
+   * @param cantidad El número de tareas pendientes eliminadas.
+   * @return 1 si el usuario tenía estadísticas, 0 si no.
+   */
+  @Modifying
+  @Query(
+      "UPDATE UsuarioEstadisticas e SET e.tareasPendientes = "
+          + "CASE WHEN e.tareasPendientes > :cantidad "
+          + "THEN e.tareasPendientes - :cantidad ELSE 0 END "
+          + "WHERE e.usuarioId = :usuarioId")
+  int restarPendientes(@Param("usuarioId") Long usuarioId, @Param("cantidad") int cantidad);
+
+  /**
+   * Registra una tarea completada con un solo UPDATE atómico: pasa una pendiente a completada, suma
+   * su experiencia, ajusta las fechas de primera y última completada y marca los indicadores de
+   * logros especiales.
+   *
+   * @param usuarioId El ID del usuario.
+   * @param exp La experiencia de la tarea.
+   * @param fecha La fecha en que se completó.
+   * @param matutina Si se completó en la mañana.
+   * @param alLimite Si se completó justo antes de expirar.
+   * @return 1 si el usuario tenía estadísticas, 0 si no.
+   */
+  @Modifying
+  @Query(
+      "UPDATE UsuarioEstadisticas e SET "
+          + "e.tareasPendientes = CASE WHEN e.tareasPendientes > 0 "
+          + "THEN e.tareasPendientes - 1 ELSE 0 END, "
+          + "e.tareasCompletadas = e.tareasCompletadas + 1, "
+          + "e.experienciaTotal = e.experienciaTotal + :exp, "
+          + "e.primeraCompletada = CASE WHEN e.primeraCompletada IS NULL "
+          + "OR e.primeraCompletada > :fecha THEN :fecha ELSE e.primeraCompletada END, "
+          + "e.ultimaCompletada = CASE WHEN e.ultimaCompletada IS NULL "
+          + "OR e.ultimaCompletada < :fecha THEN :fecha ELSE e.ultimaCompletada END, "
+          + "e.tareaMatutina = CASE WHEN e.tareaMatutina = true OR :matutina = true "
+          + "THEN true ELSE false END, "
+          + "e.tareaAlLimite = CASE WHEN e.tareaAlLimite = true OR :alLimite = true "
+          + "THEN true ELSE false END "
+          + "WHERE e.usuarioId = :usuarioId")
+  int registrarCompletada(
+      @Param("usuarioId") Long usuarioId,
+      @Param("exp") int exp,
+      @Param("fecha") LocalDateTime fecha,
+      @Param("matutina") boolean matutina,
+      @Param("alLimite") boolean alLimite);
+}
@@ -0,0 +1,36 @@
+package michaelsoftbinbows.data;
+
+import java.util.List;
+import michaelsoftbinbows.dto.TopJugadorLogrosDto;
+import michaelsoftbinbows.entities.UsuarioLogro;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+/** Repositorio para las asociaciones entre usuarios y los logros que han desbloqueado. */
+public interface UsuarioLogroRepository extends JpaRepository<UsuarioLogro, Long> {
+
+  /**
+   * Obtiene los jugadores con más logros activos desbloqueados. Agrupa por usuario y ordena por el
+   * conteo de forma descendente; el Pageable limita la cantidad de resultados.
+   *
+   * @param pageable Página a obtener (ej. PageRequest.of(0, 5) para el Top 5).
+   * @return Lista de TopJugadorLogrosDto (nombre, conteo y avatar).
+   */
+  @Query(
+      "SELECT new michaelsoftbinbows.dto.TopJugadorLogrosDto("
+          + "u.nombreUsuario, COUNT(ul), u.avatarUrl) "
+          + "FROM UsuarioLogro ul JOIN ul.usuario u JOIN ul.logro l "
+          + "WHERE l.activo = true "
+          + "GROUP BY u.id, u.nombreUsuario, u.avatarUrl "
+          + "ORDER BY COUNT(ul) DESC, u.id ASC")
+  List<TopJugadorLogrosDto> findTopJugadoresPorLogros(Pageable pageable);
+
+  /**
+   * Cuenta todos los logros activos desbloqueados, sumando los de todos los usuarios.
+   *
+   * @return El número total de asociaciones usuario-logro con el logro activo.
+   */
+  @Query("SELECT COUNT(ul) FROM UsuarioLogro ul WHERE ul.logro.activo = true")
+  long countLogrosActivosCompletados();
+}
@@ -1,11 +1,18 @@
 package michaelsoftbinbows.data;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import michaelsoftbinbows.dto.PuntosUsuarioDto;
+import michaelsoftbinbows.dto.UsuarioAdminDto;
 import michaelsoftbinbows.entities.Usuario;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repositorio de Spring Data JPA para la entidad Usuario. Proporciona métodos CRUD y consultas
@@ -21,6 +28,38 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
    */
   Optional<Usuario> findByCorreoElectronico(String correo);
 
+  /**
+   * Busca un usuario por ID trayendo sus tareas en la misma consulta (JOIN FETCH), para las vistas
+   * que muestran el usuario junto con sus tareas.
+   *
+   * @param id El ID del usuario.
+   * @return El usuario con sus tareas inicializadas.
+   */
+  @EntityGraph("Usuario.conTareas")
+  Optional<Usuario> findConTareasById(Long id);
+
+  /**
+   * Busca un usuario por ID trayendo sus logros desbloqueados (y cada Logro) en la misma consulta,
+   * para mostrar su perfil.
+   *
+   * @param id El ID del usuario.
+   * @return El usuario con sus logros inicializados.
+   */
+  @EntityGraph("Usuario.perfil")
+  Optional<Usuario> findPerfilById(Long id);
+
+  /**
+   * Lista todos los usuarios como filas planas, armadas directo en la consulta. Así ninguna
+   * colección del usuario (tareas, logros) llega a cargarse al serializar la respuesta.
+   *
+   * @return Todos los usuarios, ordenados por ID.
+   */
+  @Query(
+      "SELECT new michaelsoftbinbows.dto.UsuarioAdminDto(u.id, u.nombreUsuario,"
+          + " u.correoElectronico, u.rol, u.nivelExperiencia, u.liga, u.puntosLiga)"
+          + " FROM Usuario u ORDER BY u.id")
+  List<UsuarioAdminDto> findTodosResumidos();
+
   /**
    * Verifica si existe un usuario con el correo electrónico dado.
    *
@@ -60,6 +99,98 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
    */
   List<Usuario> findTop3ByOrderByPuntosLigaDesc();
 
+  /**
+   * Obtiene solo el ID y los puntos de liga de todos los usuarios, sin cargar las entidades.
+   *
+   * @return Lista con los puntos de cada usuario.
+   */
+  @Query("SELECT new michaelsoftbinbows.dto.PuntosUsuarioDto(u.id, u.puntosLiga) FROM Usuario u")
+  List<PuntosUsuarioDto> findPuntosDeTodos();
+
+  /**
+   * Obtiene los IDs de usuario mayores a uno dado, en orden ascendente (paginación por clave).
+   *
+   * @param desdeId El último ID ya procesado (exclusivo).
+   * @param pageable Define cuántos IDs devolver.
+   * @return Los siguientes IDs en orden.
+   */
+  @Query("SELECT u.id FROM Usuario u WHERE u.id > :desdeId ORDER BY u.id")
+  List<Long> findIdsDesde(@Param("desdeId") Long desdeId, Pageable pageable);
+
+  /**
+   * Resetea en una sola sentencia los puntos de liga de los usuarios con ID en (desdeId, hastaId].
+   * Equivale a llamar a {@code Usuario.resetearPuntosLiga()} en cada uno, sin cargarlos.
+   *
+   * @param desdeId Límite inferior (exclusivo).
+   * @param hastaId Límite superior (inclusivo).
+   * @return El número de usuarios actualizados.
+   */
+  @Modifying(clearAutomatically = true)
+  @Query(
+      "UPDATE Usuario u SET u.puntosMesPasado = u.puntosLiga, u.puntosLiga = 0, u.liga = 'Bronce' "
+          + "WHERE u.id > :desdeId AND u.id <= :hastaId")
+  int resetearPuntosLigaEntre(@Param("desdeId") Long desdeId, @Param("hastaId") Long hastaId);
+
+  /**
+   * Obtiene los IDs de los usuarios que cambiarían a una liga: los que tienen sus puntos en
+   * [minimo, maximo) y todavía no pertenecen a ella. Usa el mismo filtro que {@link #asignarLiga}.
+   *
+   * @param liga El nombre de la liga (ej. "Oro").
+   * @param minimo Puntos mínimos de la liga (inclusivo).
+   * @param maximo Puntos de la liga siguiente (exclusivo).
+   * @return Los IDs de los usuarios que cambiarían de liga.
+   */
+  @Query(
+      "SELECT u.id FROM Usuario u "
+          + "WHERE u.puntosLiga >= :minimo AND u.puntosLiga < :maximo "
+          + "AND (u.liga IS NULL OR u.liga <> :liga)")
+  List<Long> findIdsParaCambiarDeLiga(
+      @Param("liga") String liga, @Param("minimo") int minimo, @Param("maximo") int maximo);
+
+  /**
+   * Obtiene los IDs en (desdeId, hastaId] de los usuarios que no están en Bronce, es decir, los que
+   * cambian de liga con el reseteo de temporada.
+   *
+   * @param desdeId Límite inferior (exclusivo).
+   * @param hastaId Límite superior (inclusivo).
+   * @return Los IDs de los usuarios fuera de Bronce en ese rango.
+   */
+  @Query(
+      "SELECT u.id FROM Usuario u WHERE u.id > :desdeId AND u.id <= :hastaId "
+          + "AND (u.liga IS NULL OR u.liga <> 'Bronce')")
+  List<Long> findIdsFueraDeBronceEntre(
+      @Param("desdeId") Long desdeId, @Param("hastaId") Long hastaId);
+
+  /**
+   * Asigna una liga a todos los usuarios cuyos puntos estén en [minimo, maximo) y que todavía no
+   * pertenezcan a ella (incluidos los que tienen la liga en NULL, para los que {@code <>} nunca es
+   * verdadero).
+   *
+   * @param liga El nombre de la liga (ej. "Oro").
+   * @param minimo Puntos mínimos de la liga (inclusivo).
+   * @param maximo Puntos de la liga siguiente (exclusivo).
+   * @return El número de usuarios que cambiaron a esa liga.
+   */
+  @Modifying(clearAutomatically = true)
+  @Query(
+      "UPDATE Usuario u SET u.liga = :liga "
+          + "WHERE u.puntosLiga >= :minimo AND u.puntosLiga < :maximo "
+          + "AND (u.liga IS NULL OR u.liga <> :liga)")
+  int asignarLiga(
+      @Param("liga") String liga, @Param("minimo") int minimo, @Param("maximo") int maximo);
+
+  /**
+   * Obtiene las ciudades (sin repetir) de los usuarios que entraron a la aplicación desde una fecha
+   * dada.
+   *
+   * @param desde Fecha mínima de última actividad.
+   * @return Las ciudades configuradas por usuarios activos.
+   */
+  @Query(
+      "SELECT DISTINCT u.ciudad FROM Usuario u "
+          + "WHERE u.ciudad IS NOT NULL AND u.ciudad <> '' AND u.ultimaActividad >= :desde")
+  List<String> findCiudadesDeUsuariosActivosDesde(@Param("desde") LocalDateTime desde);
+
   // Busca usuarios cuyo nombre contenga el texto (query), ignorando mayúsculas/minúsculas.
   List<Usuario> findByNombreUsuarioContainingIgnoreCase(String nombreUsuario);
 }
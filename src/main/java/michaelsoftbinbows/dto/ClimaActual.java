@@ -0,0 +1,44 @@
+package michaelsoftbinbows.dto;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Datos del clima actual de una ciudad, tal como los entrega OpenWeatherMap pero ya leídos. Se arma
+ * una sola vez por cada respuesta de la API y es lo que se guarda en la caché.
+ *
+ * @param nombre Nombre oficial de la ciudad (ej. "Curicó"), o null si la API no lo envió.
+ * @param pais Código del país (ej. "CL"), o null si la API no lo envió.
+ * @param temperatura Temperatura en grados Celsius.
+ * @param humedad Humedad en porcentaje.
+ * @param viento Velocidad del viento en m/s.
+ * @param descripcion Descripción en español (ej. "parcialmente nublado").
+ * @param principal Grupo del clima (ej. "Clear", "Clouds", "Rain").
+ * @param icono Código del ícono (ej. "01d").
+ * @param marcaTiempo Momento de la medición, en segundos desde epoch (UTC).
+ * @param desfaseSegundos Desfase de la zona horaria de la ciudad respecto a UTC.
+ */
+public record ClimaActual(
+    String nombre,
+    String pais,
+    double temperatura,
+    int humedad,
+    double viento,
+    String descripcion,
+    String principal,
+    String icono,
+    long marcaTiempo,
+    int desfaseSegundos) {
+
+  /**
+   * Formatea la hora de la medición en la zona horaria de la ciudad.
+   *
+   * @param formato El formato a usar (ej. "HH:mm").
+   * @return La hora local de la ciudad.
+   */
+  public String horaLocal(DateTimeFormatter formato) {
+    return formato.format(
+        Instant.ofEpochSecond(marcaTiempo).atOffset(ZoneOffset.ofTotalSeconds(desfaseSegundos)));
+  }
+}
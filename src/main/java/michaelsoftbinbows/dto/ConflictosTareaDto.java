@@ -0,0 +1,29 @@
+package michaelsoftbinbows.dto;
+
+/**
+ * Resultado de buscar, en una sola consulta, si un usuario ya tiene una tarea pendiente con el
+ * mismo nombre o con la misma descripción.
+ */
+public class ConflictosTareaDto {
+
+  private boolean nombreRepetido;
+  private boolean descripcionRepetida;
+
+  /**
+   * Constructor usado por la consulta. Recibe cuántas tareas coinciden en cada campo (null si
+   * ninguna fila coincidió).
+   */
+  public ConflictosTareaDto(Long conNombre, Long conDescripcion) {
+    this.nombreRepetido = conNombre != null && conNombre > 0;
+    this.descripcionRepetida = conDescripcion != null && conDescripcion > 0;
+  }
+
+  // Getters
+  public boolean isNombreRepetido() {
+    return nombreRepetido;
+  }
+
+  public boolean isDescripcionRepetida() {
+    return descripcionRepetida;
+  }
+}
@@ -0,0 +1,48 @@
+package michaelsoftbinbows.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/** DTO con el estado del último recálculo global de ligas lanzado desde el panel de admin. */
+public class EstadoRecalculoLigasDto {
+
+  private String estado;
+  private LocalDateTime inicio;
+  private LocalDateTime fin;
+  private Map<String, Integer> usuariosMovidos;
+  private String error;
+
+  public EstadoRecalculoLigasDto(
+      String estado,
+      LocalDateTime inicio,
+      LocalDateTime fin,
+      Map<String, Integer> usuariosMovidos,
+      String error) {
+    this.estado = estado;
+    this.inicio = inicio;
+    this.fin = fin;
+    this.usuariosMovidos = usuariosMovidos;
+    this.error = error;
+  }
+
+  // Getters
+  public String getEstado() {
+    return estado;
+  }
+
+  public LocalDateTime getInicio() {
+    return inicio;
+  }
+
+  public LocalDateTime getFin() {
+    return fin;
+  }
+
+  public Map<String, Integer> getUsuariosMovidos() {
+    return usuariosMovidos;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
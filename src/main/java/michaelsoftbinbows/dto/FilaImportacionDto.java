@@ -0,0 +1,42 @@
+package michaelsoftbinbows.dto;
+
+/** Resultado de una fila de una importación masiva de tareas. */
+public class FilaImportacionDto {
+
+  private int fila;
+  private boolean creada;
+  private Long idTarea;
+  private String error;
+
+  /**
+   * Constructor.
+   *
+   * @param fila Número de la fila en la importación (desde 1).
+   * @param creada Si la tarea se guardó.
+   * @param idTarea ID de la tarea creada, o null si no se creó.
+   * @param error Motivo del rechazo, o null si se creó.
+   */
+  public FilaImportacionDto(int fila, boolean creada, Long idTarea, String error) {
+    this.fila = fila;
+    this.creada = creada;
+    this.idTarea = idTarea;
+    this.error = error;
+  }
+
+  // Getters
+  public int getFila() {
+    return fila;
+  }
+
+  public boolean isCreada() {
+    return creada;
+  }
+
+  public Long getIdTarea() {
+    return idTarea;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
@@ -0,0 +1,33 @@
+package michaelsoftbinbows.dto;
+
+import java.util.List;
+
+/**
+ * Una página del historial de tareas completadas. Para pedir la siguiente se usa como cursor la
+ * fecha y el ID de la última tarea de esta página.
+ */
+public class PaginaHistorialDto {
+
+  private List<TareaHistorialDto> tareas;
+  private boolean hayMas;
+
+  /**
+   * Constructor.
+   *
+   * @param tareas Las tareas de la página, de la más reciente a la más antigua.
+   * @param hayMas Si quedan tareas más antiguas por cargar.
+   */
+  public PaginaHistorialDto(List<TareaHistorialDto> tareas, boolean hayMas) {
+    this.tareas = tareas;
+    this.hayMas = hayMas;
+  }
+
+  // Getters
+  public List<TareaHistorialDto> getTareas() {
+    return tareas;
+  }
+
+  public boolean isHayMas() {
+    return hayMas;
+  }
+}
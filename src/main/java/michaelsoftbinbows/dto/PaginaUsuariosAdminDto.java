@@ -0,0 +1,48 @@
+package michaelsoftbinbows.dto;
+
+import java.util.List;
+
+/**
+ * Una página del listado de usuarios del panel de admin. Para pedir la siguiente se usa como cursor
+ * el valor de la columna de orden y el ID del último usuario de esta página.
+ */
+public class PaginaUsuariosAdminDto {
+
+  private List<UsuarioAdminDto> usuarios;
+  private boolean hayMas;
+  private String siguienteValor;
+  private Long siguienteId;
+
+  /**
+   * Constructor.
+   *
+   * @param usuarios Los usuarios de la página, en el orden pedido.
+   * @param hayMas Si quedan usuarios después de esta página.
+   * @param siguienteValor Valor de la columna de orden del último usuario (null si no hay más).
+   * @param siguienteId ID del último usuario (null si no hay más).
+   */
+  public PaginaUsuariosAdminDto(
+      List<UsuarioAdminDto> usuarios, boolean hayMas, String siguienteValor, Long siguienteId) {
+    this.usuarios = usuarios;
+    this.hayMas = hayMas;
+    this.siguienteValor = siguienteValor;
+    this.siguienteId = siguienteId;
+  }
+
+  // Getters
+  public List<UsuarioAdminDto> getUsuarios() {
+    return usuarios;
+  }
+
+  public boolean isHayMas() {
+    return hayMas;
+  }
+
+  public String getSiguienteValor() {
+    return siguienteValor;
+  }
+
+  public Long getSiguienteId() {
+    return siguienteId;
+  }
+}
@@ -0,0 +1,37 @@
+package michaelsoftbinbows.dto;
+
+import java.time.LocalDate;
+
+/** Un periodo de una serie del historial: cuántas tareas se completaron y cuánta XP dieron. */
+public class PuntoSerieDto {
+
+  private LocalDate periodo;
+  private long tareas;
+  private long exp;
+
+  /**
+   * Constructor.
+   *
+   * @param periodo Primer día del periodo.
+   * @param tareas Tareas completadas en el periodo.
+   * @param exp Experiencia ganada en el periodo.
+   */
+  public PuntoSerieDto(LocalDate periodo, long tareas, long exp) {
+    this.periodo = periodo;
+    this.tareas = tareas;
+    this.exp = exp;
+  }
+
+  // Getters
+  public LocalDate getPeriodo() {
+    return periodo;
+  }
+
+  public long getTareas() {
+    return tareas;
+  }
+
+  public long getExp() {
+    return exp;
+  }
+}
@@ -0,0 +1,22 @@
+package michaelsoftbinbows.dto;
+
+/** DTO mínimo con el ID y los puntos de liga de un usuario, usado para armar el ranking. */
+public class PuntosUsuarioDto {
+
+  private Long id;
+  private int puntosLiga;
+
+  public PuntosUsuarioDto(Long id, int puntosLiga) {
+    this.id = id;
+    this.puntosLiga = puntosLiga;
+  }
+
+  // Getters
+  public Long getId() {
+    return id;
+  }
+
+  public int getPuntosLiga() {
+    return puntosLiga;
+  }
+}
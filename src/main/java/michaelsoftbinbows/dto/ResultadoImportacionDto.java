@@ -0,0 +1,35 @@
+package michaelsoftbinbows.dto;
+
+import java.util.List;
+
+/** Resumen de una importación masiva de tareas, con el resultado de cada fila. */
+public class ResultadoImportacionDto {
+
+  private int creadas;
+  private int rechazadas;
+  private List<FilaImportacionDto> filas;
+
+  /**
+   * Constructor. Los totales se calculan a partir de las filas.
+   *
+   * @param filas El resultado de cada fila, en el orden recibido.
+   */
+  public ResultadoImportacionDto(List<FilaImportacionDto> filas) {
+    this.filas = filas;
+    this.creadas = (int) filas.stream().filter(FilaImportacionDto::isCreada).count();
+    this.rechazadas = filas.size() - creadas;
+  }
+
+  // Getters
+  public int getCreadas() {
+    return creadas;
+  }
+
+  public int getRechazadas() {
+    return rechazadas;
+  }
+
+  public List<FilaImportacionDto> getFilas() {
+    return filas;
+  }
+}
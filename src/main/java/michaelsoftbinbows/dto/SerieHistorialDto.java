@@ -0,0 +1,45 @@
+package michaelsoftbinbows.dto;
+
+import java.util.List;
+
+/**
+ * Serie de tareas completadas y XP ganada por periodo, para los gráficos del historial. Incluye los
+ * periodos sin actividad (en cero) para que el gráfico no tenga huecos.
+ */
+public class SerieHistorialDto {
+
+  private String granularidad;
+  private List<PuntoSerieDto> puntos;
+  private long totalTareas;
+  private long totalExp;
+
+  /**
+   * Constructor. Los totales se calculan a partir de los puntos.
+   *
+   * @param granularidad Código de la granularidad (day, week o month).
+   * @param puntos Los periodos, del más antiguo al más reciente.
+   */
+  public SerieHistorialDto(String granularidad, List<PuntoSerieDto> puntos) {
+    this.granularidad = granularidad;
+    this.puntos = puntos;
+    this.totalTareas = puntos.stream().mapToLong(PuntoSerieDto::getTareas).sum();
+    this.totalExp = puntos.stream().mapToLong(PuntoSerieDto::getExp).sum();
+  }
+
+  // Getters
+  public String getGranularidad() {
+    return granularidad;
+  }
+
+  public List<PuntoSerieDto> getPuntos() {
+    return puntos;
+  }
+
+  public long getTotalTareas() {
+    return totalTareas;
+  }
+
+  public long getTotalExp() {
+    return totalExp;
+  }
+}
@@ -0,0 +1,22 @@
+package michaelsoftbinbows.dto;
+
+/** DTO mínimo con el ID de una tarea expirada y el de su dueño, usado por el barrido masivo. */
+public class TareaExpiradaDto {
+
+  private Long id;
+  private Long usuarioId;
+
+  public TareaExpiradaDto(Long id, Long usuarioId) {
+    this.id = id;
+    this.usuarioId = usuarioId;
+  }
+
+  // Getters
+  public Long getId() {
+    return id;
+  }
+
+  public Long getUsuarioId() {
+    return usuarioId;
+  }
+}
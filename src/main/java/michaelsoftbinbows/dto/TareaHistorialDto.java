@@ -0,0 +1,47 @@
+package michaelsoftbinbows.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección liviana de una tarea completada, con solo lo que muestra el historial (sin cargar la
+ * entidad Tarea ni su usuario).
+ */
+public class TareaHistorialDto {
+
+  private Long id;
+  private String nombre;
+  private int exp;
+  private LocalDateTime fechaCompletada;
+
+  /**
+   * Constructor usado por la consulta del historial.
+   *
+   * @param id ID de la tarea.
+   * @param nombre Nombre de la tarea.
+   * @param exp Experiencia que dio.
+   * @param fechaCompletada Cuándo se completó.
+   */
+  public TareaHistorialDto(Long id, String nombre, int exp, LocalDateTime fechaCompletada) {
+    this.id = id;
+    this.nombre = nombre;
+    this.exp = exp;
+    this.fechaCompletada = fechaCompletada;
+  }
+
+  // Getters
+  public Long getId() {
+    return id;
+  }
+
+  public String getNombre() {
+    return nombre;
+  }
+
+  public int getExp() {
+    return exp;
+  }
+
+  public LocalDateTime getFechaCompletada() {
+    return fechaCompletada;
+  }
+}
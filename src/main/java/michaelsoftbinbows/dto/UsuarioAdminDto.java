@@ -0,0 +1,75 @@
+package michaelsoftbinbows.dto;
+
+import michaelsoftbinbows.model.Rol;
+
+/**
+ * Fila del listado de usuarios del panel de admin y de GET /api/usuarios. Se arma directo en la
+ * consulta (sin cargar la entidad Usuario), con solo las columnas que muestra la tabla.
+ */
+public class UsuarioAdminDto {
+
+  private Long id;
+  private String nombreUsuario;
+  private String correoElectronico;
+  private Rol rol;
+  private int nivelExperiencia;
+  private String liga;
+  private int puntosLiga;
+
+  /**
+   * Constructor.
+   *
+   * @param id ID del usuario.
+   * @param nombreUsuario Nombre de usuario.
+   * @param correoElectronico Correo del usuario.
+   * @param rol Rol del usuario.
+   * @param nivelExperiencia Nivel actual.
+   * @param liga Liga actual.
+   * @param puntosLiga Puntos de liga de la temporada.
+   */
+  public UsuarioAdminDto(
+      Long id,
+      String nombreUsuario,
+      String correoElectronico,
+      Rol rol,
+      int nivelExperiencia,
+      String liga,
+      int puntosLiga) {
+    this.id = id;
+    this.nombreUsuario = nombreUsuario;
+    this.correoElectronico = correoElectronico;
+    this.rol = rol;
+    this.nivelExperiencia = nivelExperiencia;
+    this.liga = liga;
+    this.puntosLiga = puntosLiga;
+  }
+
+  // Getters
+  public Long getId() {
+    return id;
+  }
+
+  public String getNombreUsuario() {
+    return nombreUsuario;
+  }
+
+  public String getCorreoElectronico() {
+    return correoElectronico;
+  }
+
+  public Rol getRol() {
+    return rol;
+  }
+
+  public int getNivelExperiencia() {
+    return nivelExperiencia;
+  }
+
+  public String getLiga() {
+    return liga;
+  }
+
+  public int getPuntosLiga() {
+    return puntosLiga;
+  }
+}
@@ -0,0 +1,32 @@
+package michaelsoftbinbows.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con la fecha de expiración de una tarea pendiente y su dueño, para la agenda de expiración.
+ */
+public class VencimientoTareaDto {
+
+  private Long id;
+  private Long usuarioId;
+  private LocalDateTime fechaExpiracion;
+
+  public VencimientoTareaDto(Long id, Long usuarioId, LocalDateTime fechaExpiracion) {
+    this.id = id;
+    this.usuarioId = usuarioId;
+    this.fechaExpiracion = fechaExpiracion;
+  }
+
+  // Getters
+  public Long getId() {
+    return id;
+  }
+
+  public Long getUsuarioId() {
+    return usuarioId;
+  }
+
+  public LocalDateTime getFechaExpiracion() {
+    return fechaExpiracion;
+  }
+}
@@ -0,0 +1,78 @@
+package michaelsoftbinbows.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDate;
+
+/**
+ * Entidad con el resumen de actividad de un Usuario en un día: cuántas tareas completó y cuánta
+ * experiencia y puntos de liga ganó. Se suma al completar cada tarea, así los gráficos y vistas
+ * históricas leen una fila por día en vez de recorrer todas las tareas.
+ *
+ * <p>La restricción única (usuario_id, fecha) es la que usa el upsert de {@code
+ * ActividadDiariaRepository}.
+ */
+@Entity
+@Table(
+    name = "actividad_diaria",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_actividad_usuario_fecha",
+            columnNames = {"usuario_id", "fecha"}))
+public class ActividadDiaria {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "usuario_id", nullable = false)
+  private Long usuarioId;
+
+  @Column(nullable = false)
+  private LocalDate fecha;
+
+  @Column(nullable = false, columnDefinition = "INT DEFAULT 0")
+  private int tareasCompletadas;
+
+  @Column(nullable = false, columnDefinition = "INT DEFAULT 0")
+  private int expGanada;
+
+  @Column(nullable = false, columnDefinition = "INT DEFAULT 0")
+  private int puntosLiga;
+
+  /** Constructor vacío requerido por JPA. */
+  public ActividadDiaria() {
+    // Constructor vacío
+  }
+
+  // --- Getters ---
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getUsuarioId() {
+    return usuarioId;
+  }
+
+  public LocalDate getFecha() {
+    return fecha;
+  }
+
+  public int getTareasCompletadas() {
+    return tareasCompletadas;
+  }
+
+  public int getExpGanada() {
+    return expGanada;
+  }
+
+  public int getPuntosLiga() {
+    return puntosLiga;
+  }
+}
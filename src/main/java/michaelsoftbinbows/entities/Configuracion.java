@@ -1,5 +1,6 @@
 package michaelsoftbinbows.entities;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 
@@ -14,6 +15,10 @@ public class Configuracion {
 
   private String valor;
 
+  // Contador de cambios. Solo se incrementa en la fila de versión global de la configuración.
+  @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+  private long version;
+
   // Constructores, Getters y Setters
   /** Constructor vacío requerido por JPA. */
   public Configuracion() {
@@ -46,4 +51,12 @@ public class Configuracion {
   public void setValor(String valor) {
     this.valor = valor;
   }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
 }
@@ -0,0 +1,132 @@
+package michaelsoftbinbows.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import michaelsoftbinbows.model.CategoriaClima;
+
+/**
+ * Entidad que representa una tarea del catálogo de recomendaciones por clima. El home le sugiere al
+ * usuario la primera recomendación activa que coincide con el clima (y la temperatura, si la
+ * recomendación define un rango) de su ciudad.
+ */
+@Entity
+public class RecomendacionClima {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  private String nombre;
+  private String descripcion;
+  private String dificultad;
+
+  @Enumerated(EnumType.STRING)
+  private CategoriaClima categoria;
+
+  // Rango de temperatura (°C) en el que aplica. Null significa sin límite.
+  private Integer temperaturaMinima;
+  private Integer temperaturaMaxima;
+
+  // Entre varias recomendaciones para el mismo clima, se prefiere la de menor prioridad.
+  private int prioridad;
+  private boolean activa = true;
+
+  /** Constructor vacío requerido por JPA. */
+  public RecomendacionClima() {}
+
+  /** Constructor de la clase RecomendacionClima. */
+  public RecomendacionClima(
+      String nombre, String descripcion, String dificultad, CategoriaClima categoria) {
+    this.nombre = nombre;
+    this.descripcion = descripcion;
+    this.dificultad = dificultad;
+    this.categoria = categoria;
+  }
+
+  /**
+   * Indica si la recomendación aplica a una temperatura.
+   *
+   * @param temperatura La temperatura actual, o null si no se conoce.
+   * @return true si está dentro del rango (o si no hay rango o temperatura).
+   */
+  public boolean admiteTemperatura(Double temperatura) {
+    if (temperatura == null) {
+      return true;
+    }
+    return (temperaturaMinima == null || temperatura >= temperaturaMinima)
+        && (temperaturaMaxima == null || temperatura <= temperaturaMaxima);
+  }
+
+  // GETTERS
+  public Long getId() {
+    return id;
+  }
+
+  public String getNombre() {
+    return nombre;
+  }
+
+  public String getDescripcion() {
+    return descripcion;
+  }
+
+  public String getDificultad() {
+    return dificultad;
+  }
+
+  public CategoriaClima getCategoria() {
+    return categoria;
+  }
+
+  public Integer getTemperaturaMinima() {
+    return temperaturaMinima;
+  }
+
+  public Integer getTemperaturaMaxima() {
+    return temperaturaMaxima;
+  }
+
+  public int getPrioridad() {
+    return prioridad;
+  }
+
+  public boolean isActiva() {
+    return activa;
+  }
+
+  // SETTERS
+  public void setNombre(String nombre) {
+    this.nombre = nombre;
+  }
+
+  public void setDescripcion(String descripcion) {
+    this.descripcion = descripcion;
+  }
+
+  public void setDificultad(String dificultad) {
+    this.dificultad = dificultad;
+  }
+
+  public void setCategoria(CategoriaClima categoria) {
+    this.categoria = categoria;
+  }
+
+  public void setTemperaturaMinima(Integer temperaturaMinima) {
+    this.temperaturaMinima = temperaturaMinima;
+  }
+
+  public void setTemperaturaMaxima(Integer temperaturaMaxima) {
+    this.temperaturaMaxima = temperaturaMaxima;
+  }
+
+  public void setPrioridad(int prioridad) {
+    this.prioridad = prioridad;
+  }
+
+  public void setActiva(boolean activa) {
+    this.activa = activa;
+  }
+}
@@ -7,9 +7,13 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import michaelsoftbinbows.exceptions.TareaInvalidaException;
 import michaelsoftbinbows.util.Dificultad;
@@ -17,11 +21,27 @@ import michaelsoftbinbows.util.Dificultad;
 /**
  * Entidad que representa una Tarea. Contiene la lógica de negocio y las validaciones para una
  * tarea.
+ *
+ * <p>Los índices compuestos de abajo los crea Hibernate (ddl-auto=update). Los índices parciales
+ * (solo tareas pendientes) no se pueden declarar con JPA y los crea {@code IndicesTareaDataLoader}
+ * al iniciar.
  */
 @Entity
+@Table(
+    indexes = {
+      // Historial y tareas completadas de un usuario, de la más reciente a la más antigua
+      @Index(
+          name = "idx_tarea_usuario_completada",
+          columnList = "usuario_id, fecha_completada DESC"),
+      // Tarea semanal del usuario
+      @Index(name = "idx_tarea_usuario_semanal", columnList = "usuario_id, es_semanal")
+    })
 public class Tarea {
+  // Secuencia en vez de IDENTITY para que Hibernate pueda agrupar los INSERT en lotes (JDBC
+  // batching): reserva 50 IDs por consulta a la secuencia
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tarea_seq")
+  @SequenceGenerator(name = "tarea_seq", sequenceName = "tarea_seq", allocationSize = 50)
   private Long id;
 
   // ARREGLO: Variables separadas en dos líneas
@@ -185,6 +205,34 @@ public class Tarea {
     return fechaCompletada != null;
   }
 
+  /**
+   * Indica si la tarea se completó entre las 6:00 y las 8:00 AM (logro MORNING_TASK).
+   *
+   * @return true si se completó en ese horario, false si no o si está pendiente.
+   */
+  public boolean isCompletadaEnLaManana() {
+    if (fechaCompletada == null) {
+      return false;
+    }
+    // "Entre 6:00 y 8:00" = Hora 6 y Hora 7
+    int hora = fechaCompletada.getHour();
+    return hora >= 6 && hora < 8;
+  }
+
+  /**
+   * Indica si la tarea se completó 5 minutos o menos antes de expirar (logro CLOSE_CALL).
+   *
+   * @return true si se completó al límite, false si no o si está pendiente.
+   */
+  public boolean isCompletadaAlLimite() {
+    // Necesitamos ambas fechas para comparar
+    if (fechaCompletada == null || fechaExpiracion == null) {
+      return false;
+    }
+    long minutosRestantes = ChronoUnit.MINUTES.between(fechaCompletada, fechaExpiracion);
+    return minutosRestantes >= 0 && minutosRestantes <= 5;
+  }
+
   @Override
   public String toString() {
     return "La tarea '"
@@ -0,0 +1,57 @@
+package michaelsoftbinbows.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que guarda una respuesta de la API de Geocoding, para no volver a consultarla. La clave
+ * es el nombre de ciudad normalizado ("ciudad:santiago,cl") o la celda de una grilla de coordenadas
+ * redondeadas ("coord:-33.45,-70.67").
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_ubicacion_obtenida_en", columnList = "obtenida_en"))
+public class UbicacionCacheada {
+
+  @Id
+  @Column(length = 200)
+  private String clave;
+
+  @Column(nullable = false, columnDefinition = "TEXT")
+  private String respuesta;
+
+  private LocalDateTime obtenidaEn;
+
+  /** Constructor vacío requerido por JPA. */
+  public UbicacionCacheada() {
+    // Constructor vacío
+  }
+
+  /**
+   * Constructor para guardar una nueva respuesta.
+   *
+   * @param clave La clave normalizada de la consulta.
+   * @param respuesta El JSON devuelto por la API.
+   * @param obtenidaEn Cuándo se obtuvo la respuesta.
+   */
+  public UbicacionCacheada(String clave, String respuesta, LocalDateTime obtenidaEn) {
+    this.clave = clave;
+    this.respuesta = respuesta;
+    this.obtenidaEn = obtenidaEn;
+  }
+
+  public String getClave() {
+    return clave;
+  }
+
+  public String getRespuesta() {
+    return respuesta;
+  }
+
+  public LocalDateTime getObtenidaEn() {
+    return obtenidaEn;
+  }
+}
@@ -8,7 +8,12 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -24,8 +29,31 @@ import michaelsoftbinbows.util.SistemaNiveles;
 /**
  * Entidad que representa a un Usuario en el sistema. Almacena información de perfil, estado de
  * juego (EXP, nivel) y sus tareas.
+ *
+ * <p>Las dos colecciones son LAZY. Cada caso de uso pide lo que necesita con uno de los planes de
+ * carga (entity graphs) de abajo, usados desde {@code UsuarioRepository}:
+ *
+ * <ul>
+ *   <li>{@code Usuario.conTareas}: el usuario con sus tareas (home, historial).
+ *   <li>{@code Usuario.perfil}: el usuario con sus logros desbloqueados (perfil público).
+ * </ul>
+ *
+ * <p>Lo que se cargue fuera de esos planes se trae por lotes (hibernate.default_batch_fetch_size).
+ *
+ * <p>Los índices de abajo sirven para ordenar y paginar el listado de usuarios del panel de admin
+ * (nombre y correo ya tienen el índice de su restricción unique).
  */
 @Entity
+@Table(
+    indexes = {
+      @Index(name = "idx_usuario_nivel", columnList = "nivel_experiencia DESC, id"),
+      @Index(name = "idx_usuario_puntos_liga", columnList = "puntos_liga DESC, id")
+    })
+@NamedEntityGraph(name = "Usuario.conTareas", attributeNodes = @NamedAttributeNode("tareas"))
+@NamedEntityGraph(
+    name = "Usuario.perfil",
+    attributeNodes = @NamedAttributeNode(value = "usuarioLogros", subgraph = "logros"),
+    subgraphs = @NamedSubgraph(name = "logros", attributeNodes = @NamedAttributeNode("logro")))
 public class Usuario {
 
   @NonNull
@@ -75,11 +103,14 @@ public class Usuario {
       mappedBy = "usuario",
       cascade = CascadeType.ALL,
       orphanRemoval = true,
-      fetch = FetchType.EAGER)
+      fetch = FetchType.LAZY)
   private List<UsuarioLogro> usuarioLogros = new ArrayList<>();
 
   private String ciudad;
 
+  // Última vez que el usuario entró a la aplicación (se usa para precargar el clima de su ciudad).
+  private LocalDateTime ultimaActividad;
+
   /** Constructor vacío requerido por JPA. */
   public Usuario() {
     // Constructor vacío
@@ -217,6 +248,14 @@ public class Usuario {
     this.ciudad = ciudad;
   }
 
+  public LocalDateTime getUltimaActividad() {
+    return ultimaActividad;
+  }
+
+  public void setUltimaActividad(LocalDateTime ultimaActividad) {
+    this.ultimaActividad = ultimaActividad;
+  }
+
   public void setPuntosMesPasado(int puntosMesPasado) {
     this.puntosMesPasado = puntosMesPasado;
   }
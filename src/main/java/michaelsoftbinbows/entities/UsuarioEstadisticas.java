@@ -0,0 +1,113 @@
+package michaelsoftbinbows.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que guarda contadores agregados de las tareas de un Usuario. Se mantiene al crear,
+ * completar y eliminar tareas, para no tener que recorrer toda la lista de tareas cada vez que se
+ * necesita un número. Esos cambios se aplican con UPDATE atómicos de UsuarioEstadisticasRepository;
+ * los métodos de aquí solo se usan para reconstruir las estadísticas desde las tareas.
+ */
+@Entity
+public class UsuarioEstadisticas {
+
+  @Id private Long usuarioId;
+
+  @Column(nullable = false, columnDefinition = "INT DEFAULT 0")
+  private int tareasCompletadas;
+
+  @Column(nullable = false, columnDefinition = "INT DEFAULT 0")
+  private int experienciaTotal;
+
+  @Column(nullable = false, columnDefinition = "INT DEFAULT 0")
+  private int tareasPendientes;
+
+  private LocalDateTime primeraCompletada;
+  private LocalDateTime ultimaCompletada;
+
+  @Column(nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+  private boolean tareaMatutina;
+
+  @Column(nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+  private boolean tareaAlLimite;
+
+  /** Constructor vacío requerido por JPA. */
+  public UsuarioEstadisticas() {
+    // Constructor vacío
+  }
+
+  /**
+   * Constructor para crear las estadísticas vacías de un usuario.
+   *
+   * @param usuarioId El ID del usuario dueño de las estadísticas.
+   */
+  public UsuarioEstadisticas(Long usuarioId) {
+    this.usuarioId = usuarioId;
+  }
+
+  /**
+   * Suma una tarea a los contadores. Si la tarea está completada actualiza también la experiencia,
+   * las fechas y los indicadores de logros especiales; si no, cuenta como pendiente.
+   *
+   * @param tarea La tarea a contabilizar.
+   */
+  public void sumarTarea(Tarea tarea) {
+    if (!tarea.isCompletada()) {
+      sumarPendiente();
+      return;
+    }
+    tareasCompletadas++;
+    experienciaTotal += tarea.getExp();
+    LocalDateTime fecha = tarea.getFechaCompletada();
+    if (primeraCompletada == null || fecha.isBefore(primeraCompletada)) {
+      primeraCompletada = fecha;
+    }
+    if (ultimaCompletada == null || fecha.isAfter(ultimaCompletada)) {
+      ultimaCompletada = fecha;
+    }
+    tareaMatutina = tareaMatutina || tarea.isCompletadaEnLaManana();
+    tareaAlLimite = tareaAlLimite || tarea.isCompletadaAlLimite();
+  }
+
+  /** Suma una nueva tarea pendiente. */
+  public void sumarPendiente() {
+    tareasPendientes++;
+  }
+
+  // --- Getters ---
+
+  public Long getUsuarioId() {
+    return usuarioId;
+  }
+
+  public int getTareasCompletadas() {
+    return tareasCompletadas;
+  }
+
+  public int getExperienciaTotal() {
+    return experienciaTotal;
+  }
+
+  public int getTareasPendientes() {
+    return tareasPendientes;
+  }
+
+  public LocalDateTime getPrimeraCompletada() {
+    return primeraCompletada;
+  }
+
+  public LocalDateTime getUltimaCompletada() {
+    return ultimaCompletada;
+  }
+
+  public boolean isTareaMatutina() {
+    return tareaMatutina;
+  }
+
+  public boolean isTareaAlLimite() {
+    return tareaAlLimite;
+  }
+}
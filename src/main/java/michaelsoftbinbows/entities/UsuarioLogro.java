@@ -21,7 +21,7 @@ public class UsuarioLogro {
   @JoinColumn(name = "usuario_id")
   private Usuario usuario;
 
-  @ManyToOne(fetch = FetchType.EAGER)
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "logro_id")
   private Logro logro;
 
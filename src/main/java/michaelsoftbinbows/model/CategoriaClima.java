@@ -0,0 +1,56 @@
+package michaelsoftbinbows.model;
+
+import java.util.Optional;
+
+/** Enum para las categorías de clima usadas al recomendar tareas. */
+public enum CategoriaClima {
+  SOLEADO("Soleado"),
+  NUBLADO("Nublado"),
+  LLUVIA("Lluvia"),
+  NIEVE("Nieve");
+
+  private final String etiqueta;
+
+  CategoriaClima(String etiqueta) {
+    this.etiqueta = etiqueta;
+  }
+
+  /** Nombre que se muestra al usuario (ej. "Soleado"). */
+  public String getEtiqueta() {
+    return etiqueta;
+  }
+
+  /**
+   * Traduce el grupo de clima de OpenWeatherMap a una categoría. Los grupos que no tienen una
+   * categoría propia (niebla, polvo, etc.) se tratan como soleado.
+   *
+   * @param principal El grupo entregado por la API (ej. "Clear", "Clouds", "Rain").
+   * @return La categoría correspondiente.
+   */
+  public static CategoriaClima desdeClimaApi(String principal) {
+    if (principal == null) {
+      return SOLEADO;
+    }
+    return switch (principal) {
+      case "Clouds" -> NUBLADO;
+      case "Rain", "Drizzle", "Thunderstorm" -> LLUVIA;
+      case "Snow" -> NIEVE;
+      default -> SOLEADO;
+    };
+  }
+
+  /**
+   * Busca la categoría por su etiqueta, sin distinguir mayúsculas.
+   *
+   * @param etiqueta La etiqueta (ej. "Lluvia").
+   * @return La categoría, o vacío si no existe.
+   */
+  public static Optional<CategoriaClima> desdeEtiqueta(String etiqueta) {
+    for (CategoriaClima categoria : values()) {
+      if (categoria.etiqueta.equalsIgnoreCase(etiqueta)) {
+        return Optional.of(categoria);
+      }
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,70 @@
+package michaelsoftbinbows.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Optional;
+
+/**
+ * Enum para el tamaño de los periodos en que se agrupan las series del historial. El código es el
+ * que recibe el endpoint y también la unidad que se pasa a date_trunc de PostgreSQL.
+ */
+public enum GranularidadSerie {
+  DIA("day", ChronoUnit.DAYS),
+  SEMANA("week", ChronoUnit.WEEKS),
+  MES("month", ChronoUnit.MONTHS);
+
+  private final String codigo;
+  private final ChronoUnit unidad;
+
+  GranularidadSerie(String codigo, ChronoUnit unidad) {
+    this.codigo = codigo;
+    this.unidad = unidad;
+  }
+
+  /** Código usado en la URL y en date_trunc (ej. "day"). */
+  public String getCodigo() {
+    return codigo;
+  }
+
+  /**
+   * Devuelve el primer día del periodo que contiene la fecha, igual que date_trunc (las semanas
+   * empiezan el lunes).
+   *
+   * @param fecha Una fecha cualquiera.
+   * @return El inicio de su periodo.
+   */
+  public LocalDate inicioDePeriodo(LocalDate fecha) {
+    return switch (this) {
+      case DIA -> fecha;
+      case SEMANA -> fecha.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+      case MES -> fecha.withDayOfMonth(1);
+    };
+  }
+
+  /**
+   * Devuelve el inicio del periodo siguiente.
+   *
+   * @param inicio El inicio de un periodo.
+   * @return El inicio del periodo que le sigue.
+   */
+  public LocalDate siguiente(LocalDate inicio) {
+    return inicio.plus(1, unidad);
+  }
+
+  /**
+   * Busca la granularidad por su código, sin distinguir mayúsculas.
+   *
+   * @param codigo El código (ej. "week").
+   * @return La granularidad, o vacío si no existe.
+   */
+  public static Optional<GranularidadSerie> desdeCodigo(String codigo) {
+    for (GranularidadSerie granularidad : values()) {
+      if (granularidad.codigo.equalsIgnoreCase(codigo)) {
+        return Optional.of(granularidad);
+      }
+    }
+    return Optional.empty();
+  }
+}
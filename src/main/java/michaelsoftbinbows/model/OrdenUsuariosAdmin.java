@@ -0,0 +1,85 @@
+package michaelsoftbinbows.model;
+
+import java.util.Optional;
+import michaelsoftbinbows.dto.UsuarioAdminDto;
+
+/**
+ * Enum para las columnas por las que se puede ordenar el listado de usuarios del panel de admin. El
+ * código es el que recibe la URL; la columna es la propiedad JPQL con la que se ordena y se arma el
+ * cursor de la paginación. Los empates se desempatan siempre por ID ascendente.
+ */
+public enum OrdenUsuariosAdmin {
+  NOMBRE("nombre", "u.nombreUsuario", true),
+  CORREO("correo", "u.correoElectronico", true),
+  NIVEL("nivel", "u.nivelExperiencia", false),
+  PUNTOS("puntos", "u.puntosLiga", false);
+
+  private final String codigo;
+  private final String columna;
+  private final boolean ascendente;
+
+  OrdenUsuariosAdmin(String codigo, String columna, boolean ascendente) {
+    this.codigo = codigo;
+    this.columna = columna;
+    this.ascendente = ascendente;
+  }
+
+  /** Código usado en la URL (ej. "puntos"). */
+  public String getCodigo() {
+    return codigo;
+  }
+
+  /** Propiedad JPQL por la que se ordena (ej. "u.puntosLiga"). */
+  public String getColumna() {
+    return columna;
+  }
+
+  /** Si el orden es ascendente (texto) o descendente (números, de mayor a menor). */
+  public boolean isAscendente() {
+    return ascendente;
+  }
+
+  /**
+   * Devuelve el valor de la columna de orden de un usuario, para usarlo como cursor.
+   *
+   * @param usuario Un usuario del listado.
+   * @return El valor como texto.
+   */
+  public String valorCursor(UsuarioAdminDto usuario) {
+    return switch (this) {
+      case NOMBRE -> usuario.getNombreUsuario();
+      case CORREO -> usuario.getCorreoElectronico();
+      case NIVEL -> String.valueOf(usuario.getNivelExperiencia());
+      case PUNTOS -> String.valueOf(usuario.getPuntosLiga());
+    };
+  }
+
+  /**
+   * Convierte el valor de un cursor al tipo de la columna.
+   *
+   * @param valor El valor recibido en la URL.
+   * @return El valor listo para usar como parámetro de la consulta.
+   * @throws IllegalArgumentException Si la columna es numérica y el valor no es un número.
+   */
+  public Object leerCursor(String valor) {
+    return switch (this) {
+      case NOMBRE, CORREO -> valor;
+      case NIVEL, PUNTOS -> Integer.valueOf(valor);
+    };
+  }
+
+  /**
+   * Busca el orden por su código, sin distinguir mayúsculas.
+   *
+   * @param codigo El código (ej. "nivel").
+   * @return El orden, o vacío si no existe.
+   */
+  public static Optional<OrdenUsuariosAdmin> desdeCodigo(String codigo) {
+    for (OrdenUsuariosAdmin orden : values()) {
+      if (orden.codigo.equalsIgnoreCase(codigo)) {
+        return Optional.of(orden);
+      }
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,13 @@
+package michaelsoftbinbows.model;
+
+/**
+ * Enum para los eventos que pueden desbloquear logros. Cada logro se suscribe a un solo tipo de
+ * evento, y solo se evalúa cuando ese evento ocurre.
+ */
+public enum TipoEventoLogro {
+  INICIO_SESION,
+  TAREA_COMPLETADA,
+  NIVEL_SUBIDO,
+  RACHA_CAMBIADA,
+  LIGA_CAMBIADA
+}
@@ -0,0 +1,84 @@
+package michaelsoftbinbows.services;
+
+import jakarta.transaction.Transactional;
+import java.time.LocalDate;
+import michaelsoftbinbows.data.ActividadDiariaRepository;
+import michaelsoftbinbows.data.ConfiguracionRepository;
+import michaelsoftbinbows.entities.Configuracion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio que mantiene el resumen de actividad diaria de cada usuario (tabla actividad_diaria). Se
+ * suma en la misma transacción en que se completa una tarea, se descuenta al eliminar una tarea
+ * completada, y la primera vez que se inicia se recalcula entera desde las tareas.
+ */
+@Service
+public class ActividadDiariaService {
+
+  // Marca en la configuración de que el relleno inicial ya se hizo
+  static final String CLAVE_RELLENO_HECHO = "actividad_diaria_rellenada";
+
+  @Autowired private ActividadDiariaRepository actividadDiariaRepository;
+  @Autowired private ConfiguracionRepository configuracionRepository;
+
+  /**
+   * Registra una tarea completada en el día indicado.
+   *
+   * @param usuarioId ID del usuario.
+   * @param fecha Día en que se completó.
+   * @param exp Experiencia que dio la tarea.
+   * @param puntosLiga Puntos de liga que dio la tarea.
+   */
+  @Transactional
+  public void registrarTareaCompletada(Long usuarioId, LocalDate fecha, int exp, int puntosLiga) {
+    actividadDiariaRepository.sumarActividad(usuarioId, fecha, 1, exp, puntosLiga);
+  }
+
+  /**
+   * Descuenta del día en que se completó una tarea que se está eliminando lo que esa tarea había
+   * sumado, para que los gráficos no sigan contándola.
+   *
+   * @param usuarioId ID del usuario.
+   * @param fecha Día en que se había completado.
+   * @param exp Experiencia que había dado la tarea.
+   * @param puntosLiga Puntos de liga que había dado la tarea.
+   */
+  @Transactional
+  public void registrarTareaEliminada(Long usuarioId, LocalDate fecha, int exp, int puntosLiga) {
+    actividadDiariaRepository.sumarActividad(usuarioId, fecha, -1, -exp, -puntosLiga);
+  }
+
+  /**
+   * Recalcula una sola vez, a partir de las tareas completadas, la actividad diaria de todos los
+   * usuarios. Se bloquea la tabla mientras tanto, así una tarea completada al mismo tiempo espera y
+   * se suma después sobre el valor ya recalculado en vez de perderse. Al terminar se guarda una
+   * marca en la configuración para no repetirlo en los siguientes arranques.
+   *
+   * @return El número de días recalculados, o 0 si ya se había hecho.
+   */
+  @Transactional
+  public int rellenarFaltantes() {
+    if (configuracionRepository.existsById(CLAVE_RELLENO_HECHO)) {
+      return 0;
+    }
+    actividadDiariaRepository.bloquearTabla();
+    // Otra instancia pudo terminar el relleno mientras esperábamos el bloqueo
+    if (configuracionRepository.existsById(CLAVE_RELLENO_HECHO)) {
+      return 0;
+    }
+    int dias = actividadDiariaRepository.recalcularDesdeTareas();
+    configuracionRepository.save(new Configuracion(CLAVE_RELLENO_HECHO, "true"));
+    return dias;
+  }
+
+  /**
+   * Elimina la actividad de un usuario (al borrar su cuenta).
+   *
+   * @param usuarioId ID del usuario.
+   */
+  @Transactional
+  public void eliminar(Long usuarioId) {
+    actividadDiariaRepository.eliminarPorUsuario(usuarioId);
+  }
+}
@@ -1,6 +1,5 @@
 package michaelsoftbinbows.services;
 
-import jakarta.transaction.Transactional;
 import michaelsoftbinbows.data.UsuarioRepository;
 import michaelsoftbinbows.entities.Usuario;
 import michaelsoftbinbows.security.CustomUserDetails;
@@ -14,34 +13,16 @@ import org.springframework.stereotype.Service;
 @Service
 public class AuthService {
   @Autowired UsuarioRepository usuarioRepository;
+  @Autowired ContextoUsuario contextoUsuario;
 
   /**
-   * Obtiene el usuario actualmente autenticado en el contexto de seguridad con todas sus
-   * colecciones cargadas (Transactional).
+   * Obtiene el usuario actualmente autenticado, con sus tareas cargadas. Dentro de una misma
+   * petición se devuelve siempre la misma instancia, cargada una sola vez (ver ContextoUsuario).
    *
    * @return Objeto Usuario del usuario autenticado con tareas inicializadas.
    */
-  @Transactional
   public Usuario getCurrentUser() {
-    // Obtenemos los detalles desde el contexto de seguridad
-    CustomUserDetails userDetails =
-        (CustomUserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
-    // Recuperamos la entidad Usuario gestionada por JPA desde el repositorio. Esto asegura
-    // que las colecciones LAZY puedan inicializarse dentro del contexto transaccional.
-    Long usuarioId = userDetails.getUsuario().getId();
-    Usuario usuario = usuarioRepository.findById(usuarioId).orElse(null);
-    if (usuario != null) {
-      // Inicializar colecciones necesarias para las vistas
-      var unused = usuario.getTareas().size();
-      // Si la aplicación usa tareas completadas separadas, inicializarlas también
-      try {
-        unused = usuario.getTareasCompletadas().size();
-      } catch (Exception e) {
-        // Ignorar si no existe ese método o la lista está vacía; solo buscamos inicializar
-      }
-    }
-    return usuario;
+    return contextoUsuario.getUsuario();
   }
 
   /**
@@ -77,9 +58,12 @@ public class AuthService {
         new UsernamePasswordAuthenticationToken(
             userDetails, getAuthentication().getCredentials(), userDetails.getAuthorities());
     SecurityContextHolder.getContext().setAuthentication(authToken);
+    // El usuario ya cargado en esta petición puede ser anterior al cambio
+    contextoUsuario.invalidar();
   }
 
   public void vaciarSesion() {
     SecurityContextHolder.clearContext();
+    contextoUsuario.invalidar();
   }
 }
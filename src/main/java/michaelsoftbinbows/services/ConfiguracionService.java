@@ -1,13 +1,22 @@
 package michaelsoftbinbows.services;
 
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import michaelsoftbinbows.data.ConfiguracionRepository;
 import michaelsoftbinbows.entities.Configuracion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * Servicio para gestionar la configuración global de la aplicación. Maneja parámetros como el
  * límite de la liga.
+ *
+ * <p>Los valores se leen de una copia inmutable en memoria (snapshot) para no consultar la BD en
+ * cada lectura. La copia se recarga al guardar un valor desde este servicio. Para enterarse de
+ * cambios hechos por otras instancias, cada cierto tiempo se compara el contador de versión
+ * guardado en la BD (una sola consulta por clave primaria) con el de la copia.
  */
 @Service
 public class ConfiguracionService {
@@ -16,19 +25,77 @@ public class ConfiguracionService {
 
   private final String limiteTopKey = "top_limite";
 
+  // Fila cuyo contador se incrementa cada vez que cambia la configuración.
+  private static final String VERSION_KEY = "config_version";
+
+  // Segundos entre cada comprobación de la versión en la BD.
+  @Value("${configuracion.cache.verificacion-segundos:5}")
+  private long segundosEntreVerificaciones;
+
+  private volatile Snapshot snapshot;
+  private volatile Instant proximaVerificacion = Instant.MIN;
+
+  /**
+   * Copia inmutable de todos los valores de configuración, junto con la versión de la BD de la que
+   * se leyeron.
+   *
+   * @param version La versión de la configuración al momento de leerla.
+   * @param valores Los valores por clave.
+   */
+  public record Snapshot(long version, Map<String, String> valores) {
+
+    /**
+     * Devuelve un valor numérico, o el valor por defecto si no existe o no es un número.
+     *
+     * @param clave La clave del ajuste.
+     * @param defaultValue El valor a usar si no hay uno válido guardado.
+     * @return El valor guardado o el valor por defecto.
+     */
+    public int getEntero(String clave, int defaultValue) {
+      String valor = valores.get(clave);
+      if (valor == null) {
+        return defaultValue;
+      }
+      try {
+        return Integer.parseInt(valor);
+      } catch (NumberFormatException e) {
+        // Si alguien guarda "abc" en la BD, devolvemos el valor por defecto
+        return defaultValue;
+      }
+    }
+  }
+
+  /**
+   * Devuelve la configuración actual. Solo consulta la BD si no hay copia en memoria o si la
+   * versión guardada cambió desde la última lectura.
+   *
+   * @return La copia vigente de la configuración.
+   */
+  public Snapshot getSnapshot() {
+    Snapshot actual = snapshot;
+    if (actual == null) {
+      return recargar();
+    }
+    Instant ahora = Instant.now();
+    if (ahora.isAfter(proximaVerificacion)) {
+      proximaVerificacion = ahora.plusSeconds(segundosEntreVerificaciones);
+      long versionBd = configuracionRepository.findVersionByClave(VERSION_KEY).orElse(0L);
+      if (versionBd != actual.version()) {
+        System.out.println("LOG: La configuración cambió en la BD, recargando.");
+        return recargar();
+      }
+    }
+    return actual;
+  }
+
   /** Obtiene el límite guardado en la BD. Si no existe, devuelve 10 por defecto. */
   public int getLimiteTop() {
-    Configuracion config =
-        configuracionRepository
-            .findById(limiteTopKey)
-            .orElse(new Configuracion(limiteTopKey, "10"));
-    return Integer.parseInt(config.getValor());
+    return getSnapshot().getEntero(limiteTopKey, 10);
   }
 
   /** Guarda el nuevo límite en la BD. */
   public void setLimiteTop(int limite) {
-    Configuracion config = new Configuracion(limiteTopKey, String.valueOf(limite));
-    configuracionRepository.save(config);
+    guardar(limiteTopKey, String.valueOf(limite));
   }
 
   /**
@@ -36,23 +103,47 @@ public class ConfiguracionService {
    * defecto que le pasemos.
    */
   public int getLimiteLiga(String clave, int defaultValue) {
-    Configuracion config =
-        configuracionRepository
-            .findById(clave)
-            .orElse(new Configuracion(clave, String.valueOf(defaultValue)));
-
-    try {
-      // Intenta convertir el valor guardado a número
-      return Integer.parseInt(config.getValor());
-    } catch (NumberFormatException e) {
-      // Si alguien guarda "abc" en la BD, devolvemos el valor por defecto
-      return defaultValue;
-    }
+    return getSnapshot().getEntero(clave, defaultValue);
   }
 
   /** Guarda un nuevo límite de liga (ej. "LIGA_PLATA" = 500) en la BD. */
   public void setLimiteLiga(String clave, int limite) {
-    Configuracion config = new Configuracion(clave, String.valueOf(limite));
+    guardar(clave, String.valueOf(limite));
+  }
+
+  /**
+   * Guarda el valor, incrementa la versión global para avisar a las demás instancias y recarga la
+   * copia local. La versión se incrementa después de guardar el valor, así nadie ve la versión
+   * nueva con el valor antiguo.
+   */
+  private void guardar(String clave, String valor) {
+    Configuracion config =
+        configuracionRepository.findById(clave).orElse(new Configuracion(clave, valor));
+    config.setValor(valor);
     configuracionRepository.save(config);
+
+    if (configuracionRepository.incrementarVersion(VERSION_KEY) == 0) {
+      Configuracion version = new Configuracion(VERSION_KEY, null);
+      version.setVersion(1);
+      configuracionRepository.save(version);
+    }
+    recargar();
+  }
+
+  /** Lee toda la configuración de la BD y la deja como copia vigente. */
+  private synchronized Snapshot recargar() {
+    // La versión se lee antes que los valores: si algo cambia entre medio, la próxima
+    // comprobación verá una versión distinta y volverá a recargar.
+    long version = configuracionRepository.findVersionByClave(VERSION_KEY).orElse(0L);
+    Map<String, String> valores = new HashMap<>();
+    for (Configuracion config : configuracionRepository.findAll()) {
+      if (config.getValor() != null) {
+        valores.put(config.getClave(), config.getValor());
+      }
+    }
+    Snapshot nuevo = new Snapshot(version, Map.copyOf(valores));
+    snapshot = nuevo;
+    proximaVerificacion = Instant.now().plusSeconds(segundosEntreVerificaciones);
+    return nuevo;
   }
 }
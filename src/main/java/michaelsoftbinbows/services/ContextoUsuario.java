@@ -0,0 +1,67 @@
+package michaelsoftbinbows.services;
+
+import michaelsoftbinbows.data.UsuarioRepository;
+import michaelsoftbinbows.entities.Usuario;
+import michaelsoftbinbows.security.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * Usuario logueado de la petición HTTP actual. Se carga una sola vez por petición, con sus tareas
+ * en la misma consulta, y todos los controladores y servicios que lo pidan durante la petición
+ * reciben la misma instancia.
+ *
+ * <p>Como la sesión de JPA queda abierta durante toda la petición (open-in-view), la instancia
+ * sigue siendo gestionada: los cambios que otros servicios hagan sobre ella se guardan igual que
+ * antes. Solo se puede usar dentro de una petición web.
+ */
+@Component
+@RequestScope
+public class ContextoUsuario {
+
+  @Autowired private UsuarioRepository usuarioRepository;
+
+  private Usuario usuario;
+  private boolean cargado = false;
+
+  /**
+   * Devuelve el ID del usuario logueado, tomado de la sesión sin consultar la BD.
+   *
+   * @return El ID, o null si no hay un usuario autenticado.
+   */
+  public Long getUsuarioId() {
+    Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+    if (autenticacion == null
+        || !(autenticacion.getPrincipal() instanceof CustomUserDetails detalles)) {
+      return null;
+    }
+    return detalles.getUsuario().getId();
+  }
+
+  /**
+   * Devuelve el usuario logueado con sus tareas cargadas. Solo la primera llamada de la petición
+   * consulta la BD.
+   *
+   * @return El usuario, o null si no hay sesión o ya no existe.
+   */
+  public Usuario getUsuario() {
+    if (!cargado) {
+      Long id = getUsuarioId();
+      usuario = id == null ? null : usuarioRepository.findConTareasById(id).orElse(null);
+      cargado = true;
+    }
+    return usuario;
+  }
+
+  /**
+   * Descarta el usuario cargado; la próxima llamada a getUsuario lo vuelve a leer. Se llama cuando
+   * cambia la sesión a mitad de la petición (registro, edición de perfil o cierre de sesión).
+   */
+  public void invalidar() {
+    usuario = null;
+    cargado = false;
+  }
+}
@@ -0,0 +1,326 @@
+package michaelsoftbinbows.services;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import michaelsoftbinbows.data.TareaRepository;
+import michaelsoftbinbows.dto.TareaExpiradaDto;
+import michaelsoftbinbows.dto.VencimientoTareaDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Servicio que elimina las tareas pendientes que ya expiraron.
+ *
+ * <p>El grueso del trabajo lo hace un barrido periódico en segundo plano, que borra las tareas
+ * expiradas de todos los usuarios con sentencias DELETE masivas, por lotes y cada lote en su propia
+ * transacción. Para que un usuario no vea tareas expiradas entre dos barridos, el home hace además
+ * una comprobación por usuario, pero solo cuando ya pasó la expiración más próxima de sus tareas
+ * pendientes. Esa fecha se guarda en memoria por usuario, así que en la mayoría de las visitas la
+ * comprobación no toca la BD.
+ *
+ * <p>Además, cada tarea pendiente tiene su vencimiento en una agenda en memoria ({@link
+ * DelayQueue}), que se llena al iniciar la aplicación y se actualiza al crear, editar, completar o
+ * eliminar tareas. Un hilo dedicado espera al siguiente vencimiento y, justo a la hora, elimina la
+ * tarea; un rato antes la marca como "por expirar" para avisar al usuario. Así las tareas expiran a
+ * la hora exacta sin recorrer la tabla, y el barrido queda como respaldo (por ejemplo, para tareas
+ * creadas por otra instancia).
+ */
+@Service
+public class ExpiracionTareasService {
+
+  // Valor guardado para usuarios sin tareas pendientes que expiren.
+  private static final LocalDateTime SIN_EXPIRACION = LocalDateTime.MAX;
+
+  /** Tipo de evento de la agenda. */
+  private enum TipoVencimiento {
+    AVISO,
+    EXPIRACION
+  }
+
+  /** Evento de la agenda: avisar o expirar una tarea a cierta hora. */
+  private record Vencimiento(
+      Long tareaId, Long usuarioId, LocalDateTime fechaExpiracion, TipoVencimiento tipo, long enMs)
+      implements Delayed {
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(enMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed otro) {
+      return Long.compare(enMs, ((Vencimiento) otro).enMs);
+    }
+  }
+
+  @Autowired private TareaRepository tareaRepository;
+  @Autowired private UsuarioEstadisticasService usuarioEstadisticasService;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  // Tareas que se eliminan por cada transacción del barrido.
+  @Value("${tareas.expiracion.tamano-lote:500}")
+  private int tamanoLote;
+
+  // Expiración más próxima de las tareas pendientes de cada usuario. Puede quedar antes de la
+  // real (por ejemplo, si la tarea se completó), pero nunca después: en el peor caso provoca una
+  // comprobación de más, nunca una de menos.
+  private final Map<Long, LocalDateTime> proximaExpiracion = new ConcurrentHashMap<>();
+
+  // Minutos antes de la expiración en que una tarea pasa a estar "por expirar".
+  @Value("${tareas.expiracion.aviso-minutos:60}")
+  private long minutosAviso;
+
+  private final DelayQueue<Vencimiento> agenda = new DelayQueue<>();
+  // Fecha de expiración vigente de cada tarea agendada. Los eventos cuya fecha ya no coincide
+  // (porque la tarea se editó, completó o eliminó) se descartan al salir de la agenda.
+  private final Map<Long, LocalDateTime> vencimientosVigentes = new ConcurrentHashMap<>();
+  // Tareas por expirar de cada usuario.
+  private final Map<Long, Set<Long>> porExpirar = new ConcurrentHashMap<>();
+  private final AtomicBoolean agendaIniciada = new AtomicBoolean(false);
+
+  /** Barre y elimina todas las tareas pendientes expiradas, por lotes. */
+  @Scheduled(
+      fixedDelayString = "${tareas.expiracion.intervalo-ms:60000}",
+      initialDelayString = "${tareas.expiracion.retraso-inicial-ms:30000}")
+  public void barrerTareasExpiradas() {
+    LocalDateTime ahora = LocalDateTime.now(ZoneId.systemDefault());
+    int total = 0;
+    int eliminadas;
+    do {
+      eliminadas = transactionTemplate.execute(estado -> eliminarLote(ahora));
+      total += eliminadas;
+    } while (eliminadas > 0);
+
+    if (total > 0) {
+      System.out.println("LOG: Barrido de tareas expiradas: " + total + " eliminadas.");
+    }
+  }
+
+  /**
+   * Elimina las tareas expiradas de un usuario si ya pasó la expiración más próxima de sus tareas
+   * pendientes. Si no, vuelve de inmediato sin consultar la BD.
+   *
+   * @param idUsuario El ID del usuario.
+   * @return true si había tareas por expirar y hay que eliminarlas.
+   */
+  public boolean hayTareasPorExpirar(Long idUsuario) {
+    LocalDateTime proxima =
+        proximaExpiracion.computeIfAbsent(
+            idUsuario,
+            id -> tareaRepository.findProximaExpiracionPendiente(id).orElse(SIN_EXPIRACION));
+    if (proxima.isAfter(LocalDateTime.now(ZoneId.systemDefault()))) {
+      return false;
+    }
+    // Se vuelve a calcular en la próxima visita, después de eliminarlas
+    proximaExpiracion.remove(idUsuario);
+    return true;
+  }
+
+  /**
+   * Avisa que un usuario tiene una tarea pendiente con esa fecha de expiración (al crearla o
+   * editarla): la agenda para que expire a la hora, y se asegura de que la comprobación por usuario
+   * no se la salte.
+   *
+   * @param idUsuario El ID del usuario.
+   * @param tareaId El ID de la tarea.
+   * @param fechaExpiracion La fecha de expiración de la tarea.
+   */
+  public void registrarExpiracion(Long idUsuario, Long tareaId, LocalDateTime fechaExpiracion) {
+    if (fechaExpiracion == null) {
+      return;
+    }
+    proximaExpiracion.computeIfPresent(
+        idUsuario, (id, actual) -> fechaExpiracion.isBefore(actual) ? fechaExpiracion : actual);
+    agendar(tareaId, idUsuario, fechaExpiracion);
+  }
+
+  /**
+   * Llena la agenda con todas las tareas pendientes y arranca el hilo que la atiende. Se llama una
+   * vez al iniciar la aplicación.
+   */
+  public void iniciarAgenda() {
+    if (!agendaIniciada.compareAndSet(false, true)) {
+      return;
+    }
+    List<VencimientoTareaDto> pendientes = tareaRepository.findVencimientosPendientes();
+    for (VencimientoTareaDto tarea : pendientes) {
+      agendar(tarea.getId(), tarea.getUsuarioId(), tarea.getFechaExpiracion());
+    }
+    Thread.ofVirtual().name("agenda-expiracion").start(this::atenderAgenda);
+    System.out.println("LOG: Agenda de expiración iniciada con " + pendientes.size() + " tareas.");
+  }
+
+  /**
+   * Agenda (o reagenda) la expiración de una tarea pendiente.
+   *
+   * @param tareaId El ID de la tarea.
+   * @param usuarioId El ID de su dueño.
+   * @param fechaExpiracion Su fecha de expiración.
+   */
+  public void agendar(Long tareaId, Long usuarioId, LocalDateTime fechaExpiracion) {
+    if (tareaId == null || fechaExpiracion == null) {
+      return;
+    }
+    quitarDePorExpirar(tareaId, usuarioId);
+    vencimientosVigentes.put(tareaId, fechaExpiracion);
+    // Redondeado hacia arriba al milisegundo, para que el evento no salga antes de la fecha exacta
+    Instant expira = fechaExpiracion.atZone(ZoneId.systemDefault()).toInstant();
+    long expiraEnMs = expira.toEpochMilli();
+    if (expira.isAfter(Instant.ofEpochMilli(expiraEnMs))) {
+      expiraEnMs++;
+    }
+    long avisoEnMs = expiraEnMs - TimeUnit.MINUTES.toMillis(minutosAviso);
+    agenda.add(
+        new Vencimiento(tareaId, usuarioId, fechaExpiracion, TipoVencimiento.AVISO, avisoEnMs));
+    agenda.add(
+        new Vencimiento(
+            tareaId, usuarioId, fechaExpiracion, TipoVencimiento.EXPIRACION, expiraEnMs));
+  }
+
+  /**
+   * Saca una tarea de la agenda (al completarla o eliminarla).
+   *
+   * @param tareaId El ID de la tarea.
+   * @param usuarioId El ID de su dueño.
+   */
+  public void cancelar(Long tareaId, Long usuarioId) {
+    vencimientosVigentes.remove(tareaId);
+    quitarDePorExpirar(tareaId, usuarioId);
+  }
+
+  /**
+   * Saca de la agenda todas las tareas de un usuario (al borrar su cuenta, que elimina sus tareas
+   * en cascada).
+   *
+   * @param usuarioId El ID del usuario.
+   */
+  public void cancelarDeUsuario(Long usuarioId) {
+    for (Vencimiento vencimiento : agenda) {
+      if (usuarioId.equals(vencimiento.usuarioId())) {
+        vencimientosVigentes.remove(vencimiento.tareaId());
+      }
+    }
+    porExpirar.remove(usuarioId);
+    proximaExpiracion.remove(usuarioId);
+  }
+
+  /**
+   * Devuelve los IDs de las tareas del usuario que expiran pronto.
+   *
+   * @param usuarioId El ID del usuario.
+   * @return IDs de las tareas por expirar (conjunto inmutable, posiblemente vacío).
+   */
+  public Set<Long> getTareasPorExpirar(Long usuarioId) {
+    Set<Long> tareas = porExpirar.get(usuarioId);
+    return tareas == null ? Set.of() : Set.copyOf(tareas);
+  }
+
+  /** Espera cada vencimiento de la agenda y lo procesa. Corre en su propio hilo. */
+  private void atenderAgenda() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        Vencimiento vencimiento = agenda.take();
+        if (!vencimiento
+            .fechaExpiracion()
+            .equals(vencimientosVigentes.get(vencimiento.tareaId()))) {
+          continue; // La tarea cambió o ya no está pendiente
+        }
+        if (vencimiento.tipo() == TipoVencimiento.AVISO) {
+          porExpirar
+              .computeIfAbsent(vencimiento.usuarioId(), id -> ConcurrentHashMap.newKeySet())
+              .add(vencimiento.tareaId());
+        } else {
+          expirar(vencimiento);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (RuntimeException e) {
+        // Un error con una tarea no debe detener la agenda; el barrido la eliminará después
+        System.err.println("ERROR en la agenda de expiración: " + e.getMessage());
+      }
+    }
+  }
+
+  /** Elimina una tarea que acaba de expirar, si sigue pendiente y ya venció en la BD. */
+  private void expirar(Vencimiento vencimiento) {
+    // Se compara con la hora actual: la fecha agendada ya pasó, y si otra instancia le movió la
+    // fecha al futuro en la BD, la tarea no se elimina
+    LocalDateTime ahora = LocalDateTime.now(ZoneId.systemDefault());
+    int eliminadas =
+        transactionTemplate.execute(
+            estado -> {
+              int n =
+                  tareaRepository.eliminarExpiradasPorIds(List.of(vencimiento.tareaId()), ahora);
+              if (n > 0 && vencimiento.usuarioId() != null) {
+                usuarioEstadisticasService.registrarPendientesEliminadas(
+                    vencimiento.usuarioId(), n);
+              }
+              return n;
+            });
+    cancelar(vencimiento.tareaId(), vencimiento.usuarioId());
+    if (eliminadas > 0) {
+      proximaExpiracion.remove(vencimiento.usuarioId());
+      System.out.println("LOG: La tarea " + vencimiento.tareaId() + " expiró y fue eliminada.");
+    }
+  }
+
+  private void quitarDePorExpirar(Long tareaId, Long usuarioId) {
+    if (usuarioId == null) {
+      return;
+    }
+    porExpirar.computeIfPresent(
+        usuarioId,
+        (id, tareas) -> {
+          tareas.remove(tareaId);
+          return tareas.isEmpty() ? null : tareas;
+        });
+  }
+
+  /**
+   * Busca y elimina un lote de tareas expiradas y descuenta las pendientes de cada dueño.
+   *
+   * @return El número de tareas eliminadas (0 si ya no quedan).
+   */
+  private int eliminarLote(LocalDateTime ahora) {
+    List<TareaExpiradaDto> lote =
+        tareaRepository.findExpiradasPendientes(ahora, PageRequest.of(0, tamanoLote));
+    if (lote.isEmpty()) {
+      return 0;
+    }
+    Map<Long, Integer> porUsuario = new HashMap<>();
+    for (TareaExpiradaDto tarea : lote) {
+      if (tarea.getUsuarioId() != null) {
+        porUsuario.merge(tarea.getUsuarioId(), 1, Integer::sum);
+      }
+    }
+
+    int eliminadas =
+        tareaRepository.eliminarExpiradasPorIds(
+            lote.stream().map(TareaExpiradaDto::getId).toList(), ahora);
+
+    if (eliminadas == lote.size()) {
+      porUsuario.forEach(usuarioEstadisticasService::registrarPendientesEliminadas);
+    } else {
+      // Alguna se completó entre la búsqueda y el borrado: no se sabe de quién, así que se
+      // recalculan las estadísticas de los usuarios del lote
+      porUsuario.keySet().forEach(usuarioEstadisticasService::reconstruir);
+    }
+    porUsuario.keySet().forEach(proximaExpiracion::remove);
+    lote.forEach(tarea -> cancelar(tarea.getId(), tarea.getUsuarioId()));
+    return eliminadas;
+  }
+}
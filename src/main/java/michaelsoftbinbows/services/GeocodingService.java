@@ -1,47 +1,190 @@
 package michaelsoftbinbows.services;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import michaelsoftbinbows.data.UbicacionCacheadaRepository;
+import michaelsoftbinbows.entities.UbicacionCacheada;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-/** Servicio para interactuar con la API de Geocoding de OpenWeatherMap. */
+/**
+ * Servicio para interactuar con la API de Geocoding de OpenWeatherMap.
+ *
+ * <p>Como las coordenadas de una ciudad no cambian, cada respuesta se guarda en dos niveles: una
+ * caché LRU en memoria con tamaño máximo y una tabla en la BD que sobrevive a los reinicios. Las
+ * búsquedas inversas se agrupan por celda de una grilla de coordenadas redondeadas, así un GPS que
+ * varía unos metros reutiliza la misma respuesta.
+ *
+ * <p>En la BD solo se guardan respuestas con al menos un resultado; las vacías ("ciudad no
+ * encontrada") quedan solo en memoria. Las filas vencen tras unos días y además se limita su
+ * número, porque las claves las eligen peticiones anónimas de /api.
+ */
 @Service
 public class GeocodingService {
 
+  private static final int LARGO_MAXIMO_CLAVE = 200;
+
   private final RestTemplate restTemplate;
   private final String apiKey;
+  private final UbicacionCacheadaRepository ubicacionRepository;
+
+  // Número máximo de respuestas en la caché en memoria.
+  @Value("${geocoding.cache.max-entradas:2000}")
+  private int maxEntradas = 2000;
+
+  // Decimales a los que se redondean lat/lon en las búsquedas inversas (2 = celdas de ~1 km).
+  @Value("${geocoding.cache.decimales-grilla:2}")
+  private int decimalesGrilla = 2;
+
+  // Días que una respuesta guardada en la BD sigue siendo válida.
+  @Value("${geocoding.cache.dias-vigencia:90}")
+  private int diasVigencia = 90;
+
+  // Número máximo de respuestas guardadas en la BD.
+  @Value("${geocoding.cache.max-filas:50000}")
+  private int maxFilas = 50000;
+
+  private final Map<String, String> cacheLru =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+              return size() > maxEntradas;
+            }
+          });
 
   /**
-   * Constructor para inyección de dependencias. Spring Boot buscará un "Bean" de RestTemplate y el
-   * valor "owm.api.key" y se los pasará a este servicio automáticamente.
+   * Constructor para inyección de dependencias. Spring Boot buscará un "Bean" de RestTemplate, el
+   * valor "owm.api.key" y el repositorio de la caché persistente y se los pasará a este servicio
+   * automáticamente.
    */
-  public GeocodingService(RestTemplate restTemplate, @Value("${owm.api.key}") String apiKey) {
+  public GeocodingService(
+      RestTemplate restTemplate,
+      @Value("${owm.api.key}") String apiKey,
+      UbicacionCacheadaRepository ubicacionRepository) {
     this.restTemplate = restTemplate;
     this.apiKey = apiKey;
+    this.ubicacionRepository = ubicacionRepository;
   }
 
   /** Obtiene las coordenadas (latitud y longitud) para una ciudad específica. */
   public String getCoordinatesByCity(String city) {
-    String url =
-        "https://api.openweathermap.org/geo/1.0/direct?q=" + city + "&limit=1&appid=" + apiKey;
+    String clave = "ciudad:" + WeatherService.normalizarCiudad(city);
+    return obtener(
+        clave,
+        () -> {
+          String url =
+              "https://api.openweathermap.org/geo/1.0/direct?q="
+                  + city
+                  + "&limit=1&appid="
+                  + apiKey;
 
-    // Usamos el restTemplate que nos pasaron
-    ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-    return response.getBody();
+          // Usamos el restTemplate que nos pasaron
+          ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+          return response.getBody();
+        });
   }
 
   /** Obtiene el nombre de la ciudad basado en coordenadas de latitud y longitud. */
   public String getCityByCoordinates(double lat, double lon) {
-    String url =
-        "https://api.openweathermap.org/geo/1.0/reverse?lat="
-            + lat
-            + "&lon="
-            + lon
-            + "&limit=1&appid="
-            + apiKey;
-
-    ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-    return response.getBody();
+    String clave =
+        String.format(
+            Locale.ROOT, "coord:%." + decimalesGrilla + "f,%." + decimalesGrilla + "f", lat, lon);
+    return obtener(
+        clave,
+        () -> {
+          String url =
+              "https://api.openweathermap.org/geo/1.0/reverse?lat="
+                  + lat
+                  + "&lon="
+                  + lon
+                  + "&limit=1&appid="
+                  + apiKey;
+
+          ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+          return response.getBody();
+        });
+  }
+
+  /**
+   * Consulta de antemano una lista de ciudades para que ya estén guardadas cuando alguien las pida.
+   * Las que ya estaban en la BD solo se cargan en memoria.
+   *
+   * @param ciudades Los nombres de las ciudades.
+   * @return El número de ciudades que quedaron guardadas.
+   */
+  public int precalentar(List<String> ciudades) {
+    int guardadas = 0;
+    for (String ciudad : ciudades) {
+      try {
+        getCoordinatesByCity(ciudad);
+        guardadas++;
+      } catch (RuntimeException e) {
+        System.err.println(
+            "LOG: No se pudo precargar la ciudad '" + ciudad + "': " + e.getMessage());
+      }
+    }
+    return guardadas;
+  }
+
+  /** Busca la respuesta en memoria, luego en la BD, y solo si no está consulta la API. */
+  private String obtener(String clave, Supplier<String> consultaApi) {
+    if (clave.length() > LARGO_MAXIMO_CLAVE) {
+      return consultaApi.get();
+    }
+    String enMemoria = cacheLru.get(clave);
+    if (enMemoria != null) {
+      return enMemoria;
+    }
+    LocalDateTime ahora = LocalDateTime.now(ZoneId.systemDefault());
+    Optional<UbicacionCacheada> guardada = ubicacionRepository.findById(clave);
+    if (guardada.isPresent() && !estaVencida(guardada.get(), ahora)) {
+      cacheLru.put(clave, guardada.get().getRespuesta());
+      return guardada.get().getRespuesta();
+    }
+
+    String respuesta = consultaApi.get();
+    if (respuesta != null) {
+      cacheLru.put(clave, respuesta);
+      if (tieneResultados(respuesta)) {
+        ubicacionRepository.guardar(clave, respuesta, ahora);
+      }
+    }
+    return respuesta;
+  }
+
+  /** Elimina de la BD las respuestas vencidas y las que superan el máximo de filas. */
+  @Scheduled(
+      fixedDelayString = "${geocoding.cache.limpieza-intervalo-ms:3600000}",
+      initialDelayString = "${geocoding.cache.limpieza-retraso-inicial-ms:120000}")
+  public void limpiarCachePersistente() {
+    LocalDateTime limite = LocalDateTime.now(ZoneId.systemDefault()).minusDays(diasVigencia);
+    int eliminadas =
+        ubicacionRepository.eliminarAnterioresA(limite)
+            + ubicacionRepository.eliminarExcedentes(maxFilas);
+    if (eliminadas > 0) {
+      System.out.println("LOG: Caché de Geocoding: " + eliminadas + " respuestas eliminadas.");
+    }
+  }
+
+  private boolean estaVencida(UbicacionCacheada guardada, LocalDateTime ahora) {
+    return guardada.getObtenidaEn() == null
+        || guardada.getObtenidaEn().isBefore(ahora.minusDays(diasVigencia));
+  }
+
+  /** La API responde "[]" cuando no encuentra nada; esas respuestas no se guardan en la BD. */
+  private static boolean tieneResultados(String respuesta) {
+    String recortada = respuesta.strip();
+    return !recortada.isEmpty() && !recortada.equals("[]");
   }
 }
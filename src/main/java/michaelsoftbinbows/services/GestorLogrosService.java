@@ -1,67 +1,127 @@
 package michaelsoftbinbows.services;
 
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import michaelsoftbinbows.entities.Logro;
+import michaelsoftbinbows.entities.Tarea;
 import michaelsoftbinbows.entities.Usuario;
+import michaelsoftbinbows.entities.UsuarioEstadisticas;
 import michaelsoftbinbows.entities.UsuarioLogro;
+import michaelsoftbinbows.model.TipoEventoLogro;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
  * Servicio que gestiona la lógica de negocio de los logros. Mantiene la definición estática de los
  * logros y proporciona métodos para verificar el progreso del usuario contra esa lógica.
+ *
+ * <p>Cada logro se suscribe a un tipo de evento ({@link TipoEventoLogro}). Cuando ocurre un evento
+ * solo se evalúan los logros suscritos a él, usando un índice en memoria que se reconstruye cuando
+ * cambia la lista de logros activos.
  */
 @Service
 public class GestorLogrosService {
 
   @Autowired private LogroService logroService;
+  @Autowired private UsuarioEstadisticasService usuarioEstadisticasService;
   private static final List<Logro> LOGROS_DISPONIBLES = new ArrayList<>();
+  private static final Map<String, CondicionLogro> CONDICIONES = new HashMap<>();
+
+  // Índice de logros activos agrupados por evento. Se reconstruye si LogroService cambia su cache.
+  private volatile IndiceLogros indice;
 
   static {
     // --- Logros de Tareas ---
-    LOGROS_DISPONIBLES.add(new Logro("JOIN_APP", "El primero es gratis", "Únete a Good Time", 0));
-    LOGROS_DISPONIBLES.add(
-        new Logro("COMPLETE_1_TASK", "Primeros Pasos", "Completa tu primera tarea.", 50));
-    LOGROS_DISPONIBLES.add(
-        new Logro("COMPLETE_10_TASKS", "Trabajador Incansable", "Completa 10 tareas.", 150));
-    LOGROS_DISPONIBLES.add(
-        new Logro("COMPLETE_50_TASKS", "Maestro de la Productividad", "Completa 50 tareas.", 300));
+    registrar(
+        new Logro("JOIN_APP", "El primero es gratis", "Únete a Good Time", 0),
+        TipoEventoLogro.INICIO_SESION,
+        ctx -> true);
+    registrar(
+        new Logro("COMPLETE_1_TASK", "Primeros Pasos", "Completa tu primera tarea.", 50),
+        TipoEventoLogro.TAREA_COMPLETADA,
+        ctx -> ctx.getNumeroCompletadas() >= 1);
+    registrar(
+        new Logro("COMPLETE_10_TASKS", "Trabajador Incansable", "Completa 10 tareas.", 150),
+        TipoEventoLogro.TAREA_COMPLETADA,
+        ctx -> ctx.getNumeroCompletadas() >= 10);
+    registrar(
+        new Logro("COMPLETE_50_TASKS", "Maestro de la Productividad", "Completa 50 tareas.", 300),
+        TipoEventoLogro.TAREA_COMPLETADA,
+        ctx -> ctx.getNumeroCompletadas() >= 50);
 
     // --- Logros de Nivel ---
-    LOGROS_DISPONIBLES.add(new Logro("REACH_LEVEL_5", "Aprendiz", "Alcanza el nivel 5.", 100));
-    LOGROS_DISPONIBLES.add(new Logro("REACH_LEVEL_20", "Veterano", "Alcanza el nivel 20.", 200));
-    LOGROS_DISPONIBLES.add(new Logro("REACH_LEVEL_35", "Maestro", "Alcanza el nivel 35.", 500));
+    registrar(
+        new Logro("REACH_LEVEL_5", "Aprendiz", "Alcanza el nivel 5.", 100),
+        TipoEventoLogro.NIVEL_SUBIDO,
+        ctx -> ctx.usuario.getNivelExperiencia() >= 5);
+    registrar(
+        new Logro("REACH_LEVEL_20", "Veterano", "Alcanza el nivel 20.", 200),
+        TipoEventoLogro.NIVEL_SUBIDO,
+        ctx -> ctx.usuario.getNivelExperiencia() >= 20);
+    registrar(
+        new Logro("REACH_LEVEL_35", "Maestro", "Alcanza el nivel 35.", 500),
+        TipoEventoLogro.NIVEL_SUBIDO,
+        ctx -> ctx.usuario.getNivelExperiencia() >= 35);
 
     // --- Logros de Racha ---
-    LOGROS_DISPONIBLES.add(
-        new Logro("7_DAY_STREAK", "Dedicación", "Mantén una racha por una semana", 150));
-    LOGROS_DISPONIBLES.add(
-        new Logro("30_DAY_STREAK", "Maratón", "Mantén una racha por un mes", 500));
+    registrar(
+        new Logro("7_DAY_STREAK", "Dedicación", "Mantén una racha por una semana", 150),
+        TipoEventoLogro.RACHA_CAMBIADA,
+        ctx -> ctx.usuario.getRacha() >= 7);
+    registrar(
+        new Logro("30_DAY_STREAK", "Maratón", "Mantén una racha por un mes", 500),
+        TipoEventoLogro.RACHA_CAMBIADA,
+        ctx -> ctx.usuario.getRacha() >= 30);
 
     // --- Logros de Tareas (Especiales) ---
-    LOGROS_DISPONIBLES.add(
-        new Logro("MORNING_TASK", "Madrugador", "Completa una tarea entre 6:00-8:00 AM", 50));
-    LOGROS_DISPONIBLES.add(
-        new Logro("CLOSE_CALL", "Uy.", "Termina una tarea 5 minutos antes de que expire", 50));
+    registrar(
+        new Logro("MORNING_TASK", "Madrugador", "Completa una tarea entre 6:00-8:00 AM", 50),
+        TipoEventoLogro.TAREA_COMPLETADA,
+        ContextoLogro::hayTareaMatutina);
+    registrar(
+        new Logro("CLOSE_CALL", "Uy.", "Termina una tarea 5 minutos antes de que expire", 50),
+        TipoEventoLogro.TAREA_COMPLETADA,
+        ContextoLogro::hayTareaAlLimite);
 
     // --- Logros de Ranking ---
-    LOGROS_DISPONIBLES.add(
+    // Esta lógica es más compleja y probablemente requiera guardar un historial de rankings.
+    registrar(
         new Logro(
-            "TOP_10_RANKING", "Ejemplo a seguir", "Quédate en el top 10 por al menos un día", 500));
+            "TOP_10_RANKING", "Ejemplo a seguir", "Quédate en el top 10 por al menos un día", 500),
+        TipoEventoLogro.LIGA_CAMBIADA,
+        ctx -> false); // Implementación pendiente
 
     // --- Logros de Liga ---
-    LOGROS_DISPONIBLES.add(new Logro("REACH_GOLD", "Ascendido", "Alcanza la liga de Oro", 200));
-    LOGROS_DISPONIBLES.add(new Logro("REACH_PLATINUM", "Élite", "Alcanza la liga de Platino", 350));
-    LOGROS_DISPONIBLES.add(
-        new Logro("REACH_DIAMOND", "Leyenda", "Alcanza la liga de Diamante", 500));
+    registrar(
+        new Logro("REACH_GOLD", "Ascendido", "Alcanza la liga de Oro", 200),
+        TipoEventoLogro.LIGA_CAMBIADA,
+        ctx -> Set.of("Oro", "Platino", "Diamante").contains(ctx.usuario.getLiga()));
+    registrar(
+        new Logro("REACH_PLATINUM", "Élite", "Alcanza la liga de Platino", 350),
+        TipoEventoLogro.LIGA_CAMBIADA,
+        ctx -> Set.of("Platino", "Diamante").contains(ctx.usuario.getLiga()));
+    registrar(
+        new Logro("REACH_DIAMOND", "Leyenda", "Alcanza la liga de Diamante", 500),
+        TipoEventoLogro.LIGA_CAMBIADA,
+        ctx -> "Diamante".equals(ctx.usuario.getLiga()));
 
     verificarUnicidadDeIds();
   }
 
+  /** Añade un logro a la lista estática junto con el evento y la condición que lo desbloquean. */
+  private static void registrar(
+      Logro logro, TipoEventoLogro evento, Predicate<ContextoLogro> condicion) {
+    LOGROS_DISPONIBLES.add(logro);
+    CONDICIONES.put(logro.getId(), new CondicionLogro(evento, condicion));
+  }
+
   /** Verifica que todos los IDs de logros en la lista sean únicos. */
   private static void verificarUnicidadDeIds() {
     final Set<String> idsVistos = new HashSet<>();
@@ -77,110 +137,32 @@ public class GestorLogrosService {
             + " logros únicos cargados.");
   }
 
-  /** Evalúa si un usuario cumple con las condiciones para desbloquear logros pendientes. */
-  public List<Logro> verificarLogros(Usuario usuario) {
-    List<Logro> nuevosLogrosDesbloqueados = new ArrayList<>();
-    List<Logro> logrosDesdeBD = logroService.obtenerTodos();
-
-    for (Logro logroPotencial : logrosDesdeBD) {
-
-      if (!logroPotencial.isActivo()) {
-        continue; // Saltar logros desactivados
-      }
-
-      // Revisamos la lista de asociaciones 'UsuarioLogro'.
-      boolean yaLoTiene =
-          usuario.getUsuarioLogros().stream()
-              .anyMatch(asociacion -> asociacion.getLogro().equals(logroPotencial));
+  /**
+   * Devuelve el índice de logros activos por evento, reconstruyéndolo si la lista de logros activos
+   * cambió desde la última vez.
+   */
+  private IndiceLogros obtenerIndice() {
+    List<Logro> activos = logroService.obtenerActivosEnCache();
+    IndiceLogros actual = indice;
+    if (actual != null && actual.fuente() == activos) {
+      return actual;
+    }
 
-      if (yaLoTiene) {
+    Map<TipoEventoLogro, List<Logro>> porEvento = new EnumMap<>(TipoEventoLogro.class);
+    for (TipoEventoLogro evento : TipoEventoLogro.values()) {
+      porEvento.put(evento, new ArrayList<>());
+    }
+    for (Logro logro : activos) {
+      CondicionLogro condicion = CONDICIONES.get(logro.getId());
+      if (condicion == null) {
+        System.err.println("LOG: ID de logro no reconocido: " + logro.getId());
         continue;
       }
-
-      if (condicionCumplida(usuario, logroPotencial)) {
-        nuevosLogrosDesbloqueados.add(logroPotencial);
-      }
-    }
-    return nuevosLogrosDesbloqueados;
-  }
-
-  /** Lógica de condición (privada, usada por este servicio). */
-  private boolean condicionCumplida(Usuario usuario, Logro logro) {
-    final String idLogro = logro.getId();
-
-    switch (idLogro) {
-        // --- Lógica de Tareas (Conteo) ---
-      case "JOIN_APP":
-        return true;
-      case "COMPLETE_1_TASK":
-        return usuario.getTareasCompletadas().size() >= 1;
-      case "COMPLETE_10_TASKS":
-        return usuario.getTareasCompletadas().size() >= 10;
-      case "COMPLETE_50_TASKS":
-        return usuario.getTareasCompletadas().size() >= 50;
-
-        // --- Lógica de Nivel ---
-      case "REACH_LEVEL_5":
-        return usuario.getNivelExperiencia() >= 5;
-      case "REACH_LEVEL_20":
-        return usuario.getNivelExperiencia() >= 20;
-      case "REACH_LEVEL_35":
-        return usuario.getNivelExperiencia() >= 35;
-
-        // --- ¡LÓGICA IMPLEMENTADA! (Racha) ---
-      case "7_DAY_STREAK":
-        return usuario.getRacha() >= 7;
-      case "30_DAY_STREAK":
-        return usuario.getRacha() >= 30;
-
-        // --- ¡LÓGICA IMPLEMENTADA! (Liga) ---
-      case "REACH_GOLD":
-        return usuario.getLiga().equals("Oro")
-            || usuario.getLiga().equals("Platino")
-            || usuario.getLiga().equals("Diamante");
-      case "REACH_PLATINUM":
-        return usuario.getLiga().equals("Platino") || usuario.getLiga().equals("Diamante");
-      case "REACH_DIAMOND":
-        return usuario.getLiga().equals("Diamante");
-
-        // --- ¡LÓGICA IMPLEMENTADA! (Tareas Especiales) ---
-      case "MORNING_TASK":
-        // Revisa si CUALQUIER tarea completada cumple la condición.
-        return usuario.getTareasCompletadas().stream()
-            .anyMatch(
-                t -> {
-                  if (t.getFechaCompletada() == null) return false;
-                  int hora = t.getFechaCompletada().getHour();
-                  // "Entre 6:00 y 8:00" = Hora 6 y Hora 7
-                  return hora >= 6 && hora < 8;
-                });
-
-      case "CLOSE_CALL":
-        // Revisa si CUALQUIER tarea completada cumple la condición.
-        return usuario.getTareasCompletadas().stream()
-            .anyMatch(
-                t -> {
-                  // Necesitamos ambas fechas para comparar
-                  if (t.getFechaCompletada() == null || t.getFechaExpiracion() == null) {
-                    return false;
-                  }
-                  // Calcula los minutos entre la completación y la expiración
-                  long minutosRestantes =
-                      ChronoUnit.MINUTES.between(t.getFechaCompletada(), t.getFechaExpiracion());
-                  // El logro se da si los minutos restantes son 5, 4, 3, 2, 1, o 0.
-                  return minutosRestantes >= 0 && minutosRestantes <= 5;
-                });
-
-        // --- Lógica Pendiente ---
-      case "TOP_10_RANKING":
-        // Esta lógica es más compleja y probablemente requiera
-        // guardar un historial de rankings.
-        return false; // Implementación pendiente
-
-      default:
-        System.err.println("LOG: ID de logro no reconocido: " + idLogro);
-        return false;
+      porEvento.get(condicion.evento()).add(logro);
     }
+    actual = new IndiceLogros(activos, porEvento);
+    indice = actual;
+    return actual;
   }
 
   /** Devuelve una copia de la lista de todos los logros definidos en el sistema. */
@@ -188,57 +170,113 @@ public class GestorLogrosService {
     return new ArrayList<>(LOGROS_DISPONIBLES);
   }
 
-  /** Calcula y devuelve TODOS los logros que un usuario ha cumplido. */
-  public List<Logro> getTodosLogrosCumplidos(Usuario usuario) {
-    List<Logro> logrosCumplidos = new ArrayList<>();
+  /**
+   * Procesa uno o más eventos de un usuario y desbloquea los logros suscritos a ellos cuya
+   * condición se cumpla. Los logros que el usuario ya tiene no se vuelven a evaluar.
+   *
+   * @param usuario El usuario que generó los eventos.
+   * @param tarea La tarea que disparó el evento (solo para TAREA_COMPLETADA), o null.
+   * @param eventos Los eventos ocurridos.
+   * @return true si se desbloqueó al menos un logro.
+   */
+  public boolean procesarEventos(Usuario usuario, Tarea tarea, Set<TipoEventoLogro> eventos) {
+    IndiceLogros actual = obtenerIndice();
+    Set<String> yaObtenidos = null;
+    ContextoLogro ctx = null;
+    boolean desbloqueoAlguno = false;
+
+    for (TipoEventoLogro evento : eventos) {
+      for (Logro logroPotencial : actual.porEvento().get(evento)) {
+        // Solo construimos estas estructuras si hay algún logro suscrito al evento
+        if (yaObtenidos == null) {
+          yaObtenidos = new HashSet<>();
+          for (UsuarioLogro asociacion : usuario.getUsuarioLogros()) {
+            yaObtenidos.add(asociacion.getLogro().getId());
+          }
+          ctx = crearContexto(usuario, tarea);
+        }
+        if (yaObtenidos.contains(logroPotencial.getId())) {
+          continue;
+        }
+        if (CONDICIONES.get(logroPotencial.getId()).regla().test(ctx)) {
+          desbloquear(usuario, logroPotencial);
+          yaObtenidos.add(logroPotencial.getId());
+          desbloqueoAlguno = true;
+        }
+      }
+    }
+    return desbloqueoAlguno;
+  }
 
-    // 1. Obtenemos la lista MAESTRA desde la BD
-    List<Logro> logrosDesdeBD = logroService.obtenerTodos();
+  /** Crea el contexto de evaluación; las estadísticas del usuario se cargan solo si se piden. */
+  private ContextoLogro crearContexto(Usuario usuario, Tarea tarea) {
+    return new ContextoLogro(
+        usuario, tarea, () -> usuarioEstadisticasService.obtener(usuario.getId()));
+  }
 
-    // 2. Iteramos sobre la lista de la BD
-    for (Logro logroPotencial : logrosDesdeBD) {
+  /** Crea la asociación UsuarioLogro y entrega la recompensa de XP del logro. */
+  private void desbloquear(Usuario usuario, Logro nuevoLogro) {
+    // 1. Creamos la asociación UsuarioLogro y la añadimos a la lista del usuario
+    usuario.getUsuarioLogros().add(new UsuarioLogro(usuario, nuevoLogro));
 
-      // El contador tampoco debe contar logros desactivados
-      if (!logroPotencial.isActivo()) {
-        continue;
-      }
+    // 2. Añadir la recompensa de XP del logro
+    usuario.setExperiencia(usuario.getExperiencia() + nuevoLogro.getPuntosRecompensa());
 
-      // Verificamos la lógica de cada uno
-      if (condicionCumplida(usuario, logroPotencial)) {
-        logrosCumplidos.add(logroPotencial);
-      }
-    }
-    return logrosCumplidos;
+    System.out.println(
+        "LOG: ¡'"
+            + usuario.getNombreUsuario()
+            + "' desbloqueó el logro: "
+            + nuevoLogro.getNombre()
+            + "!");
   }
 
-  /** Comprueba el estado de un usuario contra todos los logros y desbloquea los que haya ganado. */
-  public boolean actualizarLogrosParaUsuario(Usuario usuario) {
-    List<Logro> nuevosLogrosDesbloqueados = this.verificarLogros(usuario);
-
-    if (nuevosLogrosDesbloqueados.isEmpty()) {
-      return false;
+  /** Evento al que se suscribe un logro y la condición que debe cumplirse para desbloquearlo. */
+  private record CondicionLogro(TipoEventoLogro evento, Predicate<ContextoLogro> regla) {}
+
+  /** Logros activos (tal como los entregó LogroService) agrupados por evento. */
+  private record IndiceLogros(List<Logro> fuente, Map<TipoEventoLogro, List<Logro>> porEvento) {}
+
+  /**
+   * Datos del usuario usados por las condiciones. Los contadores se leen de las estadísticas
+   * agregadas del usuario, que se cargan una sola vez y solo si alguna condición las pide.
+   */
+  private static final class ContextoLogro {
+    private final Usuario usuario;
+    private final Tarea tarea;
+    private final Supplier<UsuarioEstadisticas> cargador;
+    private UsuarioEstadisticas estadisticas;
+
+    ContextoLogro(Usuario usuario, Tarea tarea, Supplier<UsuarioEstadisticas> cargador) {
+      this.usuario = usuario;
+      this.tarea = tarea;
+      this.cargador = cargador;
     }
 
-    for (Logro nuevoLogro : nuevosLogrosDesbloqueados) {
-
-      // 1. Creamos la asociación UsuarioLogro
-      UsuarioLogro nuevaAsociacion = new UsuarioLogro(usuario, nuevoLogro);
+    private UsuarioEstadisticas getEstadisticas() {
+      if (estadisticas == null) {
+        estadisticas = cargador.get();
+      }
+      return estadisticas;
+    }
 
-      // 2. Añadimos la asociación a la lista del usuario
-      usuario.getUsuarioLogros().add(nuevaAsociacion);
+    int getNumeroCompletadas() {
+      return getEstadisticas().getTareasCompletadas();
+    }
 
-      // 2b. Añadir la recompensa de XP del logro
-      int xpActual = usuario.getExperiencia();
-      int xpLogro = nuevoLogro.getPuntosRecompensa();
-      usuario.setExperiencia(xpActual + xpLogro);
+    /** Si el evento viene de una tarea concreta, solo se revisa esa tarea. */
+    boolean hayTareaMatutina() {
+      if (tarea != null) {
+        return tarea.isCompletadaEnLaManana();
+      }
+      return getEstadisticas().isTareaMatutina();
+    }
 
-      System.out.println(
-          "LOG: ¡'"
-              + usuario.getNombreUsuario()
-              + "' desbloqueó el logro: "
-              + nuevoLogro.getNombre()
-              + "!");
+    /** Si el evento viene de una tarea concreta, solo se revisa esa tarea. */
+    boolean hayTareaAlLimite() {
+      if (tarea != null) {
+        return tarea.isCompletadaAlLimite();
+      }
+      return getEstadisticas().isTareaAlLimite();
     }
-    return true;
   }
 }
@@ -0,0 +1,79 @@
+package michaelsoftbinbows.services;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import michaelsoftbinbows.data.ActividadDiariaRepository;
+import michaelsoftbinbows.dto.PuntoSerieDto;
+import michaelsoftbinbows.dto.SerieHistorialDto;
+import michaelsoftbinbows.model.GranularidadSerie;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio para las series del historial (tareas completadas y XP por día, semana o mes). La
+ * agrupación se hace en la BD sobre la tabla de actividad diaria (a lo más una fila por día), sin
+ * leer las tareas del usuario.
+ */
+@Service
+public class HistorialService {
+
+  // Máximo de periodos por serie, para que un rango enorme no arme una respuesta gigante
+  private static final int MAX_PUNTOS = 1000;
+
+  @Autowired private ActividadDiariaRepository actividadDiariaRepository;
+
+  /**
+   * Obtiene la serie de un usuario entre dos fechas (ambas incluidas). Los periodos sin tareas se
+   * devuelven en cero.
+   *
+   * @param usuarioId ID del usuario.
+   * @param desde Primer día del rango.
+   * @param hasta Último día del rango.
+   * @param granularidad Tamaño de cada periodo.
+   * @return La serie, del periodo más antiguo al más reciente.
+   * @throws IllegalArgumentException Si el rango está invertido o tiene demasiados periodos.
+   */
+  public SerieHistorialDto obtenerSerie(
+      Long usuarioId, LocalDate desde, LocalDate hasta, GranularidadSerie granularidad) {
+    if (desde.isAfter(hasta)) {
+      throw new IllegalArgumentException("La fecha 'desde' no puede ser posterior a 'hasta'.");
+    }
+    List<LocalDate> periodos = new ArrayList<>();
+    for (LocalDate inicio = granularidad.inicioDePeriodo(desde);
+        !inicio.isAfter(hasta);
+        inicio = granularidad.siguiente(inicio)) {
+      if (periodos.size() == MAX_PUNTOS) {
+        throw new IllegalArgumentException(
+            "El rango pedido tiene más de " + MAX_PUNTOS + " periodos.");
+      }
+      periodos.add(inicio);
+    }
+
+    Map<LocalDate, Object[]> porPeriodo = new HashMap<>();
+    for (Object[] fila :
+        actividadDiariaRepository.sumarPorPeriodo(
+            usuarioId, granularidad.getCodigo(), desde, hasta)) {
+      porPeriodo.put(comoFecha(fila[0]), fila);
+    }
+
+    List<PuntoSerieDto> puntos = new ArrayList<>(periodos.size());
+    for (LocalDate periodo : periodos) {
+      Object[] fila = porPeriodo.get(periodo);
+      puntos.add(
+          fila == null
+              ? new PuntoSerieDto(periodo, 0, 0)
+              : new PuntoSerieDto(
+                  periodo, ((Number) fila[1]).longValue(), ((Number) fila[2]).longValue()));
+    }
+    return new SerieHistorialDto(granularidad.getCodigo(), puntos);
+  }
+
+  /** El driver puede entregar la columna date como java.sql.Date o como LocalDate. */
+  private static LocalDate comoFecha(Object valor) {
+    return valor instanceof Date fecha ? fecha.toLocalDate() : (LocalDate) valor;
+  }
+}
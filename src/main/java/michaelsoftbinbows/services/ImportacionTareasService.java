@@ -0,0 +1,211 @@
+package michaelsoftbinbows.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import michaelsoftbinbows.data.TareaRepository;
+import michaelsoftbinbows.data.UsuarioRepository;
+import michaelsoftbinbows.dto.FilaImportacionDto;
+import michaelsoftbinbows.dto.ResultadoImportacionDto;
+import michaelsoftbinbows.dto.TareaDto;
+import michaelsoftbinbows.entities.Tarea;
+import michaelsoftbinbows.entities.Usuario;
+import michaelsoftbinbows.exceptions.TareaInvalidaException;
+import michaelsoftbinbows.util.TareaValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Servicio para importar muchas tareas de un usuario de una sola vez (ej. al sumar un equipo con
+ * listas de tareas existentes).
+ *
+ * <p>Primero se validan todas las filas en memoria: los duplicados se revisan contra los nombres y
+ * descripciones pendientes del usuario, leídos una sola vez, y contra las filas anteriores de la
+ * misma importación. Luego las tareas válidas se guardan por lotes, cada uno en su transacción; con
+ * IDs de secuencia y hibernate.jdbc.batch_size, cada lote se envía como pocos INSERT agrupados.
+ */
+@Service
+public class ImportacionTareasService {
+
+  @Autowired private TareaRepository tareaRepository;
+  @Autowired private UsuarioRepository usuarioRepository;
+  @Autowired private UsuarioEstadisticasService usuarioEstadisticasService;
+  @Autowired private ExpiracionTareasService expiracionTareasService;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private ObjectMapper objectMapper;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  private TareaValidator tareaValidator = new TareaValidator();
+
+  @Value("${tareas.importacion.max-filas:5000}")
+  private int maxFilas;
+
+  @Value("${tareas.importacion.tamano-lote:500}")
+  private int tamanoLote;
+
+  /** Tarea válida lista para guardar, junto con su posición en la importación. */
+  private record FilaValida(int indice, Tarea tarea) {}
+
+  /**
+   * Lee tareas en formato NDJSON (un objeto JSON por línea). Las líneas en blanco se ignoran; una
+   * línea con JSON inválido se agrega como null para que se informe como fila rechazada.
+   *
+   * @param lector El cuerpo de la petición.
+   * @return Las tareas leídas, en orden.
+   * @throws IOException Si falla la lectura.
+   * @throws IllegalArgumentException Si se pasa del máximo de filas.
+   */
+  public List<TareaDto> leerNdjson(BufferedReader lector) throws IOException {
+    List<TareaDto> filas = new ArrayList<>();
+    String linea;
+    while ((linea = lector.readLine()) != null) {
+      if (linea.isBlank()) {
+        continue;
+      }
+      if (filas.size() == maxFilas) {
+        throw new IllegalArgumentException(
+            "La importación no puede tener más de " + maxFilas + " tareas.");
+      }
+      try {
+        filas.add(objectMapper.readValue(linea, TareaDto.class));
+      } catch (JsonProcessingException e) {
+        filas.add(null);
+      }
+    }
+    return filas;
+  }
+
+  /**
+   * Importa las tareas para un usuario. Cada fila se crea o se rechaza por separado: una fila
+   * inválida no impide guardar las demás.
+   *
+   * @param usuarioId ID del usuario (debe existir).
+   * @param filas Las tareas a crear.
+   * @return El resultado de cada fila.
+   * @throws IllegalArgumentException Si no hay filas o se pasa del máximo.
+   */
+  public ResultadoImportacionDto importar(Long usuarioId, List<TareaDto> filas) {
+    if (filas == null || filas.isEmpty()) {
+      throw new IllegalArgumentException("No se recibieron tareas para importar.");
+    }
+    if (filas.size() > maxFilas) {
+      throw new IllegalArgumentException(
+          "La importación no puede tener más de " + maxFilas + " tareas.");
+    }
+    FilaImportacionDto[] resultados = new FilaImportacionDto[filas.size()];
+    List<FilaValida> validas = validar(usuarioId, filas, resultados);
+
+    for (int inicio = 0; inicio < validas.size(); inicio += tamanoLote) {
+      List<FilaValida> lote =
+          validas.subList(inicio, Math.min(inicio + tamanoLote, validas.size()));
+      try {
+        guardarLote(usuarioId, lote);
+        for (FilaValida fila : lote) {
+          Tarea tarea = fila.tarea();
+          resultados[fila.indice()] =
+              new FilaImportacionDto(fila.indice() + 1, true, tarea.getId(), null);
+          expiracionTareasService.registrarExpiracion(
+              usuarioId, tarea.getId(), tarea.getFechaExpiracion());
+        }
+      } catch (DataAccessException e) {
+        // Solo se pierde este lote; los anteriores ya quedaron guardados
+        System.err.println("ERROR: Falló un lote de importación de tareas: " + e.getMessage());
+        for (FilaValida fila : lote) {
+          resultados[fila.indice()] =
+              new FilaImportacionDto(
+                  fila.indice() + 1, false, null, "No se pudo guardar la tarea.");
+        }
+      }
+    }
+
+    ResultadoImportacionDto resultado = new ResultadoImportacionDto(List.of(resultados));
+    System.out.println(
+        "LOG: Importación de tareas para el usuario "
+            + usuarioId
+            + ": "
+            + resultado.getCreadas()
+            + " creadas, "
+            + resultado.getRechazadas()
+            + " rechazadas.");
+    return resultado;
+  }
+
+  /**
+   * Valida todas las filas en una pasada. Las rechazadas quedan anotadas en resultados; las válidas
+   * se devuelven ya convertidas en Tarea.
+   */
+  private List<FilaValida> validar(
+      Long usuarioId, List<TareaDto> filas, FilaImportacionDto[] resultados) {
+    Set<String> nombres = new HashSet<>(tareaRepository.findNombresPendientes(usuarioId));
+    Set<String> descripciones =
+        new HashSet<>(tareaRepository.findDescripcionesPendientes(usuarioId));
+    List<FilaValida> validas = new ArrayList<>();
+    for (int i = 0; i < filas.size(); i++) {
+      TareaDto dto = filas.get(i);
+      String error = validarFila(dto, nombres, descripciones);
+      if (error == null) {
+        try {
+          validas.add(new FilaValida(i, new Tarea(dto.nombre, dto.descripcion, dto.dificultad)));
+          nombres.add(dto.nombre);
+          descripciones.add(dto.descripcion);
+        } catch (TareaInvalidaException e) {
+          error = e.getMessage();
+        }
+      }
+      if (error != null) {
+        resultados[i] = new FilaImportacionDto(i + 1, false, null, error);
+      }
+    }
+    return validas;
+  }
+
+  /** Devuelve el motivo por el que la fila no se puede importar, o null si es válida. */
+  private String validarFila(TareaDto dto, Set<String> nombres, Set<String> descripciones) {
+    if (dto == null) {
+      return "Fila vacía o con formato inválido.";
+    }
+    String error = tareaValidator.nombreTareaValido(dto.nombre);
+    if (error == null) {
+      error = tareaValidator.descripcionTareaValida(dto.descripcion);
+    }
+    if (error == null) {
+      error = tareaValidator.dificultadValida(dto.dificultad);
+    }
+    if (error == null && nombres.contains(dto.nombre)) {
+      error = "Tarea \"" + dto.nombre + "\" ya existente.";
+    }
+    if (error == null && descripciones.contains(dto.descripcion)) {
+      error = "Tarea con descripción \"" + dto.descripcion + "\" ya existe.";
+    }
+    return error;
+  }
+
+  /**
+   * Guarda un lote en una sola transacción y actualiza las estadísticas del usuario una vez. Al
+   * terminar se vacía el contexto de persistencia para que no crezca con cada lote.
+   */
+  private void guardarLote(Long usuarioId, List<FilaValida> lote) {
+    transactionTemplate.executeWithoutResult(
+        estado -> {
+          Usuario usuario = usuarioRepository.getReferenceById(usuarioId);
+          for (FilaValida fila : lote) {
+            fila.tarea().setUsuario(usuario);
+            entityManager.persist(fila.tarea());
+          }
+          usuarioEstadisticasService.registrarTareasCreadas(usuarioId, lote.size());
+          entityManager.flush();
+          entityManager.clear();
+        });
+  }
+}
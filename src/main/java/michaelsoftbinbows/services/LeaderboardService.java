@@ -0,0 +1,171 @@
+package michaelsoftbinbows.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import michaelsoftbinbows.data.UsuarioRepository;
+import michaelsoftbinbows.dto.PuntosUsuarioDto;
+import michaelsoftbinbows.entities.Usuario;
+import michaelsoftbinbows.util.RankingOrdenado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Servicio que mantiene el ranking de la temporada en memoria. Guarda solo (puntosLiga, id) de cada
+ * usuario en un árbol ordenado, así que pedir el top, la posición de un usuario o sus vecinos no
+ * requiere ordenar la tabla de usuarios en cada petición. Se reconstruye desde la BD al iniciar la
+ * aplicación y después de cada reseteo de temporada, y se actualiza cuando cambian los puntos.
+ */
+@Service
+public class LeaderboardService {
+
+  @Autowired private UsuarioRepository usuarioRepository;
+
+  private final RankingOrdenado ranking = new RankingOrdenado();
+  // Puntos con los que cada usuario está guardado en el árbol (necesarios para ubicarlo).
+  private final Map<Long, Integer> puntosPorUsuario = new HashMap<>();
+  private boolean cargado = false;
+
+  /** Vuelve a cargar el ranking completo desde la base de datos. */
+  public synchronized void reconstruir() {
+    List<PuntosUsuarioDto> puntos = usuarioRepository.findPuntosDeTodos();
+    ranking.limpiar();
+    puntosPorUsuario.clear();
+    for (PuntosUsuarioDto entrada : puntos) {
+      ranking.insertar(entrada.getPuntosLiga(), entrada.getId());
+      puntosPorUsuario.put(entrada.getId(), entrada.getPuntosLiga());
+    }
+    cargado = true;
+    System.out.println("LOG: Ranking reconstruido con " + puntos.size() + " usuarios.");
+  }
+
+  /**
+   * Registra los puntos actuales de un usuario (lo agrega si no estaba en el ranking). Si hay una
+   * transacción en curso, el cambio se aplica recién cuando se confirma: si se revierte, el ranking
+   * no debe quedar adelantado a la BD.
+   *
+   * @param usuarioId El ID del usuario.
+   * @param puntosLiga Sus puntos de liga actuales.
+   */
+  public void actualizarPuntos(Long usuarioId, int puntosLiga) {
+    if (usuarioId == null) {
+      return;
+    }
+    alConfirmar(() -> aplicarPuntos(usuarioId, puntosLiga));
+  }
+
+  private synchronized void aplicarPuntos(Long usuarioId, int puntosLiga) {
+    asegurarCargado();
+    Integer anteriores = puntosPorUsuario.put(usuarioId, puntosLiga);
+    if (anteriores != null) {
+      if (anteriores == puntosLiga) {
+        return;
+      }
+      ranking.eliminar(anteriores, usuarioId);
+    }
+    ranking.insertar(puntosLiga, usuarioId);
+  }
+
+  /**
+   * Quita a un usuario del ranking (al borrar su cuenta). Igual que actualizarPuntos, espera a que
+   * se confirme la transacción en curso, si la hay.
+   *
+   * @param usuarioId El ID del usuario.
+   */
+  public void eliminar(Long usuarioId) {
+    alConfirmar(() -> quitar(usuarioId));
+  }
+
+  private synchronized void quitar(Long usuarioId) {
+    Integer puntos = puntosPorUsuario.remove(usuarioId);
+    if (puntos != null) {
+      ranking.eliminar(puntos, usuarioId);
+    }
+  }
+
+  /**
+   * Devuelve la posición de un usuario en el ranking.
+   *
+   * @param usuarioId El ID del usuario.
+   * @return La posición (empezando en 1), o 0 si el usuario no está en el ranking.
+   */
+  public synchronized int getPosicion(Long usuarioId) {
+    asegurarCargado();
+    Integer puntos = puntosPorUsuario.get(usuarioId);
+    if (puntos == null) {
+      return 0;
+    }
+    return ranking.posicion(puntos, usuarioId) + 1;
+  }
+
+  /**
+   * Obtiene los mejores usuarios de la temporada, ordenados por puntos de liga.
+   *
+   * @param limite El número de usuarios a incluir.
+   * @return La lista del top (puede ser más corta si hay menos usuarios).
+   */
+  public List<Usuario> getTop(int limite) {
+    return cargarEnOrden(idsEnRango(0, limite));
+  }
+
+  /**
+   * Obtiene los usuarios que rodean a uno dado en el ranking, incluyéndolo a él.
+   *
+   * @param usuarioId El ID del usuario.
+   * @param radio Cuántos usuarios mostrar por encima y por debajo.
+   * @return La lista ordenada, o vacía si el usuario no está en el ranking.
+   */
+  public List<Usuario> getVecinos(Long usuarioId, int radio) {
+    int posicion = getPosicion(usuarioId);
+    if (posicion == 0) {
+      return new ArrayList<>();
+    }
+    int desde = Math.max(0, posicion - 1 - radio);
+    return cargarEnOrden(idsEnRango(desde, posicion - 1 - desde + radio + 1));
+  }
+
+  private synchronized List<Long> idsEnRango(int desde, int cantidad) {
+    asegurarCargado();
+    return ranking.rango(desde, cantidad);
+  }
+
+  private void asegurarCargado() {
+    if (!cargado) {
+      reconstruir();
+    }
+  }
+
+  /**
+   * Carga las entidades de los IDs pedidos con una sola consulta por clave primaria y las devuelve
+   * en el mismo orden del ranking. Los usuarios que ya no existan se omiten.
+   */
+  private List<Usuario> cargarEnOrden(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    Map<Long, Usuario> porId = new HashMap<>();
+    for (Usuario usuario : usuarioRepository.findAllById(ids)) {
+      porId.put(usuario.getId(), usuario);
+    }
+    return ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+  }
+
+  /** Ejecuta el cambio después del commit de la transacción en curso, o de inmediato si no hay. */
+  private static void alConfirmar(Runnable cambio) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      cambio.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            cambio.run();
+          }
+        });
+  }
+}
@@ -0,0 +1,128 @@
+package michaelsoftbinbows.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import michaelsoftbinbows.dto.PaginaUsuariosAdminDto;
+import michaelsoftbinbows.dto.UsuarioAdminDto;
+import michaelsoftbinbows.model.OrdenUsuariosAdmin;
+import michaelsoftbinbows.model.Rol;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio para el listado de usuarios del panel de admin. Las filas se leen como UsuarioAdminDto
+ * (sin cargar entidades) y se paginan con cursor (keyset): cada página sigue desde el valor de
+ * orden y el ID del último usuario de la anterior, así que pedir una página lejana cuesta lo mismo
+ * que la primera. La búsqueda y el filtro por rol se resuelven en la BD.
+ */
+@Service
+public class ListadoUsuariosAdminService {
+
+  /** Usuarios por página en el panel. */
+  public static final int TAMANO_PAGINA = 50;
+
+  // Máximo de usuarios que se puede pedir en una sola página
+  private static final int MAX_TAMANO = 200;
+
+  private static final String SELECT_DTO =
+      "SELECT new michaelsoftbinbows.dto.UsuarioAdminDto(u.id, u.nombreUsuario,"
+          + " u.correoElectronico, u.rol, u.nivelExperiencia, u.liga, u.puntosLiga) FROM Usuario u";
+
+  @PersistenceContext private EntityManager entityManager;
+
+  /**
+   * Obtiene una página del listado.
+   *
+   * @param busqueda Texto a buscar en el nombre o el correo, sin distinguir mayúsculas (opcional).
+   * @param rol Rol por el que filtrar (opcional).
+   * @param orden Columna de orden.
+   * @param despues Valor de orden del último usuario de la página anterior (null para la primera).
+   * @param despuesId ID del último usuario de la página anterior (null para la primera).
+   * @param tamano Cantidad de usuarios por página.
+   * @return La página, con el cursor para pedir la siguiente.
+   * @throws IllegalArgumentException Si el tamaño no es válido o el cursor no corresponde al orden.
+   */
+  public PaginaUsuariosAdminDto obtenerPagina(
+      String busqueda,
+      Rol rol,
+      OrdenUsuariosAdmin orden,
+      String despues,
+      Long despuesId,
+      int tamano) {
+    if (tamano < 1 || tamano > MAX_TAMANO) {
+      throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_TAMANO);
+    }
+    boolean conBusqueda = busqueda != null && !busqueda.isBlank();
+    boolean conCursor = despues != null && despuesId != null;
+    Object valorCursor = conCursor ? orden.leerCursor(despues) : null;
+
+    StringBuilder jpql = new StringBuilder(SELECT_DTO).append(" WHERE 1 = 1");
+    if (conBusqueda) {
+      jpql.append(
+          " AND (LOWER(u.nombreUsuario) LIKE :patron ESCAPE '!'"
+              + " OR LOWER(u.correoElectronico) LIKE :patron ESCAPE '!')");
+    }
+    if (rol != null) {
+      jpql.append(" AND u.rol = :rol");
+    }
+    if (conCursor) {
+      String comparador = orden.isAscendente() ? " > " : " < ";
+      jpql.append(" AND (")
+          .append(orden.getColumna())
+          .append(comparador)
+          .append(":valor OR (")
+          .append(orden.getColumna())
+          .append(" = :valor AND u.id > :id))");
+    }
+    jpql.append(" ORDER BY ")
+        .append(orden.getColumna())
+        .append(orden.isAscendente() ? " ASC" : " DESC")
+        .append(", u.id ASC");
+
+    TypedQuery<UsuarioAdminDto> query =
+        entityManager.createQuery(jpql.toString(), UsuarioAdminDto.class);
+    if (conBusqueda) {
+      query.setParameter("patron", "%" + escaparLike(busqueda.trim()) + "%");
+    }
+    if (rol != null) {
+      query.setParameter("rol", rol);
+    }
+    if (conCursor) {
+      query.setParameter("valor", valorCursor);
+      query.setParameter("id", despuesId);
+    }
+    // Se pide una fila de más solo para saber si hay otra página
+    List<UsuarioAdminDto> filas = query.setMaxResults(tamano + 1).getResultList();
+
+    boolean hayMas = filas.size() > tamano;
+    List<UsuarioAdminDto> usuarios = hayMas ? filas.subList(0, tamano) : filas;
+    if (!hayMas) {
+      return new PaginaUsuariosAdminDto(usuarios, false, null, null);
+    }
+    UsuarioAdminDto ultimo = usuarios.get(usuarios.size() - 1);
+    return new PaginaUsuariosAdminDto(usuarios, true, orden.valorCursor(ultimo), ultimo.getId());
+  }
+
+  /**
+   * Busca la fila de un usuario por su correo, para mostrarlo aunque no esté en la página actual
+   * (ej. el usuario preseleccionado al añadir una tarea).
+   *
+   * @param correo El correo del usuario.
+   * @return La fila del usuario, o vacío si no existe.
+   */
+  public Optional<UsuarioAdminDto> buscarPorCorreo(String correo) {
+    return entityManager
+        .createQuery(SELECT_DTO + " WHERE u.correoElectronico = :correo", UsuarioAdminDto.class)
+        .setParameter("correo", correo)
+        .getResultStream()
+        .findFirst();
+  }
+
+  /** Pasa el texto a minúsculas y escapa los comodines de LIKE para buscarlo tal cual. */
+  private static String escaparLike(String texto) {
+    return texto.toLowerCase(Locale.ROOT).replace("!", "!!").replace("%", "!%").replace("_", "!_");
+  }
+}
@@ -19,6 +19,9 @@ public class LogroService {
 
   @Autowired private LogroRepository logroRepository;
 
+  // Copia en memoria de los logros activos. Se descarta cada vez que se guarda o elimina un logro.
+  private volatile List<Logro> cacheActivos;
+
   /**
    * Obtiene la lista de todos los logros disponibles.
    *
@@ -40,6 +43,21 @@ public class LogroService {
     return logroRepository.findAllByActivo(true);
   }
 
+  /**
+   * Obtiene los logros activos desde la copia en memoria, consultando la BD solo la primera vez o
+   * después de que un logro haya sido modificado.
+   *
+   * @return Una lista inmutable de objetos Logro activos.
+   */
+  public List<Logro> obtenerActivosEnCache() {
+    List<Logro> activos = cacheActivos;
+    if (activos == null) {
+      activos = List.copyOf(logroRepository.findAllByActivo(true));
+      cacheActivos = activos;
+    }
+    return activos;
+  }
+
   /**
    * Obtiene un logro específico por su ID.
    *
@@ -57,7 +75,9 @@ public class LogroService {
    * @return El Logro guardado (puede incluir un ID actualizado).
    */
   public Logro guardar(Logro logro) {
-    return logroRepository.save(logro);
+    Logro guardado = logroRepository.save(logro);
+    cacheActivos = null;
+    return guardado;
   }
 
   /**
@@ -67,6 +87,7 @@ public class LogroService {
    */
   public void eliminar(String id) {
     logroRepository.deleteById(id);
+    cacheActivos = null;
   }
 
   /**
@@ -0,0 +1,113 @@
+package michaelsoftbinbows.services;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import michaelsoftbinbows.data.UsuarioRepository;
+import michaelsoftbinbows.exceptions.WeatherApiException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tarea programada que refresca por adelantado el clima de las ciudades de los usuarios activos,
+ * para que al cargar el home el clima ya esté en la caché de WeatherService. Las consultas se hacen
+ * en paralelo con un máximo de hilos simultáneos y con una pausa entre cada una, para no superar la
+ * cuota de la API. Con esas pausas una precarga puede durar minutos; ocupa uno de los hilos del
+ * scheduler (spring.task.scheduling.pool.size) sin atrasar a las otras tareas programadas.
+ */
+@Service
+public class PrecargaClimaService {
+
+  @Autowired private UsuarioRepository usuarioRepository;
+  @Autowired private WeatherService weatherService;
+
+  @Value("${weather.precarga.habilitada:true}")
+  private boolean habilitada;
+
+  // Solo se precargan ciudades de usuarios que entraron en los últimos N días.
+  @Value("${weather.precarga.dias-actividad:7}")
+  private long diasActividad;
+
+  // Se refrescan las respuestas que vencen dentro de este margen.
+  @Value("${weather.precarga.margen-segundos:120}")
+  private long margenSegundos;
+
+  @Value("${weather.precarga.paralelismo:4}")
+  private int paralelismo;
+
+  @Value("${weather.precarga.max-por-minuto:50}")
+  private int maxPorMinuto;
+
+  /** Refresca el clima de todas las ciudades activas cuya respuesta falta o está por vencer. */
+  @Scheduled(
+      fixedDelayString = "${weather.precarga.intervalo-ms:300000}",
+      initialDelayString = "${weather.precarga.retraso-inicial-ms:60000}")
+  public void precargarClimaDeCiudadesActivas() {
+    if (!habilitada) {
+      return;
+    }
+    LocalDateTime desde = LocalDateTime.now(ZoneId.systemDefault()).minusDays(diasActividad);
+
+    // Varias formas de escribir la misma ciudad cuentan como una sola
+    Map<String, String> ciudades = new LinkedHashMap<>();
+    for (String ciudad : usuarioRepository.findCiudadesDeUsuariosActivosDesde(desde)) {
+      ciudades.putIfAbsent(WeatherService.normalizarCiudad(ciudad), ciudad);
+    }
+    List<String> pendientes = new ArrayList<>();
+    for (String ciudad : ciudades.values()) {
+      if (weatherService.necesitaRefresco(ciudad, margenSegundos)) {
+        pendientes.add(ciudad);
+      }
+    }
+    if (pendientes.isEmpty()) {
+      return;
+    }
+
+    System.out.println(
+        "LOG: Precargando el clima de "
+            + pendientes.size()
+            + " de "
+            + ciudades.size()
+            + " ciudades activas.");
+    AtomicInteger refrescadas = new AtomicInteger();
+    AtomicInteger fallidas = new AtomicInteger();
+    long pausaMs = 60_000L / Math.max(1, maxPorMinuto);
+    Semaphore cupos = new Semaphore(Math.max(1, paralelismo));
+
+    try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (String ciudad : pendientes) {
+        cupos.acquire();
+        ejecutor.execute(
+            () -> {
+              try {
+                weatherService.refrescar(ciudad);
+                refrescadas.incrementAndGet();
+              } catch (WeatherApiException e) {
+                fallidas.incrementAndGet();
+              } finally {
+                cupos.release();
+              }
+            });
+        Thread.sleep(pausaMs);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      System.out.println("LOG: Precarga del clima interrumpida.");
+    }
+    System.out.println(
+        "LOG: Precarga del clima terminada. Refrescadas: "
+            + refrescadas.get()
+            + ", fallidas: "
+            + fallidas.get()
+            + ".");
+  }
+}
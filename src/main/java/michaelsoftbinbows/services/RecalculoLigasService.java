@@ -0,0 +1,85 @@
+package michaelsoftbinbows.services;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.Map;
+import michaelsoftbinbows.dto.EstadoRecalculoLigasDto;
+import michaelsoftbinbows.model.TipoEventoLogro;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio que ejecuta el recálculo global de ligas en segundo plano, para que el admin no tenga
+ * que esperar a que termine. Si se pide otro recálculo mientras uno está en curso, se ejecuta uno
+ * más al terminar (con los límites más recientes) en vez de correr dos a la vez.
+ */
+@Service
+public class RecalculoLigasService {
+
+  @Autowired private UsuarioService usuarioService;
+  @Autowired private ReevaluacionLogrosService reevaluacionLogrosService;
+
+  private volatile EstadoRecalculoLigasDto estado =
+      new EstadoRecalculoLigasDto("SIN_EJECUTAR", null, null, Map.of(), null);
+
+  // Protegidos por 'this'
+  private boolean enCurso = false;
+  private boolean pendiente = false;
+
+  /** Lanza el recálculo global de ligas en otro hilo. */
+  @Async
+  public void recalcularEnSegundoPlano() {
+    synchronized (this) {
+      if (enCurso) {
+        pendiente = true;
+        return;
+      }
+      enCurso = true;
+    }
+    boolean repetir = true;
+    while (repetir) {
+      synchronized (this) {
+        pendiente = false;
+      }
+      ejecutar();
+      synchronized (this) {
+        repetir = pendiente;
+        enCurso = repetir;
+      }
+    }
+  }
+
+  /**
+   * Devuelve el estado del último recálculo.
+   *
+   * @return El estado actual (SIN_EJECUTAR, EN_CURSO, TERMINADO o ERROR).
+   */
+  public EstadoRecalculoLigasDto getEstado() {
+    return estado;
+  }
+
+  private void ejecutar() {
+    LocalDateTime inicio = LocalDateTime.now(ZoneId.systemDefault());
+    estado = new EstadoRecalculoLigasDto("EN_CURSO", inicio, null, Map.of(), null);
+    try {
+      UsuarioService.LigasRecalculadas resultado = usuarioService.recalcularLigasGlobal();
+      // El UPDATE masivo no pasa por los logros: se otorgan ahora los de liga a quienes cambiaron
+      reevaluacionLogrosService.reevaluar(
+          resultado.usuarioIds(), EnumSet.of(TipoEventoLogro.LIGA_CAMBIADA));
+      estado =
+          new EstadoRecalculoLigasDto(
+              "TERMINADO",
+              inicio,
+              LocalDateTime.now(ZoneId.systemDefault()),
+              resultado.movidos(),
+              null);
+    } catch (RuntimeException e) {
+      System.out.println("ERROR: Falló el recálculo global de ligas: " + e.getMessage());
+      estado =
+          new EstadoRecalculoLigasDto(
+              "ERROR", inicio, LocalDateTime.now(ZoneId.systemDefault()), Map.of(), e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,212 @@
+package michaelsoftbinbows.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import michaelsoftbinbows.data.RecomendacionClimaRepository;
+import michaelsoftbinbows.entities.RecomendacionClima;
+import michaelsoftbinbows.entities.Tarea;
+import michaelsoftbinbows.exceptions.TareaInvalidaException;
+import michaelsoftbinbows.model.CategoriaClima;
+import michaelsoftbinbows.util.TareaValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio para el catálogo de tareas recomendadas según el clima.
+ *
+ * <p>El catálogo se guarda en la BD, pero las consultas del home se responden desde un índice
+ * inmutable en memoria, separado por categoría de clima, con las tareas ya armadas. El índice se
+ * reconstruye completo cada vez que se modifica el catálogo desde este servicio (o al pedirlo desde
+ * el panel de administración) y se reemplaza de una sola vez, así que las lecturas nunca ven un
+ * índice a medio armar.
+ */
+@Service
+public class RecomendacionClimaService {
+
+  @Autowired private RecomendacionClimaRepository recomendacionClimaRepository;
+  private TareaValidator tareaValidator = new TareaValidator();
+
+  /** Tarea ya armada junto con el rango de temperatura en el que aplica. */
+  private record Entrada(Tarea tarea, RecomendacionClima datos) {}
+
+  /**
+   * Índice por categoría: las entradas con su rango de temperatura, y las tareas solas para cuando
+   * no hay temperatura con la que filtrar.
+   */
+  private record Indice(
+      Map<CategoriaClima, List<Entrada>> entradas, Map<CategoriaClima, List<Tarea>> tareas) {}
+
+  private volatile Indice indice =
+      new Indice(
+          Collections.unmodifiableMap(new EnumMap<>(CategoriaClima.class)),
+          Collections.unmodifiableMap(new EnumMap<>(CategoriaClima.class)));
+
+  /**
+   * Obtiene las tareas recomendadas para un clima, en orden de prioridad. Las tareas devueltas son
+   * plantillas compartidas: no deben modificarse ni guardarse.
+   *
+   * @param categoria La categoría del clima actual.
+   * @param temperatura La temperatura actual en °C, o null para no filtrar por temperatura.
+   * @return Las tareas recomendadas (lista inmutable, posiblemente vacía).
+   */
+  public List<Tarea> getRecomendaciones(CategoriaClima categoria, Double temperatura) {
+    Indice actual = indice;
+    if (temperatura == null) {
+      return actual.tareas().getOrDefault(categoria, List.of());
+    }
+    List<Tarea> resultado = new ArrayList<>();
+    for (Entrada entrada : actual.entradas().getOrDefault(categoria, List.of())) {
+      if (entrada.datos().admiteTemperatura(temperatura)) {
+        resultado.add(entrada.tarea());
+      }
+    }
+    return Collections.unmodifiableList(resultado);
+  }
+
+  /** Vuelve a leer el catálogo de la BD y reemplaza el índice en memoria. */
+  public synchronized void recargar() {
+    Map<CategoriaClima, List<Entrada>> entradas = new EnumMap<>(CategoriaClima.class);
+    for (RecomendacionClima recomendacion :
+        recomendacionClimaRepository.findByActivaTrueOrderByPrioridadAscIdAsc()) {
+      if (recomendacion.getCategoria() == null) {
+        continue;
+      }
+      try {
+        Tarea tarea = armarTarea(recomendacion);
+        entradas
+            .computeIfAbsent(recomendacion.getCategoria(), c -> new ArrayList<>())
+            .add(new Entrada(tarea, recomendacion));
+      } catch (TareaInvalidaException e) {
+        System.err.println(
+            "WARN: Recomendación por clima inválida (id "
+                + recomendacion.getId()
+                + "), se omite: "
+                + e.getMessage());
+      }
+    }
+
+    Map<CategoriaClima, List<Entrada>> entradasFinal = new EnumMap<>(CategoriaClima.class);
+    Map<CategoriaClima, List<Tarea>> tareas = new EnumMap<>(CategoriaClima.class);
+    entradas.forEach(
+        (categoria, lista) -> {
+          entradasFinal.put(categoria, List.copyOf(lista));
+          tareas.put(categoria, lista.stream().map(Entrada::tarea).toList());
+        });
+    indice =
+        new Indice(Collections.unmodifiableMap(entradasFinal), Collections.unmodifiableMap(tareas));
+    System.out.println(
+        "LOG: Catálogo de recomendaciones por clima cargado ("
+            + entradas.values().stream().mapToInt(List::size).sum()
+            + " activas).");
+  }
+
+  /** Si el catálogo está vacío, lo llena con las recomendaciones iniciales. */
+  public void crearCatalogoInicialSiFalta() {
+    if (recomendacionClimaRepository.count() > 0) {
+      return;
+    }
+    System.out.println("LOG: Creando catálogo inicial de recomendaciones por clima...");
+    recomendacionClimaRepository.saveAll(
+        List.of(
+            new RecomendacionClima(
+                "Salir a trotar", "Haz ejercicio al aire libre", "Medio", CategoriaClima.SOLEADO),
+            new RecomendacionClima(
+                "Leer un libro", "Disfruta de una lectura en casa", "Fácil", CategoriaClima.LLUVIA),
+            new RecomendacionClima(
+                "Ir al parque", "Pasea y relájate", "Fácil", CategoriaClima.NUBLADO),
+            new RecomendacionClima(
+                "Ver una película", "Relájate viendo una película", "Fácil", CategoriaClima.LLUVIA),
+            new RecomendacionClima(
+                "Jardinería", "Cuida tus plantas", "Medio", CategoriaClima.SOLEADO)));
+  }
+
+  /** Obtiene todo el catálogo (activas e inactivas) para el panel de administración. */
+  public List<RecomendacionClima> obtenerTodas() {
+    return recomendacionClimaRepository.findAllByOrderByCategoriaAscPrioridadAscIdAsc();
+  }
+
+  public Optional<RecomendacionClima> obtenerPorId(Long id) {
+    return recomendacionClimaRepository.findById(id);
+  }
+
+  /**
+   * Valida y guarda una recomendación (nueva o editada) y recarga el índice.
+   *
+   * @param recomendacion La recomendación a guardar.
+   * @throws TareaInvalidaException Si el nombre, la descripción o la dificultad no son válidos.
+   */
+  public void guardar(RecomendacionClima recomendacion) throws TareaInvalidaException {
+    armarTarea(recomendacion);
+    if (recomendacion.getCategoria() == null) {
+      throw new TareaInvalidaException(
+          "Debe elegir una categoría de clima.",
+          recomendacion.getNombre(),
+          recomendacion.getDescripcion());
+    }
+    if (recomendacion.getTemperaturaMinima() != null
+        && recomendacion.getTemperaturaMaxima() != null
+        && recomendacion.getTemperaturaMinima() > recomendacion.getTemperaturaMaxima()) {
+      throw new TareaInvalidaException(
+          "La temperatura mínima no puede ser mayor que la temperatura máxima.",
+          recomendacion.getNombre(),
+          recomendacion.getDescripcion());
+    }
+    recomendacionClimaRepository.save(recomendacion);
+    recargar();
+  }
+
+  /**
+   * Activa o desactiva una recomendación y recarga el índice.
+   *
+   * @param id El ID de la recomendación.
+   * @return La recomendación modificada, o vacío si no existe.
+   */
+  public Optional<RecomendacionClima> alternarActiva(Long id) {
+    Optional<RecomendacionClima> recomendacion = recomendacionClimaRepository.findById(id);
+    recomendacion.ifPresent(
+        r -> {
+          r.setActiva(!r.isActiva());
+          recomendacionClimaRepository.save(r);
+          recargar();
+        });
+    return recomendacion;
+  }
+
+  /**
+   * Elimina una recomendación y recarga el índice.
+   *
+   * @param id El ID de la recomendación.
+   */
+  public void eliminar(Long id) {
+    recomendacionClimaRepository.deleteById(id);
+    recargar();
+  }
+
+  /**
+   * Arma la tarea que se sugiere al usuario. Se valida con las mismas reglas que usa TareaService
+   * al crear tareas, porque el home crea la recomendación como tarea del usuario.
+   */
+  private Tarea armarTarea(RecomendacionClima recomendacion) throws TareaInvalidaException {
+    String nombre = recomendacion.getNombre();
+    String descripcion = recomendacion.getDescripcion();
+    String error = tareaValidator.nombreTareaValido(nombre);
+    if (error == null) {
+      error = tareaValidator.descripcionTareaValida(descripcion);
+    }
+    if (error == null) {
+      error = tareaValidator.dificultadValida(recomendacion.getDificultad());
+    }
+    if (error != null) {
+      throw new TareaInvalidaException(error, nombre, descripcion);
+    }
+    Tarea tarea = new Tarea(nombre, descripcion, recomendacion.getDificultad());
+    if (recomendacion.getCategoria() != null) {
+      tarea.setClimaCompatible(recomendacion.getCategoria().getEtiqueta());
+    }
+    return tarea;
+  }
+}
@@ -0,0 +1,76 @@
+package michaelsoftbinbows.services;
+
+import java.util.List;
+import java.util.Set;
+import michaelsoftbinbows.data.UsuarioRepository;
+import michaelsoftbinbows.model.TipoEventoLogro;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio que vuelve a evaluar los logros de muchos usuarios fuera de su flujo normal: cuando
+ * cambian de liga por un UPDATE masivo (recálculo de ligas, reseteo de temporada), cuando el admin
+ * activa un logro y una vez al desplegar. Se procesa por lotes de usuarios, cada uno en su
+ * transacción.
+ */
+@Service
+public class ReevaluacionLogrosService {
+
+  @Autowired private UsuarioRepository usuarioRepository;
+  @Autowired private UsuarioService usuarioService;
+
+  // Usuarios que se evalúan por transacción.
+  @Value("${logros.reevaluacion.tamano-lote:500}")
+  private int tamanoLote = 500;
+
+  /**
+   * Evalúa los eventos indicados para una lista de usuarios.
+   *
+   * @param usuarioIds Los IDs de los usuarios.
+   * @param eventos Los eventos a procesar.
+   */
+  public void reevaluar(List<Long> usuarioIds, Set<TipoEventoLogro> eventos) {
+    for (int desde = 0; desde < usuarioIds.size(); desde += tamanoLote) {
+      List<Long> lote = usuarioIds.subList(desde, Math.min(desde + tamanoLote, usuarioIds.size()));
+      usuarioService.reevaluarLogros(lote, eventos);
+    }
+  }
+
+  /**
+   * Evalúa los eventos indicados para todos los usuarios, recorriéndolos por ID.
+   *
+   * @param eventos Los eventos a procesar.
+   * @return El número de usuarios evaluados.
+   */
+  public int reevaluarTodos(Set<TipoEventoLogro> eventos) {
+    long desdeId = 0;
+    int total = 0;
+    while (true) {
+      List<Long> ids = usuarioRepository.findIdsDesde(desdeId, PageRequest.of(0, tamanoLote));
+      if (ids.isEmpty()) {
+        return total;
+      }
+      usuarioService.reevaluarLogros(ids, eventos);
+      total += ids.size();
+      desdeId = ids.get(ids.size() - 1);
+    }
+  }
+
+  /**
+   * Igual que {@link #reevaluarTodos}, pero en otro hilo, para que el admin no espere.
+   *
+   * @param eventos Los eventos a procesar.
+   */
+  @Async
+  public void reevaluarTodosEnSegundoPlano(Set<TipoEventoLogro> eventos) {
+    try {
+      int total = reevaluarTodos(eventos);
+      System.out.println("LOG: Logros reevaluados para " + total + " usuarios.");
+    } catch (RuntimeException e) {
+      System.out.println("ERROR: Falló la reevaluación de logros: " + e.getMessage());
+    }
+  }
+}
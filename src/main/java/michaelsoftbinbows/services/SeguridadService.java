@@ -1,5 +1,6 @@
 package michaelsoftbinbows.services;
 
+import michaelsoftbinbows.dto.UsuarioAdminDto;
 import michaelsoftbinbows.entities.Usuario;
 import michaelsoftbinbows.model.Rol;
 import org.springframework.stereotype.Service;
@@ -24,20 +25,38 @@ public class SeguridadService {
     if (actor == null || objetivo == null) {
       return false;
     }
+    return puedeEditarRol(actor, objetivo.getRol());
+  }
 
+  /**
+   * Igual que {@link #puedeEditar(Usuario, Usuario)}, para una fila del listado de usuarios del
+   * panel de admin.
+   *
+   * @param actor El usuario que intenta realizar la acción (quien está logueado).
+   * @param objetivo La fila del usuario que va a ser editado.
+   * @return true si el actor tiene permiso, false en caso contrario.
+   */
+  public boolean puedeEditar(Usuario actor, UsuarioAdminDto objetivo) {
+    if (actor == null || objetivo == null) {
+      return false;
+    }
+    return puedeEditarRol(actor, objetivo.getRol());
+  }
+
+  private boolean puedeEditarRol(Usuario actor, Rol rolObjetivo) {
     // --- LÓGICA DE ROLES MEJORADA ---
 
     // Regla 1: Un ADMIN puede editar a cualquiera (MODERADOR o USUARIO),
     // pero no puede editar a otro ADMIN ni a sí mismo.
     if (actor.getRol() == Rol.ADMIN) {
-      return objetivo.getRol() != Rol.ADMIN;
+      return rolObjetivo != Rol.ADMIN;
     }
 
     // Regla 2: Un MODERADOR solo puede editar a usuarios con el rol USUARIO.
     // Esto previene que un moderador pueda siquiera intentar abrir el modal
     // para editar a otro moderador o a un admin.
     if (actor.getRol() == Rol.MODERADOR) {
-      return objetivo.getRol() == Rol.USUARIO;
+      return rolObjetivo == Rol.USUARIO;
     }
 
     // Un USUARIO no tiene permisos para editar a nadie.
@@ -57,9 +76,28 @@ public class SeguridadService {
     if (actor == null || objetivo == null) {
       return false;
     }
+    return puedeEliminar(actor, objetivo.getCorreoElectronico(), objetivo.getRol());
+  }
+
+  /**
+   * Igual que {@link #puedeEliminar(Usuario, Usuario)}, para una fila del listado de usuarios del
+   * panel de admin.
+   *
+   * @param actor El usuario que intenta realizar la acción.
+   * @param objetivo La fila del usuario que va a ser eliminado.
+   * @return true si el actor tiene permiso, false en caso contrario.
+   */
+  public boolean puedeEliminar(Usuario actor, UsuarioAdminDto objetivo) {
+    if (actor == null || objetivo == null) {
+      return false;
+    }
+    return puedeEliminar(actor, objetivo.getCorreoElectronico(), objetivo.getRol());
+  }
+
+  private boolean puedeEliminar(Usuario actor, String correoObjetivo, Rol rolObjetivo) {
     // Regla fundamental: Nadie puede eliminarse a sí mismo.
     // (Usamos el correo como identificador único para ser más seguros)
-    if (actor.getCorreoElectronico().equalsIgnoreCase(objetivo.getCorreoElectronico())) {
+    if (actor.getCorreoElectronico().equalsIgnoreCase(correoObjetivo)) {
       return false;
     }
 
@@ -68,12 +106,12 @@ public class SeguridadService {
     // Regla 1: Un ADMIN puede eliminar a MODERADORES y USUARIOS.
     if (actor.getRol() == Rol.ADMIN) {
       // La única restricción para un Admin es que no puede eliminar a otro Admin.
-      return objetivo.getRol() != Rol.ADMIN;
+      return rolObjetivo != Rol.ADMIN;
     }
 
     // Regla 2: Un MODERADOR solo puede eliminar a usuarios con el rol USUARIO.
     if (actor.getRol() == Rol.MODERADOR) {
-      return objetivo.getRol() == Rol.USUARIO;
+      return rolObjetivo == Rol.USUARIO;
     }
 
     // Si el actor no es ni ADMIN ni MODERADOR (es decir, es USUARIO), no puede eliminar a nadie.
@@ -1,20 +1,26 @@
 package michaelsoftbinbows.services;
 
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import michaelsoftbinbows.data.TareaRepository;
 import michaelsoftbinbows.data.UsuarioRepository;
+import michaelsoftbinbows.dto.ConflictosTareaDto;
+import michaelsoftbinbows.dto.PaginaHistorialDto;
 import michaelsoftbinbows.dto.TareaDto;
+import michaelsoftbinbows.dto.TareaHistorialDto;
 import michaelsoftbinbows.entities.Tarea;
 import michaelsoftbinbows.entities.Usuario;
 import michaelsoftbinbows.exceptions.EdicionTareaException;
 import michaelsoftbinbows.exceptions.TareaInvalidaException;
 import michaelsoftbinbows.exceptions.TareaPertenenciaException;
+import michaelsoftbinbows.model.CategoriaClima;
 import michaelsoftbinbows.util.Dificultad;
 import michaelsoftbinbows.util.TareaValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 /**
@@ -26,6 +32,10 @@ public class TareaService {
 
   @Autowired private TareaRepository tareaRepository;
   @Autowired private UsuarioRepository usuarioRepository;
+  @Autowired private UsuarioEstadisticasService usuarioEstadisticasService;
+  @Autowired private RecomendacionClimaService recomendacionClimaService;
+  @Autowired private ExpiracionTareasService expiracionTareasService;
+  @Autowired private ActividadDiariaService actividadDiariaService;
   private TareaValidator tareaValidator = new TareaValidator();
 
   /**
@@ -69,7 +79,31 @@ public class TareaService {
   }
 
   /**
-   * Crea una nueva tarea y la asocia a un usuario.
+   * Obtiene una página del historial de tareas completadas de un usuario, sin cargar sus tareas.
+   * Sin cursor devuelve las más recientes; con cursor, las completadas antes de esa tarea.
+   *
+   * @param usuarioId ID del usuario.
+   * @param antesDe Fecha de completado de la última tarea ya mostrada, o null.
+   * @param antesDeId ID de la última tarea ya mostrada, o null.
+   * @param tamano Número de tareas de la página.
+   * @return La página, indicando si quedan más.
+   */
+  public PaginaHistorialDto obtenerHistorial(
+      Long usuarioId, LocalDateTime antesDe, Long antesDeId, int tamano) {
+    // Se pide una fila de más solo para saber si hay otra página
+    PageRequest limite = PageRequest.of(0, tamano + 1);
+    List<TareaHistorialDto> tareas =
+        (antesDe == null || antesDeId == null)
+            ? tareaRepository.findHistorial(usuarioId, limite)
+            : tareaRepository.findHistorialAntesDe(usuarioId, antesDe, antesDeId, limite);
+    boolean hayMas = tareas.size() > tamano;
+    return new PaginaHistorialDto(hayMas ? tareas.subList(0, tamano) : tareas, hayMas);
+  }
+
+  /**
+   * Crea una nueva tarea y la asocia a un usuario. Los duplicados (nombre o descripción de otra
+   * tarea pendiente) se revisan en una sola consulta, y el usuario no se carga: basta una
+   * referencia para la llave foránea.
    *
    * @param tareaDto DTO con la información de la nueva tarea.
    * @param userId ID del usuario al que se asociará la tarea.
@@ -78,7 +112,6 @@ public class TareaService {
    */
   @Transactional
   public Tarea crear(TareaDto tareaDto, long userId) throws TareaInvalidaException {
-    var usuario = usuarioRepository.findById(userId).get();
     String error = tareaValidator.nombreTareaValido(tareaDto.nombre);
     if (error != null) {
       throw new TareaInvalidaException(error, tareaDto.nombre, tareaDto.descripcion);
@@ -92,25 +125,29 @@ public class TareaService {
       throw new TareaInvalidaException(error, tareaDto.nombre, tareaDto.descripcion);
     }
     Tarea tarea = new Tarea(tareaDto.nombre, tareaDto.descripcion, tareaDto.dificultad);
-    // This will handle duplicate validation and bidirectional relationship
-    if (tareaRepository.existsByNombreAndUsuarioIdAndFechaCompletadaIsNull(
-        tarea.getNombre(), userId)) {
+    ConflictosTareaDto conflictos =
+        tareaRepository.buscarConflictosPendientes(
+            userId, tarea.getNombre(), tarea.getDescripcion());
+    if (conflictos.isNombreRepetido()) {
       throw new TareaInvalidaException(
           "Tarea \"" + tarea.getNombre() + "\" ya existente.",
           tarea.getNombre(),
           tarea.getDescripcion());
     }
-    if (tareaRepository.existsByDescripcionAndUsuarioIdAndFechaCompletadaIsNull(
-        tarea.getDescripcion(), userId)) {
+    if (conflictos.isDescripcionRepetida()) {
       throw new TareaInvalidaException(
           "Tarea con descripción \"" + tarea.getDescripcion() + "\" ya existe.",
           tarea.getNombre(),
           tarea.getDescripcion());
     }
-    tarea.setUsuario(usuario);
+    tarea.setUsuario(usuarioRepository.getReferenceById(userId));
     // usuario.agregarTarea(tarea);
+    Tarea guardada = guardar(tarea);
+    usuarioEstadisticasService.registrarTareaCreada(userId);
+    expiracionTareasService.registrarExpiracion(
+        userId, guardada.getId(), guardada.getFechaExpiracion());
     System.out.println("Tarea '" + tarea.getNombre() + "' agregada exitosamente.");
-    return guardar(tarea);
+    return guardada;
   }
 
   @Transactional
@@ -132,13 +169,17 @@ public class TareaService {
       throw new EdicionTareaException(
           "Error: Los datos de la tarea actualizada no pueden ser nulos.", null);
     }
-    if (tareaRepository.existsByNombreAndUsuarioId(nombreOriginal, usuarioId) == false) {
+    // Se carga la tarea una sola vez; si no existe, no hay nada que actualizar
+    Tarea tareaAactualizar =
+        tareaRepository.findByNombreAndUsuarioId(nombreOriginal, usuarioId).orElse(null);
+    if (tareaAactualizar == null) {
       throw new EdicionTareaException(
           "Error: No se encontró la tarea '" + nombreOriginal + "' para actualizar.", null);
     }
-    if (tareaRepository.existsByNombreAndUsuarioIdAndFechaCompletadaIsNull(
-            tareaActualizada.nombre, usuarioId)
-        && !nombreOriginal.equalsIgnoreCase(tareaActualizada.nombre)) {
+    // Solo se busca un duplicado si el nombre realmente cambia
+    if (!nombreOriginal.equalsIgnoreCase(tareaActualizada.nombre)
+        && tareaRepository.existsByNombreAndUsuarioIdAndFechaCompletadaIsNull(
+            tareaActualizada.nombre, usuarioId)) {
       throw new EdicionTareaException(
           "Ya existe otra tarea con el nombre '"
               + tareaActualizada.nombre
@@ -160,13 +201,13 @@ public class TareaService {
       throw new TareaInvalidaException(
           error, tareaActualizada.nombre, tareaActualizada.descripcion);
     }
-    Tarea tareaAactualizar =
-        tareaRepository.findByNombreAndUsuarioId(nombreOriginal, usuarioId).get();
     tareaAactualizar.setNombre(tareaActualizada.nombre);
     tareaAactualizar.setDescripcion(tareaActualizada.descripcion);
     tareaAactualizar.setExp(Dificultad.obtenerExpPorDificultad(tareaActualizada.dificultad));
     tareaAactualizar.setFechaExpiracion(
         Dificultad.obtenerDiasPorDificultad(tareaActualizada.dificultad));
+    expiracionTareasService.registrarExpiracion(
+        usuarioId, tareaAactualizar.getId(), tareaAactualizar.getFechaExpiracion());
 
     System.out.println(
         "LOG: Tarea '"
@@ -194,10 +235,30 @@ public class TareaService {
    */
   @Transactional
   public void eliminar(Long id) {
-    if (tareaRepository.existsById(id) == false) {
-      throw new TareaPertenenciaException("Tarea con ID " + id + " no encontrada.", null);
+    Tarea tarea =
+        tareaRepository
+            .findById(id)
+            .orElseThrow(
+                () ->
+                    new TareaPertenenciaException("Tarea con ID " + id + " no encontrada.", null));
+    Long usuarioId = tarea.getUsuario() != null ? tarea.getUsuario().getId() : null;
+    boolean completada = tarea.isCompletada();
+    LocalDateTime fechaCompletada = tarea.getFechaCompletada();
+    int exp = tarea.getExp();
+    tareaRepository.delete(tarea);
+    expiracionTareasService.cancelar(id, usuarioId);
+
+    // Mantenemos las estadísticas del dueño. Borrar una tarea ya completada cambia el historial,
+    // así que en ese caso (poco común) se recalculan completas y se descuenta su día de actividad.
+    if (usuarioId != null) {
+      if (completada) {
+        usuarioEstadisticasService.reconstruir(usuarioId);
+        actividadDiariaService.registrarTareaEliminada(
+            usuarioId, fechaCompletada.toLocalDate(), exp, exp);
+      } else {
+        usuarioEstadisticasService.registrarPendientesEliminadas(usuarioId, 1);
+      }
     }
-    tareaRepository.deleteById(id);
     System.out.println("Tarea con ID " + id + " eliminada exitosamente.");
   }
 
@@ -242,6 +303,8 @@ public class TareaService {
 
       // 4. Guarda el usuario. Gracias a orphanRemoval=true, JPA borrará la tarea de la BD.
       usuarioRepository.save(usuario);
+      expiracionTareasService.cancelar(tareaParaEliminar.getId(), usuarioId);
+      usuarioEstadisticasService.registrarPendientesEliminadas(usuarioId, 1);
 
       System.out.println(
           "Tarea '"
@@ -257,57 +320,19 @@ public class TareaService {
     }
   }
 
-  private Tarea crearTareaBase(String nombre, String descripcion, String dificultad, String clima) {
-    try {
-      Tarea t = new Tarea(nombre, descripcion, dificultad);
-      t.setClimaCompatible(clima);
-      return t;
-    } catch (TareaInvalidaException e) {
-      return null;
-    }
-  }
-
   /**
-   * Obtiene una lista de tareas base recomendadas según el clima.
+   * Obtiene las tareas recomendadas según el clima, desde el catálogo en memoria.
    *
    * @param clima El clima actual (ej. "Soleado", "Lluvia").
    * @return Una lista de tareas compatibles con ese clima.
    */
   public List<Tarea> obtenerTareasRecomendadasPorClima(String clima) {
-    List<Tarea> base = new ArrayList<>();
-    Tarea t1 = crearTareaBase("Salir a trotar", "Haz ejercicio al aire libre", "Medio", "Soleado");
-    Tarea t2 =
-        crearTareaBase("Leer un libro", "Disfruta de una lectura en casa", "Fácil", "Lluvia");
-    Tarea t3 = crearTareaBase("Ir al parque", "Pasea y relájate", "Fácil", "Nublado");
-
-    if (t1 != null) {
-      base.add(t1);
-    }
-    if (t2 != null) {
-      base.add(t2);
-    }
-    if (t3 != null) {
-      base.add(t3);
-    }
-
-    // Declaración de t4 movida más cerca de su uso.
-    Tarea t4 =
-        crearTareaBase("Ver una película", "Relájate viendo una película", "Fácil", "Lluvia");
-    if (t4 != null) {
-      base.add(t4);
-    }
-
-    // Declaración de t5 movida más cerca de su uso.
-    Tarea t5 = crearTareaBase("Jardinería", "Cuida tus plantas", "Medio", "Soleado");
-    if (t5 != null) {
-      base.add(t5);
-    }
-
     if (clima == null) {
       return new ArrayList<>(); // <-- Evita el error si clima es null
     }
-
-    return base.stream().filter(t -> t.getClimaCompatible().equalsIgnoreCase(clima)).toList();
+    return CategoriaClima.desdeEtiqueta(clima)
+        .map(categoria -> recomendacionClimaService.getRecomendaciones(categoria, null))
+        .orElse(List.of());
   }
 
   /**
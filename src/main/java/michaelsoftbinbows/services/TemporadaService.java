@@ -1,40 +1,95 @@
 package michaelsoftbinbows.services;
 
-import jakarta.transaction.Transactional;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.TextStyle;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
+import michaelsoftbinbows.data.ConfiguracionRepository;
 import michaelsoftbinbows.data.SalonFamaRepository;
 import michaelsoftbinbows.data.UsuarioRepository;
+import michaelsoftbinbows.entities.Configuracion;
 import michaelsoftbinbows.entities.SalonFama;
 import michaelsoftbinbows.entities.Usuario;
+import michaelsoftbinbows.model.TipoEventoLogro;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Servicio encargado de gestionar la lógica de las temporadas, incluyendo el reseteo automático
  * mensual de puntos de liga.
+ *
+ * <p>El reseteo se hace por lotes de IDs con sentencias UPDATE masivas, cada lote en su propia
+ * transacción. El avance se guarda en la tabla de configuración, de modo que si la aplicación se
+ * cae a mitad del proceso, se retoma desde el último lote terminado al volver a iniciar.
  */
 @Service
 public class TemporadaService {
 
+  // Claves de configuración con el estado de un reseteo a medias.
+  private static final String CLAVE_EN_CURSO = "temporada_reseteo_en_curso";
+  private static final String CLAVE_ULTIMO_ID = "temporada_reseteo_ultimo_id";
+
   @Autowired private UsuarioRepository usuarioRepository;
 
   @Autowired private SalonFamaRepository salonFamaRepository;
 
+  @Autowired private ConfiguracionRepository configuracionRepository;
+
+  @Autowired private LeaderboardService leaderboardService;
+
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @Autowired private ReevaluacionLogrosService reevaluacionLogrosService;
+
+  // Número de usuarios que se resetean por cada transacción.
+  @Value("${temporada.reseteo.tamano-lote:500}")
+  private int tamanoLote;
+
+  /**
+   * Resultado de procesar un lote: el último ID alcanzado, cuántos usuarios se actualizaron y
+   * quiénes cambiaron de liga.
+   */
+  private record Lote(long hastaId, int actualizados, List<Long> cambiaronDeLiga) {}
+
   /**
    * El reseteo automático. El 'cron' está puesto para ejecutarse a las 00:00 del día 1 de cada mes.
    * * Para testear, cambiar temporalmente a: "@Scheduled(cron = "0 * * * * ?")" <-- (se ejecuta
    * CADA MINUTO)
    */
-  @Transactional
   @Scheduled(cron = "0 0 0 1 * ?")
   public void gestionarReseteoTemporada() {
     System.out.println("--- INICIANDO RESETEO DE TEMPORADA AUTOMÁTICO ---");
 
+    if (configuracionRepository.existsById(CLAVE_EN_CURSO)) {
+      // Quedó un reseteo a medias: el Salón de la Fama ya se guardó, solo falta terminarlo
+      System.out.println("--- HAY UN RESETEO SIN TERMINAR, SE CONTINÚA DONDE QUEDÓ ---");
+    } else {
+      transactionTemplate.executeWithoutResult(estado -> iniciarReseteoConSalonFama());
+    }
+    completarReseteo();
+  }
+
+  /**
+   * Si la aplicación se detuvo durante un reseteo, lo termina. Se llama al iniciar la aplicación.
+   */
+  public void reanudarReseteoPendiente() {
+    if (configuracionRepository.existsById(CLAVE_EN_CURSO)) {
+      System.out.println("--- RETOMANDO RESETEO DE TEMPORADA INTERRUMPIDO ---");
+      completarReseteo();
+    }
+  }
+
+  /**
+   * Guarda a los 3 ganadores en el Salón de la Fama y marca el reseteo como iniciado, todo en la
+   * misma transacción (así nunca se guarda un Salón de la Fama con puntos ya reseteados).
+   */
+  private void iniciarReseteoConSalonFama() {
     // Borramos a los ganadores del mes.
     salonFamaRepository.deleteAll();
 
@@ -68,25 +123,74 @@ public class TemporadaService {
     }
     System.out.println("--- SALÓN DE LA FAMA GUARDADO (" + ganadores.size() + " jugadores) ---");
 
-    // 1. Buscamos a TODOS los usuarios
-    List<Usuario> todosLosUsuarios = usuarioRepository.findAll();
+    configuracionRepository.save(new Configuracion(CLAVE_EN_CURSO, temporadaNombre));
+    configuracionRepository.save(new Configuracion(CLAVE_ULTIMO_ID, "0"));
+  }
+
+  /** Resetea los puntos de todos los usuarios lote a lote, desde el último lote guardado. */
+  private void completarReseteo() {
+    long ultimoId =
+        configuracionRepository
+            .findById(CLAVE_ULTIMO_ID)
+            .map(config -> Long.parseLong(config.getValor()))
+            .orElse(0L);
+    long total = usuarioRepository.count();
+    long procesados = 0;
 
-    // 2. Reseteamos los puntos
-    for (Usuario usuario : todosLosUsuarios) {
-      usuario.resetearPuntosLiga();
+    while (true) {
+      long desde = ultimoId;
+      Lote lote = transactionTemplate.execute(estado -> resetearLote(desde));
+      if (lote == null) {
+        break;
+      }
+      ultimoId = lote.hastaId();
+      procesados += lote.actualizados();
+      // El UPDATE masivo no pasa por los logros: se evalúan los de liga de quienes cambiaron
+      reevaluacionLogrosService.reevaluar(
+          lote.cambiaronDeLiga(), EnumSet.of(TipoEventoLogro.LIGA_CAMBIADA));
+      System.out.println(
+          "LOG: Reseteo de temporada: "
+              + procesados
+              + "/"
+              + total
+              + " usuarios (hasta ID "
+              + ultimoId
+              + ").");
     }
 
-    // 3. Guardamos todos los cambios en la base de datos
-    usuarioRepository.saveAll(todosLosUsuarios);
+    transactionTemplate.executeWithoutResult(
+        estado -> {
+          configuracionRepository.deleteById(CLAVE_ULTIMO_ID);
+          configuracionRepository.deleteById(CLAVE_EN_CURSO);
+        });
+
+    // Todos vuelven a 0 puntos: el ranking en memoria se carga de nuevo
+    leaderboardService.reconstruir();
 
     System.out.println("--- RESETEO DE TEMPORADA COMPLETADO ---");
   }
 
+  /**
+   * Resetea el siguiente lote de usuarios y guarda el avance en la misma transacción.
+   *
+   * @return El lote procesado, o null si ya no quedan usuarios.
+   */
+  private Lote resetearLote(long desdeId) {
+    List<Long> ids = usuarioRepository.findIdsDesde(desdeId, PageRequest.of(0, tamanoLote));
+    if (ids.isEmpty()) {
+      return null;
+    }
+    long hastaId = ids.get(ids.size() - 1);
+    List<Long> cambiaronDeLiga = usuarioRepository.findIdsFueraDeBronceEntre(desdeId, hastaId);
+    int actualizados = usuarioRepository.resetearPuntosLigaEntre(desdeId, hastaId);
+    configuracionRepository.save(new Configuracion(CLAVE_ULTIMO_ID, String.valueOf(hastaId)));
+    return new Lote(hastaId, actualizados, cambiaronDeLiga);
+  }
+
   /**
    * Esta es la función que llamará el Admin para probar. Simplemente llama al mismo método de
    * reseteo.
    */
-  @Transactional
   public void forzarReseteoManual() {
     System.out.println("--- INICIANDO RESETEO DE TEMPORADA MANUAL (ADMIN) ---");
     // Reutilizamos la misma lógica
@@ -0,0 +1,138 @@
+package michaelsoftbinbows.services;
+
+import jakarta.transaction.Transactional;
+import java.util.List;
+import michaelsoftbinbows.data.TareaRepository;
+import michaelsoftbinbows.data.UsuarioEstadisticasRepository;
+import michaelsoftbinbows.entities.Tarea;
+import michaelsoftbinbows.entities.UsuarioEstadisticas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio que mantiene las estadísticas agregadas de cada usuario (tareas completadas, pendientes,
+ * experiencia total, etc.). Los contadores se actualizan en la misma transacción que el cambio de
+ * la tarea; si un usuario aún no tiene estadísticas, se reconstruyen desde sus tareas.
+ */
+@Service
+public class UsuarioEstadisticasService {
+
+  @Autowired private UsuarioEstadisticasRepository estadisticasRepository;
+  @Autowired private TareaRepository tareaRepository;
+
+  /**
+   * Obtiene las estadísticas de un usuario, reconstruyéndolas si todavía no existen.
+   *
+   * @param usuarioId El ID del usuario.
+   * @return Las estadísticas del usuario.
+   */
+  @Transactional
+  public UsuarioEstadisticas obtener(Long usuarioId) {
+    return estadisticasRepository.findById(usuarioId).orElseGet(() -> reconstruir(usuarioId));
+  }
+
+  /**
+   * Registra que se creó una nueva tarea pendiente para el usuario.
+   *
+   * @param usuarioId El ID del usuario.
+   */
+  @Transactional
+  public void registrarTareaCreada(Long usuarioId) {
+    registrarTareasCreadas(usuarioId, 1);
+  }
+
+  /**
+   * Registra varias tareas pendientes nuevas del usuario con una sola actualización.
+   *
+   * @param usuarioId El ID del usuario.
+   * @param cantidad El número de tareas creadas.
+   */
+  @Transactional
+  public void registrarTareasCreadas(Long usuarioId, int cantidad) {
+    if (cantidad > 0) {
+      actualizar(usuarioId, estadisticasRepository.sumarPendientes(usuarioId, cantidad));
+    }
+  }
+
+  /**
+   * Registra que una tarea pendiente del usuario fue completada.
+   *
+   * @param usuarioId El ID del usuario.
+   * @param tarea La tarea recién completada (con su fecha de completado ya asignada).
+   */
+  @Transactional
+  public void registrarTareaCompletada(Long usuarioId, Tarea tarea) {
+    actualizar(
+        usuarioId,
+        estadisticasRepository.registrarCompletada(
+            usuarioId,
+            tarea.getExp(),
+            tarea.getFechaCompletada(),
+            tarea.isCompletadaEnLaManana(),
+            tarea.isCompletadaAlLimite()));
+  }
+
+  /**
+   * Registra que tareas pendientes del usuario fueron eliminadas o expiraron.
+   *
+   * @param usuarioId El ID del usuario.
+   * @param cantidad El número de tareas pendientes eliminadas.
+   */
+  @Transactional
+  public void registrarPendientesEliminadas(Long usuarioId, int cantidad) {
+    if (cantidad > 0) {
+      actualizar(usuarioId, estadisticasRepository.restarPendientes(usuarioId, cantidad));
+    }
+  }
+
+  /**
+   * Completa una actualización atómica (UPDATE ... SET x = x + n, sin leer la fila antes, para que
+   * dos peticiones simultáneas del mismo usuario no pierdan incrementos). Si el UPDATE no tocó
+   * ninguna fila el usuario no tenía estadísticas, y se reconstruyen desde la BD, lo que ya incluye
+   * el cambio que se estaba registrando.
+   */
+  private void actualizar(Long usuarioId, int filasActualizadas) {
+    if (filasActualizadas == 0) {
+      reconstruir(usuarioId);
+    }
+  }
+
+  /**
+   * Recalcula desde cero las estadísticas de un usuario recorriendo todas sus tareas.
+   *
+   * @param usuarioId El ID del usuario.
+   * @return Las estadísticas recalculadas y guardadas.
+   */
+  @Transactional
+  public UsuarioEstadisticas reconstruir(Long usuarioId) {
+    UsuarioEstadisticas estadisticas = new UsuarioEstadisticas(usuarioId);
+    for (Tarea tarea : tareaRepository.findAllByUsuarioId(usuarioId)) {
+      estadisticas.sumarTarea(tarea);
+    }
+    return estadisticasRepository.save(estadisticas);
+  }
+
+  /**
+   * Reconstruye las estadísticas de todos los usuarios que aún no las tienen. Pensado para poblar
+   * la tabla con los datos existentes al iniciar la aplicación.
+   *
+   * @return El número de usuarios procesados.
+   */
+  public int reconstruirFaltantes() {
+    List<Long> ids = estadisticasRepository.findIdsUsuariosSinEstadisticas();
+    for (Long usuarioId : ids) {
+      reconstruir(usuarioId);
+    }
+    return ids.size();
+  }
+
+  /**
+   * Elimina las estadísticas de un usuario (al borrar su cuenta).
+   *
+   * @param usuarioId El ID del usuario.
+   */
+  @Transactional
+  public void eliminar(Long usuarioId) {
+    estadisticasRepository.deleteById(usuarioId);
+  }
+}
@@ -1,27 +1,34 @@
 package michaelsoftbinbows.services;
 
 import jakarta.transaction.Transactional;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import michaelsoftbinbows.data.UsuarioLogroRepository;
 import michaelsoftbinbows.data.UsuarioRepository;
+import michaelsoftbinbows.dto.ClimaActual;
 import michaelsoftbinbows.dto.TopJugadorLogrosDto;
+import michaelsoftbinbows.dto.UsuarioAdminDto;
 import michaelsoftbinbows.entities.Tarea;
 import michaelsoftbinbows.entities.Usuario;
 import michaelsoftbinbows.exceptions.EdicionUsuarioException;
 import michaelsoftbinbows.exceptions.RegistroInvalidoException;
 import michaelsoftbinbows.model.Rol;
+import michaelsoftbinbows.model.TipoEventoLogro;
 import michaelsoftbinbows.util.SistemaNiveles;
 import michaelsoftbinbows.util.UsuarioValidator;
-import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 /**
@@ -35,15 +42,26 @@ public class UsuarioService {
   @Autowired private ConfiguracionService configuracionService;
   @Autowired private GestorLogrosService gestorLogrosService;
   @Autowired private WeatherService weatherService;
+  @Autowired private UsuarioEstadisticasService usuarioEstadisticasService;
+  @Autowired private ActividadDiariaService actividadDiariaService;
+  @Autowired private UsuarioLogroRepository usuarioLogroRepository;
+  @Autowired private LeaderboardService leaderboardService;
+  @Autowired private ExpiracionTareasService expiracionTareasService;
   private UsuarioValidator usuarioValidator = new UsuarioValidator();
 
+  // Segundos que se reutiliza el resumen de logros del panel de admin antes de recalcularlo.
+  @Value("${logros.resumen.refresco-segundos:60}")
+  private long refrescoResumenLogros;
+
+  private volatile ResumenLogros resumenLogros;
+
   /**
-   * Obtiene una lista de todos los usuarios registrados.
+   * Obtiene una lista de todos los usuarios registrados, solo con sus datos principales.
    *
-   * @return Lista de todos los usuarios.
+   * @return Lista de todos los usuarios, sin sus tareas ni logros.
    */
-  public List<Usuario> obtenerTodos() {
-    return usuarioRepository.findAll();
+  public List<UsuarioAdminDto> obtenerTodos() {
+    return usuarioRepository.findTodosResumidos();
   }
 
   /**
@@ -59,6 +77,29 @@ public class UsuarioService {
     return usuarioRepository.findById(id);
   }
 
+  /**
+   * Obtiene un usuario por su ID junto con sus logros desbloqueados, en una sola consulta.
+   *
+   * @param id El ID del usuario.
+   * @return Un Optional con el usuario si existe.
+   */
+  public Optional<Usuario> obtenerPerfilPorId(Long id) {
+    if (id == null) {
+      return Optional.empty();
+    }
+    return usuarioRepository.findPerfilById(id);
+  }
+
+  /**
+   * Verifica si existe un usuario con ese ID, sin cargarlo.
+   *
+   * @param id El ID del usuario.
+   * @return true si existe.
+   */
+  public boolean existePorId(Long id) {
+    return usuarioRepository.existsById(id);
+  }
+
   @Transactional
   /**
    * Guarda un nuevo usuario, validando todos sus campos.
@@ -71,7 +112,7 @@ public class UsuarioService {
   public Usuario guardarUsuario(Usuario usuario)
       throws EdicionUsuarioException, RegistroInvalidoException {
     validarUsuarioCompleto(usuario, true);
-    return usuarioRepository.save(usuario);
+    return registrarEnRanking(usuarioRepository.save(usuario));
   }
 
   @Transactional
@@ -88,6 +129,10 @@ public class UsuarioService {
     }
     if (usuarioRepository.existsById(id)) {
       usuarioRepository.deleteById(id);
+      usuarioEstadisticasService.eliminar(id);
+      actividadDiariaService.eliminar(id);
+      expiracionTareasService.cancelarDeUsuario(id);
+      leaderboardService.eliminar(id);
       System.out.println("LOG: Usuario borrado en la base de datos.");
     } else {
       System.out.println("LOG: Usuario no existe en la base de datos.");
@@ -161,7 +206,13 @@ public class UsuarioService {
    */
   public Usuario guardarSinValidarContrasena(Usuario usuario) throws RegistroInvalidoException {
     validarUsuarioCompleto(usuario, false);
-    return usuarioRepository.save(usuario);
+    return registrarEnRanking(usuarioRepository.save(usuario));
+  }
+
+  // Mantiene el ranking en memoria al día con los usuarios recién guardados.
+  private Usuario registrarEnRanking(Usuario usuario) {
+    leaderboardService.actualizarPuntos(usuario.getId(), usuario.getPuntosLiga());
+    return usuario;
   }
 
   /**
@@ -242,14 +293,14 @@ public class UsuarioService {
     if (ciudadInput != null && !ciudadInput.trim().isEmpty()) {
       try {
         // Llamada a la API con lo que escribió el usuario (ej: "Curico")
-        String jsonResponse = weatherService.getWeatherByCity(ciudadInput);
-
-        // Parseamos la respuesta
-        JSONObject json = new JSONObject(jsonResponse);
+        ClimaActual clima = weatherService.getClimaActual(ciudadInput);
 
         // Obtenemos el nombre OFICIAL y el PAÍS (ej: "Curicó" y "CL")
-        String nombreOficial = json.getString("name");
-        String pais = json.getJSONObject("sys").getString("country");
+        String nombreOficial = clima.nombre();
+        String pais = clima.pais();
+        if (nombreOficial == null || pais == null) {
+          throw new IllegalStateException("La API no devolvió el nombre o el país de la ciudad.");
+        }
 
         // Guardamos el formato correcto: "Curicó, CL"
         usuario.setCiudad(nombreOficial + "," + pais);
@@ -310,6 +361,10 @@ public class UsuarioService {
       throw new IllegalArgumentException("No se encontró el usuario con el correo proporcionado.");
     }
     usuarioRepository.delete(usuario);
+    usuarioEstadisticasService.eliminar(usuario.getId());
+    actividadDiariaService.eliminar(usuario.getId());
+    expiracionTareasService.cancelarDeUsuario(usuario.getId());
+    leaderboardService.eliminar(usuario.getId());
   }
 
   // Metodos para manejar las tareas de los usuarios
@@ -352,7 +407,7 @@ public class UsuarioService {
       usuario.getTareasCompletadas().forEach(t -> t.setUsuario(usuario));
     }
 
-    return usuarioRepository.save(usuario);
+    return registrarEnRanking(usuarioRepository.save(usuario));
   }
 
   /**
@@ -376,20 +431,13 @@ public class UsuarioService {
   }
 
   /**
-   * Obtiene una lista paginada de usuarios ordenada por sus puntos de liga.
+   * Obtiene los mejores usuarios ordenados por sus puntos de liga, usando el ranking en memoria.
    *
    * @param limite El número de usuarios a incluir en el "top".
    * @return Una lista de usuarios del top.
    */
   public List<Usuario> getTopUsuarios(int limite) {
-    // Crea un "pedido" para la primera página (página 0) con el tamano del límite
-    Pageable topN = PageRequest.of(0, limite);
-
-    // Llama al nuevo método del repositorio
-    Page<Usuario> paginaDeUsuarios = usuarioRepository.findByOrderByPuntosLigaDesc(topN);
-
-    // Devuelve la lista de usuarios de esa página
-    return paginaDeUsuarios.getContent();
+    return leaderboardService.getTop(limite);
   }
 
   /**
@@ -398,13 +446,13 @@ public class UsuarioService {
    */
   public void actualizarLigaDelUsuario(Usuario usuario) {
 
-    // 1. Obtenemos los límites de la base de datos.
-    // (Estos métodos 'getLimiteLiga' los crearemos en ConfiguracionService)
+    // 1. Obtenemos los límites de la configuración en memoria (sin consultas a la BD).
     // Usamos valores por defecto (500, 1500...) por si aún no están en la BD.
-    int limitePlata = configuracionService.getLimiteLiga("LIGA_PLATA", 500);
-    int limiteOro = configuracionService.getLimiteLiga("LIGA_ORO", 1500);
-    int limitePlatino = configuracionService.getLimiteLiga("LIGA_PLATINO", 3000);
-    int limiteDiamante = configuracionService.getLimiteLiga("LIGA_DIAMANTE", 5000);
+    ConfiguracionService.Snapshot config = configuracionService.getSnapshot();
+    int limitePlata = config.getEntero("LIGA_PLATA", 500);
+    int limiteOro = config.getEntero("LIGA_ORO", 1500);
+    int limitePlatino = config.getEntero("LIGA_PLATINO", 3000);
+    int limiteDiamante = config.getEntero("LIGA_DIAMANTE", 5000);
 
     // 2. Obtenemos los puntos del usuario
     int puntos = usuario.getPuntosLiga();
@@ -425,45 +473,50 @@ public class UsuarioService {
     usuario.setLiga(nuevaLiga);
   }
 
+  /**
+   * Resultado del recálculo global de ligas.
+   *
+   * @param movidos Cuántos usuarios pasaron a cada liga (de mayor a menor).
+   * @param usuarioIds Los IDs de todos los usuarios que cambiaron de liga.
+   */
+  public record LigasRecalculadas(Map<String, Integer> movidos, List<Long> usuarioIds) {}
+
   /**
    * RECALCULA LA LIGA para TODOS los usuarios de la base de datos. Útil cuando un admin cambia los
-   * límites de puntos de las ligas.
+   * límites de puntos de las ligas. Se hace con un UPDATE masivo por liga que solo toca a los
+   * usuarios que cambian, sin cargarlos en memoria.
+   *
+   * @return Cuántos usuarios pasaron a cada liga y quiénes fueron.
    */
   @Transactional
-  public void recalcularLigasGlobal() {
+  public LigasRecalculadas recalcularLigasGlobal() {
     System.out.println("LOG: Iniciando recálculo global de ligas...");
 
     // 1. Obtenemos los límites (¡solo los leemos una vez!)
-    int limitePlata = configuracionService.getLimiteLiga("LIGA_PLATA", 500);
-    int limiteOro = configuracionService.getLimiteLiga("LIGA_ORO", 1500);
-    int limitePlatino = configuracionService.getLimiteLiga("LIGA_PLATINO", 3000);
-    int limiteDiamante = configuracionService.getLimiteLiga("LIGA_DIAMANTE", 5000);
-
-    // 2. Buscamos a TODOS los usuarios
-    List<Usuario> todosLosUsuarios = usuarioRepository.findAll();
-
-    // 3. Iteramos y recalculamos
-    for (Usuario usuario : todosLosUsuarios) {
-      int puntos = usuario.getPuntosLiga();
-      String nuevaLiga = "Bronce";
-
-      if (puntos >= limiteDiamante) {
-        nuevaLiga = "Diamante";
-      } else if (puntos >= limitePlatino) {
-        nuevaLiga = "Platino";
-      } else if (puntos >= limiteOro) {
-        nuevaLiga = "Oro";
-      } else if (puntos >= limitePlata) {
-        nuevaLiga = "Plata";
-      }
-
-      // Asignamos la nueva liga al usuario
-      usuario.setLiga(nuevaLiga);
-    }
+    ConfiguracionService.Snapshot config = configuracionService.getSnapshot();
+    int limitePlata = config.getEntero("LIGA_PLATA", 500);
+    int limiteOro = config.getEntero("LIGA_ORO", 1500);
+    int limitePlatino = config.getEntero("LIGA_PLATINO", 3000);
+    int limiteDiamante = config.getEntero("LIGA_DIAMANTE", 5000);
+
+    // 2. Movemos a cada liga a quienes quedaron en su rango de puntos, guardando quiénes eran
+    Map<String, Integer> movidos = new LinkedHashMap<>();
+    List<Long> usuarioIds = new ArrayList<>();
+    cambiarDeLiga("Diamante", limiteDiamante, Integer.MAX_VALUE, movidos, usuarioIds);
+    cambiarDeLiga("Platino", limitePlatino, limiteDiamante, movidos, usuarioIds);
+    cambiarDeLiga("Oro", limiteOro, limitePlatino, movidos, usuarioIds);
+    cambiarDeLiga("Plata", limitePlata, limiteOro, movidos, usuarioIds);
+    cambiarDeLiga("Bronce", Integer.MIN_VALUE, limitePlata, movidos, usuarioIds);
+
+    System.out.println("LOG: Recálculo global de ligas terminado. Usuarios movidos: " + movidos);
+    return new LigasRecalculadas(movidos, usuarioIds);
+  }
 
-    // 4. Guardamos TODOS los cambios en la base de datos
-    usuarioRepository.saveAll(todosLosUsuarios);
-    System.out.println("LOG: Recálculo global de ligas terminado.");
+  /** Mueve a una liga a quienes tienen sus puntos en [minimo, maximo) y anota quiénes eran. */
+  private void cambiarDeLiga(
+      String liga, int minimo, int maximo, Map<String, Integer> movidos, List<Long> usuarioIds) {
+    usuarioIds.addAll(usuarioRepository.findIdsParaCambiarDeLiga(liga, minimo, maximo));
+    movidos.put(liga, usuarioRepository.asignarLiga(liga, minimo, maximo));
   }
 
   /**
@@ -523,48 +576,85 @@ public class UsuarioService {
     usuario.setExperiencia(usuario.getExperiencia() + expTarea);
   }
 
-  /** Obtiene el Top 5 de jugadores ordenados por la cantidad de logros completados. */
+  /**
+   * Obtiene el Top 5 de jugadores ordenados por la cantidad de logros completados. El resultado se
+   * calcula en la BD y se guarda en memoria durante el intervalo de refresco configurado.
+   */
   public List<TopJugadorLogrosDto> getTop5JugadoresPorLogros() {
-    // 1. Obtenemos TODOS los usuarios de la BD
-    List<Usuario> todosLosUsuarios = usuarioRepository.findAll();
-
-    // 2. Creamos una lista para guardar los resultados (DTOs)
-    List<TopJugadorLogrosDto> dtos = new ArrayList<>();
-
-    // 3. Iteramos y calculamos el conteo para cada uno
-    for (Usuario u : todosLosUsuarios) {
-      // Contamos cuántos logros ha cumplido este usuario
-      int conteo = gestorLogrosService.getTodosLogrosCumplidos(u).size();
-
-      // --- CAMBIO AQUÍ ---
-      // Ahora pasamos el tercer parámetro: u.getAvatarUrl()
-      dtos.add(new TopJugadorLogrosDto(u.getNombreUsuario(), conteo, u.getAvatarUrl()));
-    }
-
-    // 4. Ordenamos la lista de DTOs en Java (de mayor a menor)
-    dtos.sort((dto1, dto2) -> Long.compare(dto2.getTotalLogros(), dto1.getTotalLogros()));
-
-    // 5. Devolvemos solo los primeros 5
-    return dtos.stream().limit(5).collect(Collectors.toList());
+    return obtenerResumenLogros().top5();
   }
 
   // --- MÉTODO PARA LA TARJETA DE CONTEO ---
   /**
    * Obtiene el conteo total de todos los logros completados por todos los usuarios. (Calculado en
-   * Java para la tarjeta de estadísticas).
+   * la BD y guardado en memoria junto con el Top 5).
    *
    * @return un long con el conteo total.
    */
   public long getConteoTotalLogrosCompletados() {
-    long conteoTotal = 0;
-    // Obtenemos todos los usuarios
-    List<Usuario> todosLosUsuarios = usuarioRepository.findAll();
+    return obtenerResumenLogros().conteoTotal();
+  }
+
+  /** Devuelve el resumen de logros en memoria, recalculándolo si ya venció. */
+  private ResumenLogros obtenerResumenLogros() {
+    ResumenLogros actual = resumenLogros;
+    Instant ahora = Instant.now();
+    if (actual != null && actual.calculadoEn().plusSeconds(refrescoResumenLogros).isAfter(ahora)) {
+      return actual;
+    }
+    actual =
+        new ResumenLogros(
+            usuarioLogroRepository.findTopJugadoresPorLogros(PageRequest.of(0, 5)),
+            usuarioLogroRepository.countLogrosActivosCompletados(),
+            ahora);
+    resumenLogros = actual;
+    return actual;
+  }
+
+  /** Top 5 de jugadores por logros y conteo total, junto con el momento en que se calcularon. */
+  private record ResumenLogros(
+      List<TopJugadorLogrosDto> top5, long conteoTotal, Instant calculadoEn) {}
+
+  /**
+   * Procesa eventos de logros y aplica la XP de los que se desbloqueen. Esa XP puede subir el nivel
+   * del usuario, lo que a su vez puede desbloquear logros de nivel, así que se repite mientras se
+   * desbloquee algo (termina porque cada logro se obtiene una sola vez).
+   *
+   * @param usuario El usuario que generó los eventos.
+   * @param tarea La tarea que disparó los eventos, o null.
+   * @param eventos Los eventos ocurridos.
+   */
+  public void procesarLogros(Usuario usuario, Tarea tarea, Set<TipoEventoLogro> eventos) {
+    Set<TipoEventoLogro> pendientes = eventos;
+    while (!pendientes.isEmpty()
+        && gestorLogrosService.procesarEventos(usuario, tarea, pendientes)) {
+      int nivelAnterior = usuario.getNivelExperiencia();
+      String ligaAnterior = usuario.getLiga();
+      verificarSubidaDeNivel(usuario);
+      actualizarLigaDelUsuario(usuario);
+      pendientes = EnumSet.noneOf(TipoEventoLogro.class);
+      if (usuario.getNivelExperiencia() != nivelAnterior) {
+        pendientes.add(TipoEventoLogro.NIVEL_SUBIDO);
+      }
+      if (!usuario.getLiga().equals(ligaAnterior)) {
+        pendientes.add(TipoEventoLogro.LIGA_CAMBIADA);
+      }
+    }
+  }
 
-    // Iteramos, calculamos el conteo de cada uno y lo sumamos
-    for (Usuario u : todosLosUsuarios) {
-      conteoTotal += gestorLogrosService.getTodosLogrosCumplidos(u).size();
+  /**
+   * Vuelve a evaluar los logros de varios usuarios para los eventos indicados, por ejemplo cuando
+   * cambiaron de liga con un UPDATE masivo o se activó un logro. Los cambios se guardan al terminar
+   * la transacción.
+   *
+   * @param usuarioIds Los IDs de los usuarios.
+   * @param eventos Los eventos a procesar.
+   */
+  @Transactional
+  public void reevaluarLogros(List<Long> usuarioIds, Set<TipoEventoLogro> eventos) {
+    for (Usuario usuario : usuarioRepository.findAllById(usuarioIds)) {
+      procesarLogros(usuario, null, eventos);
     }
-    return conteoTotal;
   }
 
   /**
@@ -583,13 +673,32 @@ public class UsuarioService {
           "Error en manejarLogicaDeLogin: No se encontró usuario con correo " + correo);
       return;
     }
+    manejarLogicaDeLogin(usuario);
+  }
+
+  /**
+   * Igual que {@link #manejarLogicaDeLogin(String)}, pero con el usuario ya cargado en la petición
+   * (por ejemplo, el de AuthService.getCurrentUser()), sin volver a buscarlo por correo.
+   *
+   * @param usuario El usuario gestionado que acaba de entrar.
+   */
+  @Transactional
+  public void manejarLogicaDeLogin(Usuario usuario) {
 
     // 2. Actualiza la racha
+    int rachaAnterior = usuario.getRacha();
     this.actualizarRacha(usuario);
 
-    // 3. Dispara el gatillo de logros (ahora PUEDE acceder a usuario.getTareas)
-    gestorLogrosService.actualizarLogrosParaUsuario(usuario);
+    // 3. Solo se evalúan los logros del inicio de sesión, y los de racha si cambió. Los que el
+    // usuario gana fuera de aquí (recálculo de ligas, logros recién activados) se otorgan con
+    // ReevaluacionLogrosService.
+    Set<TipoEventoLogro> eventos = EnumSet.of(TipoEventoLogro.INICIO_SESION);
+    if (usuario.getRacha() != rachaAnterior) {
+      eventos.add(TipoEventoLogro.RACHA_CAMBIADA);
+    }
+    this.procesarLogros(usuario, null, eventos);
     this.verificarSubidaDeNivel(usuario);
+    usuario.setUltimaActividad(LocalDateTime.now(ZoneId.systemDefault()));
     // 4. Guarda todos los cambios
     this.guardarEnBd(usuario);
   }
@@ -10,6 +10,7 @@ import michaelsoftbinbows.dto.PerfilUsuarioDto;
 import michaelsoftbinbows.dto.UsuarioBusquedaDto;
 import michaelsoftbinbows.entities.SolicitudAmistad;
 import michaelsoftbinbows.entities.Usuario;
+import michaelsoftbinbows.entities.UsuarioEstadisticas;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -20,6 +21,7 @@ public class UsuarioSocialService {
   @Autowired private UsuarioService usuarioService;
   @Autowired private SolicitudAmistadRepository solicitudRepository;
   @Autowired private AuthService authService;
+  @Autowired private UsuarioEstadisticasService usuarioEstadisticasService;
 
   public List<UsuarioBusquedaDto> buscarUsuarios(String query) {
     Usuario yo = authService.getCurrentUser();
@@ -131,7 +133,7 @@ public class UsuarioSocialService {
   public PerfilUsuarioDto obtenerPerfilCompleto(Long usuarioId) {
     Usuario objetivo =
         usuarioService
-            .obtenerPorId(usuarioId)
+            .obtenerPerfilPorId(usuarioId)
             .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
     Usuario yo = authService.getCurrentUser();
 
@@ -143,8 +145,9 @@ public class UsuarioSocialService {
     dto.setRacha(objetivo.getRacha());
     dto.setLigaActual(objetivo.getLiga());
     dto.setPuntosMesPasado(objetivo.getPuntosMesPasado());
-    dto.setTareasCompletadas(objetivo.getNumeroCompletadas());
-    dto.setExperienciaTotal(objetivo.getExperienciaTotal());
+    UsuarioEstadisticas estadisticas = usuarioEstadisticasService.obtener(objetivo.getId());
+    dto.setTareasCompletadas(estadisticas.getTareasCompletadas());
+    dto.setExperienciaTotal(estadisticas.getExperienciaTotal());
     dto.setLogrosDesbloqueados(objetivo.getLogros());
 
     Optional<SolicitudAmistad> relacion = solicitudRepository.findSolicitudEntre(yo, objetivo);
@@ -3,10 +3,13 @@ package michaelsoftbinbows.services;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.Set;
 import michaelsoftbinbows.entities.Tarea;
 import michaelsoftbinbows.entities.Usuario;
 import michaelsoftbinbows.exceptions.EdicionTareaException;
 import michaelsoftbinbows.exceptions.TareaPertenenciaException;
+import michaelsoftbinbows.model.TipoEventoLogro;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -14,7 +17,10 @@ import org.springframework.stereotype.Service;
 public class UsuarioTareaService {
   @Autowired UsuarioService usuarioService;
   @Autowired TareaService tareaService;
-  @Autowired GestorLogrosService gestorLogrosService;
+  @Autowired UsuarioEstadisticasService usuarioEstadisticasService;
+  @Autowired LeaderboardService leaderboardService;
+  @Autowired ExpiracionTareasService expiracionTareasService;
+  @Autowired ActividadDiariaService actividadDiariaService;
 
   @Transactional
   public void completarTarea(Long usuarioId, Long tareaId) throws EdicionTareaException {
@@ -28,10 +34,20 @@ public class UsuarioTareaService {
     if (tarea.getFechaCompletada() != null) {
       throw new EdicionTareaException("La tarea ya ha sido completada", tarea.getId());
     }
+    // Una tarea vencida que aún no se alcanzó a eliminar ya no se puede completar
+    if (tarea.getFechaExpiracion() != null
+        && tarea.getFechaExpiracion().isBefore(LocalDateTime.now(ZoneId.systemDefault()))) {
+      throw new EdicionTareaException("La tarea ya expiró", tarea.getId());
+    }
 
     // --- 1. APLICAR CAMBIOS INICIALES DE LA TAREA ---
     tarea.setFechaCompletada(LocalDateTime.now(ZoneId.systemDefault()));
     int expTarea = tarea.getExp();
+    usuarioEstadisticasService.registrarTareaCompletada(u.getId(), tarea);
+    actividadDiariaService.registrarTareaCompletada(
+        u.getId(), tarea.getFechaCompletada().toLocalDate(), expTarea, expTarea);
+    int nivelAnterior = u.getNivelExperiencia();
+    String ligaAnterior = u.getLiga();
 
     // (La racha ya no se actualiza aquí, ¡correcto!)
     usuarioService.sumarExperienciaTarea(u, expTarea);
@@ -41,22 +57,20 @@ public class UsuarioTareaService {
     usuarioService.verificarSubidaDeNivel(u);
     usuarioService.actualizarLigaDelUsuario(u);
 
-    // --- 3. ¡BUCLE "while" ELIMINADO! ---
-    // Llamamos al gatillo de logros UNA SOLA VEZ.
-    // Este método (actualizarLogrosParaUsuario) revisará y añadirá
-    // todos los logros que el usuario cumpla en este momento
-    // (incluyendo Tareas, Nivel y Liga).
-    gestorLogrosService.actualizarLogrosParaUsuario(u);
-
-    // --- 4. RECALCULAR STATS (SEGUNDA PASADA) ---
-    // ¡IMPORTANTE! Volvemos a verificar la subida de nivel
-    // DESPUÉS de que los logros hayan dado su propia XP.
-    usuarioService.verificarSubidaDeNivel(u);
-    // También recalculamos la liga, por si la XP del logro
-    // fue suficiente para subir de liga (aunque los puntos no cuenten).
-    usuarioService.actualizarLigaDelUsuario(u);
+    // --- 3. EMITIR EVENTOS DE LOGROS Y RECALCULAR STATS (SEGUNDA PASADA) ---
+    // Solo se revisan los logros suscritos a lo que realmente cambió.
+    Set<TipoEventoLogro> eventos = EnumSet.of(TipoEventoLogro.TAREA_COMPLETADA);
+    if (u.getNivelExperiencia() != nivelAnterior) {
+      eventos.add(TipoEventoLogro.NIVEL_SUBIDO);
+    }
+    if (!u.getLiga().equals(ligaAnterior)) {
+      eventos.add(TipoEventoLogro.LIGA_CAMBIADA);
+    }
+    // ¡IMPORTANTE! procesarLogros vuelve a verificar nivel y liga DESPUÉS de que los logros
+    // hayan dado su propia XP, y emite NIVEL_SUBIDO/LIGA_CAMBIADA si cambiaron.
+    usuarioService.procesarLogros(u, tarea, eventos);
 
-    // --- 5. GUARDADO FINAL ---
+    // --- 4. GUARDADO FINAL ---
     System.out.println(
         "¡'"
             + u.getNombreUsuario()
@@ -68,17 +82,25 @@ public class UsuarioTareaService {
     System.out.println("Experiencia total: " + u.getExperiencia());
 
     tareaService.guardar(tarea);
+    expiracionTareasService.cancelar(tarea.getId(), u.getId());
     // Guarda al usuario con su nueva XP, Nivel, Liga Y todos los logros desbloqueados
     usuarioService.guardarEnBd(u);
+    // Los nuevos puntos de liga mueven al usuario dentro del ranking en memoria (al hacer commit)
+    leaderboardService.actualizarPuntos(u.getId(), u.getPuntosLiga());
   }
 
   /**
-   * Verifica y elimina las tareas expiradas de un usuario.
+   * Verifica y elimina las tareas expiradas de un usuario. El barrido en segundo plano de
+   * ExpiracionTareasService ya elimina la mayoría; aquí solo se recorren las tareas del usuario
+   * cuando ya pasó la expiración más próxima de sus pendientes.
    *
-   * @param usuario El usuario cuyas tareas se van a verificar.
+   * @param idUsuario El ID del usuario cuyas tareas se van a verificar.
    */
   @Transactional
   public void verificarTareasExpiradas(Long idUsuario) {
+    if (!expiracionTareasService.hayTareasPorExpirar(idUsuario)) {
+      return;
+    }
     LocalDateTime hoy = LocalDateTime.now(ZoneId.systemDefault());
     Usuario usuario = usuarioService.obtenerPorId(idUsuario).orElse(null);
     if (usuario == null) {
@@ -91,7 +113,7 @@ public class UsuarioTareaService {
     // entidad `Usuario.tareas`, eliminar de la colección y guardar el usuario provocará
     // que JPA borre las tareas huérfanas de la base de datos.
     var iterator = usuario.getTareas().iterator();
-    boolean cambios = false;
+    int eliminadas = 0;
     while (iterator.hasNext()) {
       Tarea tarea = iterator.next();
       // Solo consideramos tareas pendientes con fecha de expiración
@@ -108,13 +130,15 @@ public class UsuarioTareaService {
         iterator.remove();
         // Rompemos la relación bidireccional por seguridad
         tarea.setUsuario(null);
-        cambios = true;
+        expiracionTareasService.cancelar(tarea.getId(), idUsuario);
+        eliminadas++;
       }
     }
 
-    if (cambios) {
+    if (eliminadas > 0) {
       try {
         usuarioService.guardarEnBd(usuario);
+        usuarioEstadisticasService.registrarPendientesEliminadas(idUsuario, eliminadas);
       } catch (Exception e) {
         // Evitamos que una excepción detenga el proceso global; registramos para diagnóstico
         System.out.println(
@@ -1,8 +1,22 @@
 package michaelsoftbinbows.services;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import michaelsoftbinbows.dto.ClimaActual;
 import michaelsoftbinbows.exceptions.WeatherApiException;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,13 +24,49 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-/** Servicio para interactuar con la API de OpenWeatherMap. */
+/**
+ * Servicio para interactuar con la API de OpenWeatherMap.
+ *
+ * <p>Las respuestas se guardan en memoria por ciudad (normalizada). Mientras una respuesta es más
+ * nueva que el TTL se devuelve directamente; si ya venció pero no es demasiado antigua, se devuelve
+ * igual y se refresca en segundo plano. Si varias peticiones piden la misma ciudad a la vez, solo
+ * una llama a la API y las demás esperan ese resultado.
+ *
+ * <p>Cada respuesta se lee una sola vez (con el parser por streaming de Jackson) al llegar de la
+ * API y se guarda ya convertida en {@link ClimaActual}; el resto de la aplicación trabaja sobre ese
+ * objeto en vez de volver a parsear el JSON.
+ */
 @Service
 public class WeatherService {
 
   private final RestTemplate restTemplate;
   private final String apiKey;
 
+  // Segundos durante los que una respuesta se considera fresca.
+  @Value("${weather.cache.ttl-segundos:600}")
+  private long ttlSegundos = 600;
+
+  // Segundos durante los que una respuesta vencida aún se puede servir mientras se refresca.
+  @Value("${weather.cache.max-obsoleto-segundos:3600}")
+  private long maxObsoletoSegundos = 3600;
+
+  // Número máximo de ciudades guardadas.
+  @Value("${weather.cache.max-entradas:1000}")
+  private int maxEntradas = 1000;
+
+  private static final JsonFactory FABRICA_JSON = new JsonFactory();
+  private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+  private static final DateTimeFormatter FORMATO_HORA_SEGUNDOS =
+      DateTimeFormatter.ofPattern("HH:mm:ss");
+
+  /** Respuesta cruda de la API, su versión ya leída y el momento en que se obtuvo. */
+  private record EntradaClima(String json, ClimaActual clima, Instant obtenidaEn) {}
+
+  private final Map<String, EntradaClima> cache = new ConcurrentHashMap<>();
+  // Consultas a la API en curso, por ciudad normalizada.
+  private final Map<String, CompletableFuture<EntradaClima>> enCurso = new ConcurrentHashMap<>();
+  private final ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+
   /** Constructor para inyección de dependencias. */
   public WeatherService(RestTemplate restTemplate, @Value("${owm.api.key}") String apiKey) {
     this.restTemplate = restTemplate;
@@ -25,6 +75,289 @@ public class WeatherService {
 
   /** Obtiene la respuesta JSON cruda del clima para una ciudad. */
   public String getWeatherByCity(String city) {
+    return obtener(city).json();
+  }
+
+  /**
+   * Obtiene el clima actual de una ciudad, ya leído.
+   *
+   * @param city La ciudad a consultar.
+   * @return Los datos del clima.
+   */
+  public ClimaActual getClimaActual(String city) {
+    return obtener(city).clima();
+  }
+
+  /**
+   * Indica si conviene volver a consultar el clima de una ciudad: no está en caché, o su respuesta
+   * vence dentro de menos del margen dado.
+   *
+   * @param city La ciudad.
+   * @param margenSegundos Anticipación con la que se quiere refrescar antes de que venza.
+   * @return true si la respuesta falta o está por vencer.
+   */
+  public boolean necesitaRefresco(String city, long margenSegundos) {
+    EntradaClima entrada = cache.get(normalizarCiudad(city));
+    return entrada == null
+        || Duration.between(entrada.obtenidaEn(), Instant.now()).getSeconds()
+            >= ttlSegundos - margenSegundos;
+  }
+
+  /**
+   * Consulta la API y guarda la respuesta en caché aunque la anterior siga fresca. Si ya hay una
+   * consulta en curso para la ciudad, reutiliza su resultado.
+   *
+   * @param city La ciudad a refrescar.
+   */
+  public void refrescar(String city) {
+    consultarCompartido(city, normalizarCiudad(city));
+  }
+
+  /**
+   * Obtiene el clima sin bloquear al llamador. Si la ciudad ya está en caché, el resultado está
+   * disponible de inmediato; si no, la consulta a la API se hace en otro hilo.
+   *
+   * @param city La ciudad a consultar.
+   * @return Un futuro con los datos del clima.
+   */
+  public CompletableFuture<ClimaActual> getClimaActualAsync(String city) {
+    EntradaClima entrada = cache.get(normalizarCiudad(city));
+    if (entrada != null
+        && Duration.between(entrada.obtenidaEn(), Instant.now()).getSeconds()
+            < maxObsoletoSegundos) {
+      return CompletableFuture.completedFuture(getClimaActual(city));
+    }
+    return CompletableFuture.supplyAsync(() -> getClimaActual(city), ejecutor);
+  }
+
+  /**
+   * Arma los datos que muestra la tarjeta de clima del home.
+   *
+   * @param clima El clima actual de la ciudad.
+   * @return Mapa con temperatura, descripcion, humedad, icono, hora (local de la ciudad) y
+   *     principal (ej. "Clear", "Clouds", "Rain").
+   */
+  public Map<String, Object> resumirClima(ClimaActual clima) {
+    Map<String, Object> climaData = new HashMap<>();
+    climaData.put("temperatura", (int) clima.temperatura());
+    climaData.put("descripcion", clima.descripcion());
+    climaData.put("humedad", clima.humedad());
+    climaData.put("icono", clima.icono());
+    climaData.put("principal", clima.principal());
+    climaData.put("hora", clima.horaLocal(FORMATO_HORA));
+    return climaData;
+  }
+
+  /**
+   * Normaliza el nombre de una ciudad para usarlo como clave (" Santiago , CL" y "santiago,cl" son
+   * la misma ciudad).
+   */
+  static String normalizarCiudad(String city) {
+    if (city == null) {
+      return "";
+    }
+    return city.trim()
+        .toLowerCase(Locale.ROOT)
+        .replaceAll("\\s+", " ")
+        .replaceAll("\\s*,\\s*", ",");
+  }
+
+  /** Devuelve la entrada de la caché si sirve; si no, consulta la API. */
+  private EntradaClima obtener(String city) {
+    String clave = normalizarCiudad(city);
+    EntradaClima entrada = cache.get(clave);
+    if (entrada != null) {
+      long edad = Duration.between(entrada.obtenidaEn(), Instant.now()).getSeconds();
+      if (edad < ttlSegundos) {
+        return entrada;
+      }
+      if (edad < maxObsoletoSegundos) {
+        refrescarEnSegundoPlano(city, clave);
+        return entrada;
+      }
+    }
+    return consultarCompartido(city, clave);
+  }
+
+  /**
+   * Consulta la API, pero si ya hay una consulta en curso para la misma ciudad, espera su resultado
+   * en vez de hacer otra.
+   */
+  private EntradaClima consultarCompartido(String city, String clave) {
+    CompletableFuture<EntradaClima> propia = new CompletableFuture<>();
+    CompletableFuture<EntradaClima> existente = enCurso.putIfAbsent(clave, propia);
+    if (existente != null) {
+      return esperar(existente);
+    }
+    try {
+      String json = consultarApi(city);
+      EntradaClima entrada = new EntradaClima(json, leerClima(json), Instant.now());
+      guardarEnCache(clave, entrada);
+      propia.complete(entrada);
+      return entrada;
+    } catch (RuntimeException e) {
+      propia.completeExceptionally(e);
+      throw e;
+    } finally {
+      enCurso.remove(clave, propia);
+    }
+  }
+
+  private EntradaClima esperar(CompletableFuture<EntradaClima> consulta) {
+    try {
+      return consulta.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof WeatherApiException weatherApiException) {
+        throw weatherApiException;
+      }
+      throw new WeatherApiException("No se pudo obtener el clima para la ciudad indicada.");
+    }
+  }
+
+  private void refrescarEnSegundoPlano(String city, String clave) {
+    if (enCurso.containsKey(clave)) {
+      return;
+    }
+    ejecutor.execute(
+        () -> {
+          try {
+            consultarCompartido(city, clave);
+          } catch (WeatherApiException e) {
+            // Se sigue sirviendo la respuesta anterior hasta que venza del todo
+            System.err.println(
+                "LOG: No se pudo refrescar el clima de '" + city + "': " + e.getMessage());
+          }
+        });
+  }
+
+  private void guardarEnCache(String clave, EntradaClima entrada) {
+    if (!cache.containsKey(clave) && cache.size() >= maxEntradas) {
+      // Se descarta la ciudad consultada hace más tiempo
+      cache.entrySet().stream()
+          .min(Comparator.comparing(e -> e.getValue().obtenidaEn()))
+          .ifPresent(e -> cache.remove(e.getKey()));
+    }
+    cache.put(clave, entrada);
+  }
+
+  /**
+   * Lee una respuesta de la API recorriendo el JSON una sola vez, sin armar el árbol completo. Los
+   * campos que no vienen quedan con su valor por defecto; los que no se usan se saltan.
+   */
+  static ClimaActual leerClima(String json) {
+    String nombre = null;
+    String pais = null;
+    double temperatura = 0;
+    int humedad = 0;
+    double viento = 0;
+    String descripcion = "";
+    String principal = "";
+    String icono = "";
+    long marcaTiempo = 0;
+    int desfaseSegundos = 0;
+
+    try (JsonParser parser = FABRICA_JSON.createParser(json)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new WeatherApiException("La respuesta del clima no tiene el formato esperado.");
+      }
+      for (String campo = siguienteCampo(parser); campo != null; campo = siguienteCampo(parser)) {
+        switch (campo) {
+          case "name" -> nombre = parser.getValueAsString();
+          case "dt" -> marcaTiempo = parser.getValueAsLong();
+          case "timezone" -> desfaseSegundos = parser.getValueAsInt();
+          case "main" -> {
+            for (String c = siguienteCampoDeObjeto(parser); c != null; c = siguienteCampo(parser)) {
+              switch (c) {
+                case "temp" -> temperatura = parser.getValueAsDouble();
+                case "humidity" -> humedad = parser.getValueAsInt();
+                default -> parser.skipChildren();
+              }
+            }
+          }
+          case "wind" -> {
+            for (String c = siguienteCampoDeObjeto(parser); c != null; c = siguienteCampo(parser)) {
+              if (c.equals("speed")) {
+                viento = parser.getValueAsDouble();
+              } else {
+                parser.skipChildren();
+              }
+            }
+          }
+          case "sys" -> {
+            for (String c = siguienteCampoDeObjeto(parser); c != null; c = siguienteCampo(parser)) {
+              if (c.equals("country")) {
+                pais = parser.getValueAsString();
+              } else {
+                parser.skipChildren();
+              }
+            }
+          }
+          case "weather" -> {
+            // Solo interesa el primer elemento de la lista
+            if (parser.currentToken() == JsonToken.START_ARRAY
+                && parser.nextToken() == JsonToken.START_OBJECT) {
+              for (String c = siguienteCampo(parser); c != null; c = siguienteCampo(parser)) {
+                switch (c) {
+                  case "description" -> descripcion = parser.getValueAsString("");
+                  case "main" -> principal = parser.getValueAsString("");
+                  case "icon" -> icono = parser.getValueAsString("");
+                  default -> parser.skipChildren();
+                }
+              }
+              while (parser.nextToken() != JsonToken.END_ARRAY) {
+                parser.skipChildren();
+              }
+            } else {
+              parser.skipChildren();
+            }
+          }
+          default -> parser.skipChildren();
+        }
+      }
+    } catch (IOException e) {
+      throw new WeatherApiException("La respuesta del clima no tiene el formato esperado.");
+    }
+    return new ClimaActual(
+        nombre,
+        pais,
+        temperatura,
+        humedad,
+        viento,
+        descripcion,
+        principal,
+        icono,
+        marcaTiempo,
+        desfaseSegundos);
+  }
+
+  /**
+   * Avanza al siguiente campo del objeto actual y deja el parser sobre su valor.
+   *
+   * @return El nombre del campo, o null si el objeto terminó.
+   */
+  private static String siguienteCampo(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.FIELD_NAME) {
+      return null;
+    }
+    String campo = parser.currentName();
+    parser.nextToken();
+    return campo;
+  }
+
+  /**
+   * Como {@link #siguienteCampo}, pero para el primer campo de un valor que debería ser un objeto.
+   * Si el valor es otra cosa, lo salta y devuelve null.
+   */
+  private static String siguienteCampoDeObjeto(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return null;
+    }
+    return siguienteCampo(parser);
+  }
+
+  /** Hace la llamada HTTP a OpenWeatherMap y devuelve el cuerpo de la respuesta. */
+  private String consultarApi(String city) {
     try {
       String url =
           "https://api.openweathermap.org/data/2.5/weather?q="
@@ -43,33 +376,14 @@ public class WeatherService {
   /** Obtiene los datos del clima filtrados (temperatura, clima, hora) para una ciudad. */
   public String getFilteredWeatherByCity(String city) {
     try {
-      String url =
-          "https://api.openweathermap.org/data/2.5/weather?q="
-              + city
-              + "&appid="
-              + apiKey
-              + "&units=metric&lang=es";
-
-      ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-      JSONObject json = new JSONObject(response.getBody());
+      ClimaActual clima = getClimaActual(city);
 
       JSONObject result = new JSONObject();
-      result.put("temperatura", json.getJSONObject("main").getDouble("temp"));
-
-      // ARREGLO: Línea partida extrayendo el valor a una variable
-      String climaDescripcion =
-          json.getJSONArray("weather").getJSONObject(0).getString("description");
-      result.put("clima", climaDescripcion);
-
-      result.put("humedad", json.getJSONObject("main").getInt("humidity"));
-      result.put("viento", json.getJSONObject("wind").getDouble("speed"));
-
-      long timestamp = json.getLong("dt") + json.getInt("timezone");
-      String horaActual =
-          DateTimeFormatter.ofPattern("HH:mm:ss")
-              .withZone(ZoneId.of("UTC"))
-              .format(Instant.ofEpochSecond(timestamp));
-      result.put("hora_actual", horaActual);
+      result.put("temperatura", clima.temperatura());
+      result.put("clima", clima.descripcion());
+      result.put("humedad", clima.humedad());
+      result.put("viento", clima.viento());
+      result.put("hora_actual", clima.horaLocal(FORMATO_HORA_SEGUNDOS));
 
       return result.toString();
     } catch (Exception e) {
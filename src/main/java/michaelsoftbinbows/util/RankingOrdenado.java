@@ -0,0 +1,188 @@
+package michaelsoftbinbows.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Árbol de orden estadístico (treap) que mantiene a los usuarios ordenados por puntos de liga
+ * (descendente) y luego por ID (ascendente). Cada nodo guarda el tamaño de su subárbol, por lo que
+ * insertar, eliminar, obtener la posición de un usuario y pedir un rango cuestan O(log n) (más el
+ * tamaño del rango). No es seguro para uso concurrente: quien lo use debe sincronizar el acceso.
+ */
+public class RankingOrdenado {
+
+  private static final class Nodo {
+    private final int puntos;
+    private final long id;
+    private final int prioridad;
+    private int tamano = 1;
+    private Nodo izquierdo;
+    private Nodo derecho;
+
+    private Nodo(int puntos, long id, int prioridad) {
+      this.puntos = puntos;
+      this.id = id;
+      this.prioridad = prioridad;
+    }
+  }
+
+  private final SplittableRandom aleatorio = new SplittableRandom();
+  private Nodo raiz;
+
+  /**
+   * Inserta una entrada. La pareja (puntos, id) no debe existir ya en el ranking.
+   *
+   * @param puntos Los puntos de liga del usuario.
+   * @param id El ID del usuario.
+   */
+  public void insertar(int puntos, long id) {
+    Nodo[] partes = dividir(raiz, puntos, id);
+    Nodo nuevo = new Nodo(puntos, id, aleatorio.nextInt());
+    raiz = unir(unir(partes[0], nuevo), partes[1]);
+  }
+
+  /**
+   * Elimina una entrada si existe.
+   *
+   * @param puntos Los puntos con los que se insertó el usuario.
+   * @param id El ID del usuario.
+   */
+  public void eliminar(int puntos, long id) {
+    raiz = eliminarDe(raiz, puntos, id);
+  }
+
+  /**
+   * Devuelve cuántas entradas quedan por delante de la pareja dada (posición base 0).
+   *
+   * @param puntos Los puntos del usuario.
+   * @param id El ID del usuario.
+   * @return El número de entradas estrictamente anteriores en el orden del ranking.
+   */
+  public int posicion(int puntos, long id) {
+    int anteriores = 0;
+    Nodo actual = raiz;
+    while (actual != null) {
+      int comparacion = comparar(puntos, id, actual);
+      if (comparacion < 0) {
+        actual = actual.izquierdo;
+      } else if (comparacion == 0) {
+        return anteriores + tamanoDe(actual.izquierdo);
+      } else {
+        anteriores += tamanoDe(actual.izquierdo) + 1;
+        actual = actual.derecho;
+      }
+    }
+    return anteriores;
+  }
+
+  /**
+   * Devuelve los IDs de las posiciones [desde, desde + cantidad) en orden de ranking.
+   *
+   * @param desde Primera posición (base 0).
+   * @param cantidad Número máximo de entradas a devolver.
+   * @return Los IDs en ese rango (puede tener menos elementos si el ranking es más corto).
+   */
+  public List<Long> rango(int desde, int cantidad) {
+    List<Long> ids = new ArrayList<>(Math.max(0, Math.min(cantidad, tamano())));
+    if (cantidad > 0) {
+      recorrer(raiz, Math.max(0, desde), Math.max(0, desde) + cantidad, 0, ids);
+    }
+    return ids;
+  }
+
+  /**
+   * Número de entradas del ranking.
+   *
+   * @return El tamaño del árbol.
+   */
+  public int tamano() {
+    return tamanoDe(raiz);
+  }
+
+  /** Vacía el ranking. */
+  public void limpiar() {
+    raiz = null;
+  }
+
+  // Negativo si (puntos, id) va antes que el nodo en el ranking.
+  private static int comparar(int puntos, long id, Nodo nodo) {
+    if (puntos != nodo.puntos) {
+      return puntos > nodo.puntos ? -1 : 1;
+    }
+    return Long.compare(id, nodo.id);
+  }
+
+  private static int tamanoDe(Nodo nodo) {
+    return nodo == null ? 0 : nodo.tamano;
+  }
+
+  private static void recalcular(Nodo nodo) {
+    nodo.tamano = 1 + tamanoDe(nodo.izquierdo) + tamanoDe(nodo.derecho);
+  }
+
+  // Separa el subárbol en [entradas antes de (puntos, id)] y [el resto].
+  private static Nodo[] dividir(Nodo nodo, int puntos, long id) {
+    if (nodo == null) {
+      return new Nodo[2];
+    }
+    if (comparar(puntos, id, nodo) > 0) {
+      Nodo[] partes = dividir(nodo.derecho, puntos, id);
+      nodo.derecho = partes[0];
+      recalcular(nodo);
+      return new Nodo[] {nodo, partes[1]};
+    }
+    Nodo[] partes = dividir(nodo.izquierdo, puntos, id);
+    nodo.izquierdo = partes[1];
+    recalcular(nodo);
+    return new Nodo[] {partes[0], nodo};
+  }
+
+  // Une dos subárboles sabiendo que todas las entradas de 'a' van antes que las de 'b'.
+  private static Nodo unir(Nodo a, Nodo b) {
+    if (a == null) {
+      return b;
+    }
+    if (b == null) {
+      return a;
+    }
+    if (a.prioridad > b.prioridad) {
+      a.derecho = unir(a.derecho, b);
+      recalcular(a);
+      return a;
+    }
+    b.izquierdo = unir(a, b.izquierdo);
+    recalcular(b);
+    return b;
+  }
+
+  private static Nodo eliminarDe(Nodo nodo, int puntos, long id) {
+    if (nodo == null) {
+      return null;
+    }
+    int comparacion = comparar(puntos, id, nodo);
+    if (comparacion == 0) {
+      return unir(nodo.izquierdo, nodo.derecho);
+    }
+    if (comparacion < 0) {
+      nodo.izquierdo = eliminarDe(nodo.izquierdo, puntos, id);
+    } else {
+      nodo.derecho = eliminarDe(nodo.derecho, puntos, id);
+    }
+    recalcular(nodo);
+    return nodo;
+  }
+
+  // Recorrido en orden que salta los subárboles que quedan fuera de [desde, hasta).
+  private static void recorrer(Nodo nodo, int desde, int hasta, int base, List<Long> ids) {
+    if (nodo == null || base >= hasta || base + nodo.tamano <= desde) {
+      return;
+    }
+    recorrer(nodo.izquierdo, desde, hasta, base, ids);
+    int indice = base + tamanoDe(nodo.izquierdo);
+    if (indice >= desde && indice < hasta) {
+      ids.add(nodo.id);
+    }
+    recorrer(nodo.derecho, desde, hasta, indice + 1, ids);
+  }
+}
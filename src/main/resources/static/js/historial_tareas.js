@@ -1,4 +1,4 @@
-// Contiene la función que muestra el resumen semanal/mensual
+// Contiene la función que muestra el resumen semanal/mensual y el scroll infinito del historial
 // La función se expone en window para que siga siendo invocable desde
 // atributos onclick en las plantillas (por ejemplo: onclick="mostrarResumen('semanal')").
 
@@ -12,8 +12,105 @@ let chartMensual = null;
 // Inicializa los gráficos cuando el DOM está listo
 document.addEventListener("DOMContentLoaded", function () {
   inicializarGraficos();
+  inicializarScrollHistorial();
 });
 
+// Tareas por página al pedir más historial
+const TAMANO_PAGINA_HISTORIAL = 20;
+
+/**
+ * Carga la siguiente página del historial cuando el marcador del final de la lista se hace
+ * visible. El cursor es la fecha y el ID de la última fila mostrada.
+ */
+function inicializarScrollHistorial() {
+  const lista = document.getElementById("history-list");
+  const centinela = document.getElementById("history-sentinel");
+  if (!lista || !centinela) return; // No hay más páginas
+
+  let cargando = false;
+  const observador = new IntersectionObserver(
+    async (entradas) => {
+      if (!entradas[0].isIntersecting || cargando) return;
+      cargando = true;
+      try {
+        const hayMas = await cargarPaginaHistorial(lista, centinela);
+        if (!hayMas) {
+          observador.disconnect();
+          centinela.remove();
+        }
+      } catch (error) {
+        console.error("[historial] Error al cargar más historial:", error);
+      } finally {
+        cargando = false;
+      }
+    },
+    { root: lista, rootMargin: "200px" },
+  );
+  observador.observe(centinela);
+}
+
+/**
+ * Pide la página siguiente a la última fila y la agrega antes del marcador.
+ *
+ * @returns {Promise<boolean>} si quedan más páginas
+ */
+async function cargarPaginaHistorial(lista, centinela) {
+  const filas = lista.querySelectorAll(".history-row");
+  const ultima = filas[filas.length - 1];
+  const params = new URLSearchParams({ tamano: TAMANO_PAGINA_HISTORIAL });
+  if (ultima) {
+    params.set("antesDe", ultima.dataset.fecha);
+    params.set("antesDeId", ultima.dataset.id);
+  }
+
+  const response = await fetch("/historial/api/tareas?" + params);
+  if (!response.ok) throw new Error("HTTP " + response.status);
+  const pagina = await response.json();
+
+  for (const tarea of pagina.tareas) {
+    lista.insertBefore(crearFilaHistorial(tarea), centinela);
+  }
+  if (HISTORIAL_LOGS)
+    console.log("[historial] Cargadas", pagina.tareas.length, "tareas más");
+  return pagina.hayMas;
+}
+
+/** Crea una fila del historial con el mismo formato que la plantilla. */
+function crearFilaHistorial(tarea) {
+  const fila = document.createElement("div");
+  fila.className = "history-row";
+  fila.dataset.id = tarea.id;
+  fila.dataset.fecha = tarea.fechaCompletada;
+
+  const nombre = document.createElement("span");
+  nombre.textContent = tarea.nombre;
+  const exp = document.createElement("span");
+  exp.className = "exp-points";
+  exp.textContent = "+" + tarea.exp + " XP";
+  const fecha = document.createElement("span");
+  fecha.textContent = formatearFecha(tarea.fechaCompletada);
+
+  fila.append(nombre, exp, fecha);
+  return fila;
+}
+
+/** Formatea una fecha ISO como dd/MM/yyyy HH:mm. */
+function formatearFecha(iso) {
+  const fecha = new Date(iso);
+  const dos = (n) => String(n).padStart(2, "0");
+  return (
+    dos(fecha.getDate()) +
+    "/" +
+    dos(fecha.getMonth() + 1) +
+    "/" +
+    fecha.getFullYear() +
+    " " +
+    dos(fecha.getHours()) +
+    ":" +
+    dos(fecha.getMinutes())
+  );
+}
+
 /**
  * Inicializa ambos gráficos (semanal y mensual) obteniendo datos del servidor
  */
@@ -467,4 +467,59 @@ function eliminarAmigo(amigoId, btnElement) {
         }
     })
     .catch(err => console.error(err));
-}
\ No newline at end of file
+}
+// =========================================================
+// 5. CARGA DIFERIDA DEL CLIMA
+// Si el clima no alcanzó a llegar durante el render, el servidor deja
+// un placeholder (#clima-pendiente) y aquí se pide y se dibuja la tarjeta.
+// =========================================================
+
+document.addEventListener('DOMContentLoaded', function () {
+  const pendiente = document.getElementById('clima-pendiente');
+  if (!pendiente) return;
+
+  fetch('/api/weather/resumen?city=' + encodeURIComponent(pendiente.dataset.ciudad))
+    .then(response => {
+      if (!response.ok) throw new Error('HTTP ' + response.status);
+      return response.json();
+    })
+    .then(clima => {
+      const icono = iconoClima(clima.icono || '');
+      const descripcion = clima.descripcion
+        ? clima.descripcion.charAt(0).toUpperCase() + clima.descripcion.slice(1)
+        : '';
+      const wrapper = document.createElement('div');
+      wrapper.className = 'clima-body-wrapper';
+      wrapper.innerHTML = `
+        <div class="clima-visual">
+          <div class="clima-icon"><i class="bx ${icono}"></i></div>
+          <div class="clima-status"></div>
+        </div>
+        <div class="clima-details">
+          <div class="detail-item"><span>Temperatura</span><span>${clima.temperatura}°C</span></div>
+          <div class="detail-item"><span>Humedad</span><span>${clima.humedad}%</span></div>
+          <div class="detail-item"><span>Hora</span><span class="clima-hora"></span></div>
+        </div>
+      `;
+      wrapper.querySelector('.clima-status').textContent = descripcion;
+      wrapper.querySelector('.clima-hora').textContent = clima.hora;
+      pendiente.replaceWith(wrapper);
+    })
+    .catch(err => {
+      console.error(err);
+      pendiente.innerHTML =
+        '<p style="color: red">No se pudo obtener el clima. Verifica el nombre de la ciudad en tu perfil.</p>';
+    });
+});
+
+// Mismo criterio que la plantilla home.html para elegir el ícono de Boxicons.
+function iconoClima(icono) {
+  if (icono.startsWith('01')) return 'bx-sun';
+  if (icono.startsWith('02')) return 'bx-cloud';
+  if (icono.startsWith('03') || icono.startsWith('04')) return 'bxs-cloud';
+  if (icono.startsWith('09') || icono.startsWith('10')) return 'bx-cloud-rain';
+  if (icono.startsWith('11')) return 'bx-cloud-lightning';
+  if (icono.startsWith('13')) return 'bx-cloud-snow';
+  if (icono.startsWith('50')) return 'bx-menu';
+  return 'bx-question-mark';
+}
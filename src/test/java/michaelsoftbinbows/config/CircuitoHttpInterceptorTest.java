@@ -0,0 +1,69 @@
+package michaelsoftbinbows.config;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.URI;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+/** Pruebas unitarias para el circuit breaker por host de CircuitoHttpInterceptor. */
+@ExtendWith(MockitoExtension.class)
+class CircuitoHttpInterceptorTest {
+
+  private static final byte[] SIN_CUERPO = new byte[0];
+
+  @Mock private HttpRequest request;
+  @Mock private ClientHttpRequestExecution execution;
+  @Mock private ClientHttpResponse respuestaOk;
+
+  @BeforeEach
+  void setUp() {
+    when(request.getURI()).thenReturn(URI.create("https://api.ejemplo.cl/clima"));
+  }
+
+  /** Test 1: Tras los fallos seguidos configurados, el circuito rechaza sin llamar al host. */
+  @Test
+  void testCircuitoSeAbre() throws IOException {
+    when(execution.execute(request, SIN_CUERPO)).thenThrow(new IOException("caído"));
+    CircuitoHttpInterceptor interceptor = new CircuitoHttpInterceptor(2, 60_000);
+
+    assertThrows(IOException.class, () -> interceptor.intercept(request, SIN_CUERPO, execution));
+    assertThrows(IOException.class, () -> interceptor.intercept(request, SIN_CUERPO, execution));
+    assertThrows(IOException.class, () -> interceptor.intercept(request, SIN_CUERPO, execution));
+
+    verify(execution, times(2)).execute(request, SIN_CUERPO);
+  }
+
+  /**
+   * Test 2: Una RuntimeException en la petición de prueba cuenta como fallo y libera la prueba, así
+   * que el host no queda bloqueado para siempre.
+   */
+  @Test
+  void testRuntimeExceptionLiberaLaPrueba() throws IOException {
+    when(respuestaOk.getStatusCode()).thenReturn(HttpStatus.OK);
+    when(execution.execute(request, SIN_CUERPO))
+        .thenThrow(new IOException("caído"))
+        .thenThrow(new IllegalStateException("respuesta inválida"))
+        .thenReturn(respuestaOk);
+    // Se abre con un fallo y vuelve a probar de inmediato
+    CircuitoHttpInterceptor interceptor = new CircuitoHttpInterceptor(1, 0);
+
+    assertThrows(IOException.class, () -> interceptor.intercept(request, SIN_CUERPO, execution));
+    assertThrows(
+        IllegalStateException.class, () -> interceptor.intercept(request, SIN_CUERPO, execution));
+
+    assertSame(respuestaOk, interceptor.intercept(request, SIN_CUERPO, execution));
+  }
+}
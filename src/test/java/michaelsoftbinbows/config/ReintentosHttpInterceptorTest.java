@@ -0,0 +1,72 @@
+package michaelsoftbinbows.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.URI;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+/** Pruebas unitarias para los reintentos con tiempo total de ReintentosHttpInterceptor. */
+@ExtendWith(MockitoExtension.class)
+class ReintentosHttpInterceptorTest {
+
+  private static final byte[] SIN_CUERPO = new byte[0];
+
+  @Mock private HttpRequest request;
+  @Mock private ClientHttpRequestExecution execution;
+  @Mock private ClientHttpResponse respuestaError;
+  @Mock private ClientHttpResponse respuestaOk;
+
+  @BeforeEach
+  void setUp() {
+    when(request.getMethod()).thenReturn(HttpMethod.GET);
+  }
+
+  /** Test 1: Una respuesta 503 rápida se reintenta y se devuelve la del reintento. */
+  @Test
+  void testReintentaRespuesta503() throws IOException {
+    when(request.getURI()).thenReturn(URI.create("https://api.ejemplo.cl/clima"));
+    when(respuestaError.getStatusCode()).thenReturn(HttpStatus.SERVICE_UNAVAILABLE);
+    when(respuestaOk.getStatusCode()).thenReturn(HttpStatus.OK);
+    when(execution.execute(request, SIN_CUERPO)).thenReturn(respuestaError, respuestaOk);
+    ReintentosHttpInterceptor interceptor = new ReintentosHttpInterceptor(2, 1, 1000, 100);
+
+    ClientHttpResponse respuesta = interceptor.intercept(request, SIN_CUERPO, execution);
+
+    assertSame(respuestaOk, respuesta);
+    verify(respuestaError).close();
+    verify(execution, times(2)).execute(request, SIN_CUERPO);
+  }
+
+  /**
+   * Test 2: Si un intento completo ya no cabe en el tiempo que queda, no se reintenta aunque queden
+   * reintentos.
+   */
+  @Test
+  void testNoReintentaSiElIntentoNoCabe() throws IOException {
+    when(execution.execute(request, SIN_CUERPO)).thenThrow(new IOException("timeout"));
+    // Tiempo total de 5 s, pero cada intento puede tardar hasta 5 s
+    ReintentosHttpInterceptor interceptor = new ReintentosHttpInterceptor(2, 1, 5000, 5000);
+
+    IOException error =
+        assertThrows(
+            IOException.class, () -> interceptor.intercept(request, SIN_CUERPO, execution));
+
+    assertEquals("timeout", error.getMessage());
+    verify(execution, times(1)).execute(request, SIN_CUERPO);
+  }
+}
@@ -0,0 +1,53 @@
+package michaelsoftbinbows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import michaelsoftbinbows.data.ActividadDiariaRepository;
+import michaelsoftbinbows.data.ConfiguracionRepository;
+import michaelsoftbinbows.entities.Configuracion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Pruebas unitarias para el mantenimiento de la actividad diaria. */
+@ExtendWith(MockitoExtension.class)
+class ActividadDiariaServiceTest {
+
+  private static final LocalDate HOY = LocalDate.of(2025, 10, 17);
+
+  @Mock private ActividadDiariaRepository actividadDiariaRepository;
+  @Mock private ConfiguracionRepository configuracionRepository;
+
+  @InjectMocks private ActividadDiariaService actividadDiariaService;
+
+  /** Test 1: Eliminar una tarea completada descuenta lo que había sumado a su día. */
+  @Test
+  void testTareaEliminadaDescuentaSuDia() {
+    actividadDiariaService.registrarTareaEliminada(1L, HOY, 30, 30);
+
+    verify(actividadDiariaRepository).sumarActividad(1L, HOY, -1, -30, -30);
+  }
+
+  /** Test 2: El relleno se hace una sola vez y deja la marca; después ya no toca la tabla. */
+  @Test
+  void testRellenoSoloUnaVez() {
+    when(configuracionRepository.existsById(ActividadDiariaService.CLAVE_RELLENO_HECHO))
+        .thenReturn(false, false, true);
+    when(actividadDiariaRepository.recalcularDesdeTareas()).thenReturn(12);
+
+    assertEquals(12, actividadDiariaService.rellenarFaltantes());
+    verify(configuracionRepository).save(any(Configuracion.class));
+
+    assertEquals(0, actividadDiariaService.rellenarFaltantes());
+    verify(actividadDiariaRepository).bloquearTabla();
+    verify(actividadDiariaRepository).recalcularDesdeTareas();
+    verify(actividadDiariaRepository, never()).eliminarPorUsuario(any());
+  }
+}
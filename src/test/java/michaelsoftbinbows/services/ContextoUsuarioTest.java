@@ -0,0 +1,75 @@
+package michaelsoftbinbows.services;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import michaelsoftbinbows.data.UsuarioRepository;
+import michaelsoftbinbows.entities.Usuario;
+import michaelsoftbinbows.security.CustomUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/** Pruebas unitarias para el usuario compartido de la petición. */
+@ExtendWith(MockitoExtension.class)
+class ContextoUsuarioTest {
+
+  @Mock private UsuarioRepository usuarioRepository;
+
+  @InjectMocks private ContextoUsuario contextoUsuario;
+
+  private Usuario usuario;
+
+  @BeforeEach
+  void setUp() {
+    usuario = new Usuario();
+    usuario.setId(7L);
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new UsernamePasswordAuthenticationToken(new CustomUserDetails(usuario), null));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  /** Test 1: El usuario se consulta una sola vez por petición, y de nuevo tras invalidar(). */
+  @Test
+  void testCargaUnaVezHastaInvalidar() {
+    when(usuarioRepository.findConTareasById(7L)).thenReturn(Optional.of(usuario));
+
+    assertSame(usuario, contextoUsuario.getUsuario());
+    assertSame(usuario, contextoUsuario.getUsuario());
+    verify(usuarioRepository, times(1)).findConTareasById(7L);
+
+    contextoUsuario.invalidar();
+    assertSame(usuario, contextoUsuario.getUsuario());
+    verify(usuarioRepository, times(2)).findConTareasById(7L);
+  }
+
+  /** Test 2: Tras vaciar la sesión, AuthService ya no devuelve el usuario cargado antes. */
+  @Test
+  void testVaciarSesionDescartaElUsuario() {
+    when(usuarioRepository.findConTareasById(7L)).thenReturn(Optional.of(usuario));
+    AuthService authService = new AuthService();
+    authService.contextoUsuario = contextoUsuario;
+    authService.usuarioRepository = usuarioRepository;
+
+    assertSame(usuario, authService.getCurrentUser());
+    authService.vaciarSesion();
+
+    assertNull(authService.getCurrentUser());
+    verify(usuarioRepository, times(1)).findConTareasById(7L);
+  }
+}
@@ -0,0 +1,79 @@
+package michaelsoftbinbows.services;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import michaelsoftbinbows.data.TareaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Pruebas unitarias para la agenda de expiración de ExpiracionTareasService. */
+@ExtendWith(MockitoExtension.class)
+class ExpiracionTareasServiceTest {
+
+  private static final Long USUARIO_ID = 7L;
+
+  @Mock private TareaRepository tareaRepository;
+  @Mock private UsuarioEstadisticasService usuarioEstadisticasService;
+  @Mock private TransactionTemplate transactionTemplate;
+
+  @InjectMocks private ExpiracionTareasService expiracionTareasService;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(expiracionTareasService, "minutosAviso", 60L);
+    when(tareaRepository.findVencimientosPendientes()).thenReturn(List.of());
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+  }
+
+  /**
+   * Test 1: Al vencer, la tarea se elimina comparando con la hora actual (posterior a su fecha de
+   * expiración), no con la fecha agendada, que la BD guarda redondeada al microsegundo.
+   */
+  @Test
+  void testExpiraConLaHoraActual() {
+    LocalDateTime fecha = LocalDateTime.now(ZoneId.systemDefault()).minusSeconds(1).withNano(1);
+    when(tareaRepository.eliminarExpiradasPorIds(eq(List.of(5L)), any())).thenReturn(1);
+
+    expiracionTareasService.agendar(5L, USUARIO_ID, fecha);
+    expiracionTareasService.iniciarAgenda();
+
+    verify(tareaRepository, timeout(2000))
+        .eliminarExpiradasPorIds(eq(List.of(5L)), argThat(ahora -> ahora.isAfter(fecha)));
+    verify(usuarioEstadisticasService, timeout(2000)).registrarPendientesEliminadas(USUARIO_ID, 1);
+    assertTrue(expiracionTareasService.getTareasPorExpirar(USUARIO_ID).isEmpty());
+  }
+
+  /** Test 2: Una tarea cancelada (completada o eliminada) ya no se expira desde la agenda. */
+  @Test
+  void testTareaCanceladaNoExpira() {
+    LocalDateTime ahora = LocalDateTime.now(ZoneId.systemDefault());
+    when(tareaRepository.eliminarExpiradasPorIds(eq(List.of(6L)), any())).thenReturn(1);
+
+    // La tarea 5 vence antes, así que la agenda la procesa primero
+    expiracionTareasService.agendar(5L, USUARIO_ID, ahora.minusSeconds(2));
+    expiracionTareasService.agendar(6L, USUARIO_ID, ahora.minusSeconds(1));
+    expiracionTareasService.cancelar(5L, USUARIO_ID);
+    expiracionTareasService.iniciarAgenda();
+
+    verify(tareaRepository, timeout(2000)).eliminarExpiradasPorIds(eq(List.of(6L)), any());
+    verify(tareaRepository, never()).eliminarExpiradasPorIds(eq(List.of(5L)), any());
+  }
+}
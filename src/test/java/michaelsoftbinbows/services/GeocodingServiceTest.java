@@ -3,10 +3,15 @@ package michaelsoftbinbows.services;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import michaelsoftbinbows.data.UbicacionCacheadaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,6 +30,8 @@ class GeocodingServiceTest {
 
   @Mock private RestTemplate restTemplate;
 
+  @Mock private UbicacionCacheadaRepository ubicacionRepository;
+
   @InjectMocks private GeocodingService geocodingService;
 
   private static final String API_KEY = "test-api-key";
@@ -95,4 +102,45 @@ class GeocodingServiceTest {
 
     verify(restTemplate, times(1)).getForEntity(expectedUrl, String.class);
   }
+
+  /** Test 4: Dos coordenadas muy cercanas (GPS impreciso) reutilizan la misma respuesta. */
+  @Test
+  void testGetCityByCoordinatesReutilizaCeldaDeGrilla() {
+    double lat = -33.4489;
+    double lon = -70.6693;
+    String expectedUrl =
+        "https://api.openweathermap.org/geo/1.0/reverse?lat="
+            + lat
+            + "&lon="
+            + lon
+            + "&limit=1&appid="
+            + API_KEY;
+    String mockResponse = "[{\"name\":\"Santiago\",\"country\":\"CL\"}]";
+
+    ResponseEntity<String> responseEntity = new ResponseEntity<>(mockResponse, HttpStatus.OK);
+    when(restTemplate.getForEntity(expectedUrl, String.class)).thenReturn(responseEntity);
+
+    geocodingService.getCityByCoordinates(lat, lon);
+    String result = geocodingService.getCityByCoordinates(-33.4491, -70.6688);
+
+    assertEquals(mockResponse, result);
+    verify(restTemplate, times(1)).getForEntity(anyString(), eq(String.class));
+    verify(ubicacionRepository, times(1)).guardar(anyString(), eq(mockResponse), any());
+  }
+
+  /** Test 5: Una respuesta vacía (ciudad no encontrada) no se guarda en la BD. */
+  @Test
+  void testRespuestaVaciaNoSeGuardaEnBd() {
+    String city = "CiudadQueNoExiste";
+    String expectedUrl =
+        "https://api.openweathermap.org/geo/1.0/direct?q=" + city + "&limit=1&appid=" + API_KEY;
+    when(restTemplate.getForEntity(expectedUrl, String.class))
+        .thenReturn(new ResponseEntity<>("[]", HttpStatus.OK));
+
+    assertEquals("[]", geocodingService.getCoordinatesByCity(city));
+    assertEquals("[]", geocodingService.getCoordinatesByCity(city));
+
+    verify(restTemplate, times(1)).getForEntity(expectedUrl, String.class);
+    verify(ubicacionRepository, never()).guardar(anyString(), anyString(), any());
+  }
 }
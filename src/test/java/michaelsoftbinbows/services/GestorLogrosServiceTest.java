@@ -0,0 +1,88 @@
+package michaelsoftbinbows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.EnumSet;
+import java.util.List;
+import michaelsoftbinbows.entities.Logro;
+import michaelsoftbinbows.entities.Usuario;
+import michaelsoftbinbows.entities.UsuarioLogro;
+import michaelsoftbinbows.model.TipoEventoLogro;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Pruebas unitarias para la evaluación de logros por evento. */
+@ExtendWith(MockitoExtension.class)
+class GestorLogrosServiceTest {
+
+  private static final Logro BIENVENIDA = new Logro("JOIN_APP", "Bienvenida", "", 0);
+  private static final Logro NIVEL_5 = new Logro("REACH_LEVEL_5", "Aprendiz", "", 100);
+
+  @Mock private LogroService logroService;
+  @Mock private UsuarioEstadisticasService usuarioEstadisticasService;
+
+  @InjectMocks private GestorLogrosService gestorLogrosService;
+
+  private Usuario usuario;
+
+  @BeforeEach
+  void setUp() {
+    usuario = new Usuario();
+    usuario.setNivelExperiencia(6);
+  }
+
+  /** Test 1: Solo se evalúan los logros suscritos al evento ocurrido. */
+  @Test
+  void testSoloEvaluaLosLogrosDelEvento() {
+    when(logroService.obtenerActivosEnCache()).thenReturn(List.of(BIENVENIDA, NIVEL_5));
+
+    assertTrue(
+        gestorLogrosService.procesarEventos(
+            usuario, null, EnumSet.of(TipoEventoLogro.INICIO_SESION)));
+    // El de nivel ya se cumple, pero no se evalúa hasta que llegue NIVEL_SUBIDO
+    assertEquals(1, usuario.getUsuarioLogros().size());
+    assertEquals("JOIN_APP", usuario.getUsuarioLogros().get(0).getLogro().getId());
+
+    assertTrue(
+        gestorLogrosService.procesarEventos(
+            usuario, null, EnumSet.of(TipoEventoLogro.NIVEL_SUBIDO)));
+    assertEquals(2, usuario.getUsuarioLogros().size());
+    assertEquals(100, usuario.getExperiencia());
+  }
+
+  /** Test 2: Un logro que el usuario ya tiene no se vuelve a otorgar ni a evaluar. */
+  @Test
+  void testOmiteLogrosYaObtenidos() {
+    when(logroService.obtenerActivosEnCache()).thenReturn(List.of(BIENVENIDA));
+    usuario.getUsuarioLogros().add(new UsuarioLogro(usuario, BIENVENIDA));
+
+    assertFalse(
+        gestorLogrosService.procesarEventos(
+            usuario, null, EnumSet.of(TipoEventoLogro.INICIO_SESION)));
+    assertEquals(1, usuario.getUsuarioLogros().size());
+    verifyNoInteractions(usuarioEstadisticasService);
+  }
+
+  /** Test 3: El índice se reconstruye cuando cambia la lista de logros activos. */
+  @Test
+  void testReconstruyeIndiceCuandoCambianLosActivos() {
+    when(logroService.obtenerActivosEnCache())
+        .thenReturn(List.of(BIENVENIDA), List.of(BIENVENIDA, NIVEL_5));
+
+    assertFalse(
+        gestorLogrosService.procesarEventos(
+            usuario, null, EnumSet.of(TipoEventoLogro.NIVEL_SUBIDO)));
+    assertTrue(
+        gestorLogrosService.procesarEventos(
+            usuario, null, EnumSet.of(TipoEventoLogro.NIVEL_SUBIDO)));
+    assertEquals("REACH_LEVEL_5", usuario.getUsuarioLogros().get(0).getLogro().getId());
+  }
+}
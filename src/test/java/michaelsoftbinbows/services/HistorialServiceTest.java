@@ -0,0 +1,56 @@
+package michaelsoftbinbows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import michaelsoftbinbows.data.ActividadDiariaRepository;
+import michaelsoftbinbows.dto.SerieHistorialDto;
+import michaelsoftbinbows.model.GranularidadSerie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Pruebas unitarias para el armado de series en HistorialService. */
+@ExtendWith(MockitoExtension.class)
+class HistorialServiceTest {
+
+  @Mock private ActividadDiariaRepository actividadDiariaRepository;
+
+  @InjectMocks private HistorialService historialService;
+
+  /** Test 1: Las semanas sin tareas se completan con ceros y empiezan el lunes. */
+  @Test
+  void testSerieSemanalRellenaPeriodosVacios() {
+    // Miércoles 1 al viernes 17 de octubre de 2025: semanas del 29/9, 6/10 y 13/10
+    LocalDate desde = LocalDate.of(2025, 10, 1);
+    LocalDate hasta = LocalDate.of(2025, 10, 17);
+    when(actividadDiariaRepository.sumarPorPeriodo(1L, "week", desde, hasta))
+        .thenReturn(List.<Object[]>of(new Object[] {Date.valueOf("2025-10-06"), 3L, 75L}));
+
+    SerieHistorialDto serie =
+        historialService.obtenerSerie(1L, desde, hasta, GranularidadSerie.SEMANA);
+
+    assertEquals(3, serie.getPuntos().size());
+    assertEquals(LocalDate.of(2025, 9, 29), serie.getPuntos().get(0).getPeriodo());
+    assertEquals(0, serie.getPuntos().get(0).getTareas());
+    assertEquals(3, serie.getPuntos().get(1).getTareas());
+    assertEquals(75, serie.getPuntos().get(1).getExp());
+    assertEquals(3, serie.getTotalTareas());
+  }
+
+  /** Test 2: Un rango invertido se rechaza. */
+  @Test
+  void testRangoInvertido() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            historialService.obtenerSerie(
+                1L, LocalDate.of(2025, 10, 2), LocalDate.of(2025, 10, 1), GranularidadSerie.DIA));
+  }
+}
@@ -0,0 +1,123 @@
+package michaelsoftbinbows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.function.Consumer;
+import michaelsoftbinbows.data.TareaRepository;
+import michaelsoftbinbows.data.UsuarioRepository;
+import michaelsoftbinbows.dto.ResultadoImportacionDto;
+import michaelsoftbinbows.dto.TareaDto;
+import michaelsoftbinbows.entities.Tarea;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Pruebas unitarias para la validación por fila de ImportacionTareasService. */
+@ExtendWith(MockitoExtension.class)
+class ImportacionTareasServiceTest {
+
+  private static final Long USUARIO_ID = 7L;
+
+  @Mock private TareaRepository tareaRepository;
+  @Mock private UsuarioRepository usuarioRepository;
+  @Mock private UsuarioEstadisticasService usuarioEstadisticasService;
+  @Mock private ExpiracionTareasService expiracionTareasService;
+  @Mock private TransactionTemplate transactionTemplate;
+  @Mock private EntityManager entityManager;
+
+  @InjectMocks private ImportacionTareasService importacionTareasService;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(importacionTareasService, "maxFilas", 100);
+    ReflectionTestUtils.setField(importacionTareasService, "tamanoLote", 10);
+    ReflectionTestUtils.setField(importacionTareasService, "objectMapper", new ObjectMapper());
+  }
+
+  private static TareaDto tarea(String nombre, String descripcion, String dificultad) {
+    TareaDto dto = new TareaDto();
+    dto.nombre = nombre;
+    dto.descripcion = descripcion;
+    dto.dificultad = dificultad;
+    return dto;
+  }
+
+  /**
+   * Test 1: Las filas inválidas o repetidas (contra la BD o dentro de la misma importación) se
+   * rechazan una por una, y las válidas se guardan en un solo lote.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  void testImportarRechazaPorFila() {
+    when(tareaRepository.findNombresPendientes(USUARIO_ID)).thenReturn(List.of("Regar plantas"));
+    when(tareaRepository.findDescripcionesPendientes(USUARIO_ID))
+        .thenReturn(List.of("Regar todas las plantas"));
+    doAnswer(
+            inv -> {
+              ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(null);
+              return null;
+            })
+        .when(transactionTemplate)
+        .executeWithoutResult(any());
+
+    ResultadoImportacionDto resultado =
+        importacionTareasService.importar(
+            USUARIO_ID,
+            List.of(
+                tarea("Lavar la ropa", "Lavar la ropa blanca", "Fácil"),
+                tarea("Regar plantas", "Regar el jardín de atrás", "Fácil"),
+                tarea("Lavar la ropa", "Lavar la ropa de color", "Medio"),
+                tarea("Hacer ejercicio", "Salir a trotar 30 minutos", "Imposible"),
+                tarea("Estudiar cálculo", "Repasar derivadas", "Difícil")));
+
+    assertEquals(2, resultado.getCreadas());
+    assertEquals(3, resultado.getRechazadas());
+    assertTrue(resultado.getFilas().get(0).isCreada());
+    assertNull(resultado.getFilas().get(0).getError());
+    assertEquals("Tarea \"Regar plantas\" ya existente.", resultado.getFilas().get(1).getError());
+    assertEquals("Tarea \"Lavar la ropa\" ya existente.", resultado.getFilas().get(2).getError());
+    assertEquals("Dificultad inválida: Imposible", resultado.getFilas().get(3).getError());
+    assertEquals(5, resultado.getFilas().get(4).getFila());
+    verify(entityManager, times(2)).persist(any(Tarea.class));
+    verify(usuarioEstadisticasService).registrarTareasCreadas(USUARIO_ID, 2);
+    verify(usuarioRepository).getReferenceById(USUARIO_ID);
+    verify(expiracionTareasService, times(2)).registrarExpiracion(any(), any(), any());
+  }
+
+  /**
+   * Test 2: En NDJSON se ignoran las líneas vacías y una línea mal formada queda como fila nula.
+   */
+  @Test
+  void testLeerNdjson() throws Exception {
+    String cuerpo =
+        "{\"nombre\":\"Lavar la ropa\",\"descripcion\":\"Lavar la ropa blanca\","
+            + "\"dificultad\":\"Fácil\"}\n"
+            + "\n"
+            + "{esto no es json\n";
+
+    List<TareaDto> filas =
+        importacionTareasService.leerNdjson(new BufferedReader(new StringReader(cuerpo)));
+
+    assertEquals(2, filas.size());
+    assertEquals("Lavar la ropa", filas.get(0).nombre);
+    assertNull(filas.get(1));
+  }
+}
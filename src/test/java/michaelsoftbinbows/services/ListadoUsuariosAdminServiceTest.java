@@ -0,0 +1,84 @@
+package michaelsoftbinbows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.List;
+import michaelsoftbinbows.dto.PaginaUsuariosAdminDto;
+import michaelsoftbinbows.dto.UsuarioAdminDto;
+import michaelsoftbinbows.model.OrdenUsuariosAdmin;
+import michaelsoftbinbows.model.Rol;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Pruebas unitarias para la paginación con cursor de ListadoUsuariosAdminService. */
+@ExtendWith(MockitoExtension.class)
+class ListadoUsuariosAdminServiceTest {
+
+  @Mock private EntityManager entityManager;
+  @Mock private TypedQuery<UsuarioAdminDto> query;
+
+  @InjectMocks private ListadoUsuariosAdminService listadoUsuariosAdminService;
+
+  private static UsuarioAdminDto usuario(Long id, int puntos) {
+    return new UsuarioAdminDto(
+        id, "usuario" + id, "usuario" + id + "@correo.cl", Rol.USUARIO, 1, "Bronce", puntos);
+  }
+
+  /**
+   * Test 1: Con un cursor en orden por puntos se sigue desde el último usuario (menos puntos, o
+   * mismos puntos y mayor ID), y la fila de más solo indica que hay otra página.
+   */
+  @Test
+  void testPaginaSiguientePorPuntos() {
+    when(entityManager.createQuery(anyString(), eq(UsuarioAdminDto.class))).thenReturn(query);
+    when(query.setParameter(anyString(), any())).thenReturn(query);
+    when(query.setMaxResults(anyInt())).thenReturn(query);
+    when(query.getResultList())
+        .thenReturn(List.of(usuario(4L, 90), usuario(9L, 80), usuario(2L, 70)));
+
+    PaginaUsuariosAdminDto pagina =
+        listadoUsuariosAdminService.obtenerPagina(
+            "Ana_", Rol.USUARIO, OrdenUsuariosAdmin.PUNTOS, "100", 12L, 2);
+
+    verify(entityManager)
+        .createQuery(
+            contains(
+                "AND (u.puntosLiga < :valor OR (u.puntosLiga = :valor AND u.id > :id))"
+                    + " ORDER BY u.puntosLiga DESC, u.id ASC"),
+            eq(UsuarioAdminDto.class));
+    verify(query).setParameter("valor", 100);
+    verify(query).setParameter("id", 12L);
+    verify(query).setParameter("patron", "%ana!_%");
+    verify(query).setMaxResults(3);
+    assertEquals(2, pagina.getUsuarios().size());
+    assertTrue(pagina.isHayMas());
+    assertEquals("80", pagina.getSiguienteValor());
+    assertEquals(9L, pagina.getSiguienteId());
+  }
+
+  /** Test 2: Un cursor que no es número en un orden numérico se rechaza sin consultar la BD. */
+  @Test
+  void testCursorInvalido() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            listadoUsuariosAdminService.obtenerPagina(
+                null, null, OrdenUsuariosAdmin.NIVEL, "abc", 3L, 50));
+    verifyNoInteractions(entityManager);
+  }
+}
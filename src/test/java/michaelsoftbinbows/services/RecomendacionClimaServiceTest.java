@@ -0,0 +1,75 @@
+package michaelsoftbinbows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import michaelsoftbinbows.data.RecomendacionClimaRepository;
+import michaelsoftbinbows.entities.RecomendacionClima;
+import michaelsoftbinbows.entities.Tarea;
+import michaelsoftbinbows.model.CategoriaClima;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Pruebas unitarias para el índice en memoria de RecomendacionClimaService. */
+@ExtendWith(MockitoExtension.class)
+class RecomendacionClimaServiceTest {
+
+  @Mock private RecomendacionClimaRepository recomendacionClimaRepository;
+
+  @InjectMocks private RecomendacionClimaService recomendacionClimaService;
+
+  /** Test 1: Las recomendaciones se separan por clima y respetan el orden del catálogo. */
+  @Test
+  void testRecomendacionesPorCategoria() {
+    when(recomendacionClimaRepository.findByActivaTrueOrderByPrioridadAscIdAsc())
+        .thenReturn(
+            List.of(
+                new RecomendacionClima(
+                    "Salir a trotar",
+                    "Haz ejercicio al aire libre",
+                    "Medio",
+                    CategoriaClima.SOLEADO),
+                new RecomendacionClima(
+                    "Leer un libro", "Disfruta de una lectura", "Fácil", CategoriaClima.LLUVIA),
+                new RecomendacionClima(
+                    "Jardinería", "Cuida tus plantas", "Medio", CategoriaClima.SOLEADO)));
+
+    recomendacionClimaService.recargar();
+
+    List<Tarea> soleado =
+        recomendacionClimaService.getRecomendaciones(CategoriaClima.SOLEADO, null);
+    assertEquals(2, soleado.size());
+    assertEquals("Salir a trotar", soleado.get(0).getNombre());
+    assertEquals("Soleado", soleado.get(0).getClimaCompatible());
+    assertEquals(
+        1, recomendacionClimaService.getRecomendaciones(CategoriaClima.LLUVIA, null).size());
+    assertTrue(recomendacionClimaService.getRecomendaciones(CategoriaClima.NIEVE, null).isEmpty());
+  }
+
+  /** Test 2: Con temperatura, se omiten las recomendaciones cuyo rango no la incluye. */
+  @Test
+  void testRecomendacionesFiltranPorTemperatura() {
+    RecomendacionClima nadar =
+        new RecomendacionClima(
+            "Ir a nadar", "Refréscate en la piscina", "Fácil", CategoriaClima.SOLEADO);
+    nadar.setTemperaturaMinima(25);
+    RecomendacionClima caminar =
+        new RecomendacionClima(
+            "Caminar", "Sal a caminar un rato", "Muy fácil", CategoriaClima.SOLEADO);
+    when(recomendacionClimaRepository.findByActivaTrueOrderByPrioridadAscIdAsc())
+        .thenReturn(List.of(nadar, caminar));
+
+    recomendacionClimaService.recargar();
+
+    List<Tarea> frio = recomendacionClimaService.getRecomendaciones(CategoriaClima.SOLEADO, 12.0);
+    assertEquals(1, frio.size());
+    assertEquals("Caminar", frio.get(0).getNombre());
+    assertEquals(
+        2, recomendacionClimaService.getRecomendaciones(CategoriaClima.SOLEADO, 30.0).size());
+  }
+}
@@ -0,0 +1,50 @@
+package michaelsoftbinbows.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import michaelsoftbinbows.data.TareaRepository;
+import michaelsoftbinbows.data.UsuarioEstadisticasRepository;
+import michaelsoftbinbows.entities.UsuarioEstadisticas;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Pruebas unitarias para la actualización de las estadísticas agregadas. */
+@ExtendWith(MockitoExtension.class)
+class UsuarioEstadisticasServiceTest {
+
+  @Mock private UsuarioEstadisticasRepository estadisticasRepository;
+  @Mock private TareaRepository tareaRepository;
+
+  @InjectMocks private UsuarioEstadisticasService usuarioEstadisticasService;
+
+  /** Test 1: Si el UPDATE atómico tocó la fila, no se lee ni se reconstruye nada. */
+  @Test
+  void testActualizacionAtomicaSinReconstruir() {
+    when(estadisticasRepository.sumarPendientes(1L, 3)).thenReturn(1);
+
+    usuarioEstadisticasService.registrarTareasCreadas(1L, 3);
+
+    verify(estadisticasRepository).sumarPendientes(1L, 3);
+    verify(tareaRepository, never()).findAllByUsuarioId(any());
+    verify(estadisticasRepository, never()).save(any());
+  }
+
+  /** Test 2: Si el usuario no tenía fila (0 actualizadas), se reconstruye desde sus tareas. */
+  @Test
+  void testSinFilaSeReconstruye() {
+    when(estadisticasRepository.restarPendientes(1L, 1)).thenReturn(0);
+    when(tareaRepository.findAllByUsuarioId(1L)).thenReturn(List.of());
+
+    usuarioEstadisticasService.registrarPendientesEliminadas(1L, 1);
+
+    verify(tareaRepository).findAllByUsuarioId(1L);
+    verify(estadisticasRepository).save(any(UsuarioEstadisticas.class));
+  }
+}
@@ -0,0 +1,76 @@
+package michaelsoftbinbows.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.Map;
+import michaelsoftbinbows.data.UsuarioRepository;
+import michaelsoftbinbows.entities.Usuario;
+import michaelsoftbinbows.model.TipoEventoLogro;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Pruebas unitarias para el procesamiento de logros de UsuarioService. */
+@ExtendWith(MockitoExtension.class)
+class UsuarioServiceTest {
+
+  @Mock private UsuarioRepository usuarioRepository;
+  @Mock private ConfiguracionService configuracionService;
+  @Mock private GestorLogrosService gestorLogrosService;
+
+  @InjectMocks private UsuarioService usuarioService;
+
+  private Usuario usuario;
+
+  @BeforeEach
+  void setUp() {
+    usuario = new Usuario();
+    usuario.setNivelExperiencia(1);
+    usuario.setLiga("Bronce");
+  }
+
+  /** Test 1: Si la XP de un logro sube el nivel, se hace otra pasada con NIVEL_SUBIDO. */
+  @Test
+  void testSegundaPasadaTrasSubirDeNivel() {
+    when(configuracionService.getSnapshot())
+        .thenReturn(new ConfiguracionService.Snapshot(0, Map.of()));
+    // La primera pasada desbloquea un logro que da XP; la segunda no desbloquea nada
+    when(gestorLogrosService.procesarEventos(eq(usuario), any(), any()))
+        .thenAnswer(
+            invocacion -> {
+              usuario.setExperiencia(500);
+              return true;
+            })
+        .thenReturn(false);
+
+    usuarioService.procesarLogros(usuario, null, EnumSet.of(TipoEventoLogro.TAREA_COMPLETADA));
+
+    verify(gestorLogrosService)
+        .procesarEventos(usuario, null, EnumSet.of(TipoEventoLogro.NIVEL_SUBIDO));
+    assertEquals(3, usuario.getNivelExperiencia());
+  }
+
+  /** Test 2: Al entrar sin que cambie la racha solo se procesa el inicio de sesión. */
+  @Test
+  void testLoginSoloEmiteInicioDeSesion() {
+    usuario.setRacha(3);
+    usuario.setFechaRacha(LocalDate.now(ZoneId.systemDefault()));
+    when(gestorLogrosService.procesarEventos(eq(usuario), any(), any())).thenReturn(false);
+
+    usuarioService.manejarLogicaDeLogin(usuario);
+
+    verify(gestorLogrosService)
+        .procesarEventos(usuario, null, EnumSet.of(TipoEventoLogro.INICIO_SESION));
+    verify(usuarioRepository).save(usuario);
+  }
+}
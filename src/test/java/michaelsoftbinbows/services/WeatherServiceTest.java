@@ -7,6 +7,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import michaelsoftbinbows.dto.ClimaActual;
 import michaelsoftbinbows.exceptions.WeatherApiException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
@@ -120,4 +121,69 @@ class WeatherServiceTest {
     assertEquals("No se pudo obtener el clima para la ciudad indicada.", exception.getMessage());
     verify(restTemplate, times(1)).getForEntity(expectedUrl, String.class);
   }
+
+  /** Test 4: Verifica que una segunda consulta a la misma ciudad se responde desde la caché. */
+  @Test
+  void testGetWeatherByCityUsaCache() {
+    String city = "Santiago";
+    String expectedUrl =
+        "https://api.openweathermap.org/data/2.5/weather?q="
+            + city
+            + "&appid="
+            + API_KEY
+            + "&units=metric&lang=es";
+    String mockResponse = "{\"main\":{\"temp\":25.5},\"weather\":[{\"description\":\"soleado\"}]}";
+
+    ResponseEntity<String> responseEntity = new ResponseEntity<>(mockResponse, HttpStatus.OK);
+    when(restTemplate.getForEntity(expectedUrl, String.class)).thenReturn(responseEntity);
+
+    weatherService.getWeatherByCity(city);
+    String result = weatherService.getWeatherByCity("  santiago ");
+
+    assertEquals(mockResponse, result);
+    verify(restTemplate, times(1)).getForEntity(expectedUrl, String.class);
+  }
+
+  /** Test 5: Verifica que getClimaActual lee la respuesta completa y salta los campos extra. */
+  @Test
+  void testGetClimaActualLeeRespuesta() {
+    String city = "Curico";
+    String expectedUrl =
+        "https://api.openweathermap.org/data/2.5/weather?q="
+            + city
+            + "&appid="
+            + API_KEY
+            + "&units=metric&lang=es";
+    String mockResponse =
+        """
+                {
+                    "coord": { "lon": -71.24, "lat": -34.98 },
+                    "weather": [
+                        { "id": 800, "main": "Clear", "description": "cielo claro", "icon": "01d" },
+                        { "id": 701, "main": "Mist", "description": "niebla", "icon": "50d" }
+                    ],
+                    "main": { "temp": 21.7, "feels_like": 21.1, "humidity": 40 },
+                    "wind": { "speed": 3.1, "deg": 220 },
+                    "dt": 1699459200,
+                    "sys": { "country": "CL", "sunrise": 1699433000 },
+                    "timezone": -10800,
+                    "name": "Curicó"
+                }
+                """;
+
+    ResponseEntity<String> responseEntity = new ResponseEntity<>(mockResponse, HttpStatus.OK);
+    when(restTemplate.getForEntity(expectedUrl, String.class)).thenReturn(responseEntity);
+
+    ClimaActual clima = weatherService.getClimaActual(city);
+
+    assertEquals("Curicó", clima.nombre());
+    assertEquals("CL", clima.pais());
+    assertEquals(21.7, clima.temperatura());
+    assertEquals(40, clima.humedad());
+    assertEquals(3.1, clima.viento());
+    assertEquals("Clear", clima.principal());
+    assertEquals("cielo claro", clima.descripcion());
+    assertEquals("01d", clima.icono());
+    assertEquals("13:00", weatherService.resumirClima(clima).get("hora"));
+  }
 }
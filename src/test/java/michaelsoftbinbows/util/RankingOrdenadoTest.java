@@ -0,0 +1,72 @@
+package michaelsoftbinbows.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Pruebas unitarias para RankingOrdenado. */
+class RankingOrdenadoTest {
+
+  /** Test 1: Ordena por puntos descendentes y desempata por ID ascendente. */
+  @Test
+  void testOrdenPorPuntosLuegoPorId() {
+    RankingOrdenado ranking = new RankingOrdenado();
+    ranking.insertar(100, 3);
+    ranking.insertar(300, 1);
+    ranking.insertar(100, 2);
+    ranking.insertar(200, 4);
+
+    assertEquals(List.of(1L, 4L, 2L, 3L), ranking.rango(0, 10));
+    assertEquals(0, ranking.posicion(300, 1));
+    assertEquals(2, ranking.posicion(100, 2));
+    assertEquals(3, ranking.posicion(100, 3));
+  }
+
+  /** Test 2: Mover a un usuario (eliminar e insertar con nuevos puntos) actualiza su posición. */
+  @Test
+  void testActualizarPuntos() {
+    RankingOrdenado ranking = new RankingOrdenado();
+    ranking.insertar(50, 1);
+    ranking.insertar(40, 2);
+    ranking.insertar(30, 3);
+
+    ranking.eliminar(30, 3);
+    ranking.insertar(60, 3);
+
+    assertEquals(3, ranking.tamano());
+    assertEquals(0, ranking.posicion(60, 3));
+    assertEquals(List.of(1L, 2L), ranking.rango(1, 2));
+  }
+
+  /** Test 3: Compara contra una lista ordenada con muchas operaciones aleatorias. */
+  @Test
+  void testCoincideConListaOrdenada() {
+    Random random = new Random(42);
+    RankingOrdenado ranking = new RankingOrdenado();
+    List<long[]> esperado = new ArrayList<>();
+    for (long id = 0; id < 500; id++) {
+      int puntos = random.nextInt(100);
+      ranking.insertar(puntos, id);
+      esperado.add(new long[] {puntos, id});
+    }
+    for (int i = 0; i < 200; i++) {
+      long[] quitado = esperado.remove(random.nextInt(esperado.size()));
+      ranking.eliminar((int) quitado[0], quitado[1]);
+    }
+    esperado.sort(Comparator.<long[]>comparingLong(e -> -e[0]).thenComparingLong(e -> e[1]));
+
+    List<Long> ids = new ArrayList<>();
+    for (long[] entrada : esperado) {
+      ids.add(entrada[1]);
+    }
+    assertEquals(ids, ranking.rango(0, ids.size()));
+    assertEquals(ids.subList(100, 110), ranking.rango(100, 10));
+    for (int i = 0; i < esperado.size(); i += 37) {
+      assertEquals(i, ranking.posicion((int) esperado.get(i)[0], esperado.get(i)[1]));
+    }
+  }
+}